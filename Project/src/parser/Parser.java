@@ -2,32 +2,47 @@ package parser;
 
 import java.io.File;
 import java.io.FileInputStream;
+import java.io.BufferedReader;
 import java.io.FileNotFoundException;
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 import org.yaml.snakeyaml.Yaml;
+import org.yaml.snakeyaml.events.Event;
 
 import taskmanager.Developer;
+import taskmanager.PlanningBatch;
 import taskmanager.Project;
 import taskmanager.Resource;
 import taskmanager.ResourceType;
 import taskmanager.Task;
 import taskmanager.BranchOffice;
 import taskmanager.TaskManController;
+import taskmanager.TaskStatus;
 import taskmanager.Planning.PlanningBuilder;
 import taskmanager.ResourceType.ResourceTypeBuilder;
 import taskmanager.Task.TaskBuilder;
 import utility.TimeInterval;
+import utility.TimeSpan;
 
 /**
  * The Parser class implements a YAML parser for TaskMan We are using the
@@ -38,14 +53,31 @@ import utility.TimeInterval;
 
 public class Parser {
 
+	private static final Set<String> BRANCH_SECTIONS = new HashSet<String>(
+			Arrays.asList("dailyAvailability", "resourceTypes", "resources",
+					"developers", "projects", "tasks", "plannings"));
+
 	private DateTimeFormatter dateTimeFormatter = DateTimeFormatter
 			.ofPattern("yyyy-MM-dd HH:mm");
 	private DateTimeFormatter timeFormatter = DateTimeFormatter
 			.ofPattern("HH:mm");
 
+	// the objects that are built, in the order the input numbers them
 	private List<TimeInterval> timeIntervals = new ArrayList<TimeInterval>();
 	private List<Task> alltasks = new ArrayList<Task>();
 	private List<Resource> allresources = new ArrayList<Resource>();
+	private List<ResourceType> resourceTypes = new ArrayList<ResourceType>();
+	private List<Developer> developers = new ArrayList<Developer>();
+	private List<Project> projects = new ArrayList<Project>();
+	private List<BranchOffice> offices = new ArrayList<BranchOffice>();
+	private Map<BranchOffice, List<Project>> officeProjects = new HashMap<BranchOffice, List<Project>>();
+	private Map<Project, List<Task>> projectTasks = new HashMap<Project, List<Task>>();
+	private BranchOffice office;
+
+	// the plannings of the branch office are added in batches, the statuses
+	// of their tasks are set when the batch is built
+	private PlanningBatch plannings;
+	private List<PlannedStatus> plannedStatuses = new ArrayList<PlannedStatus>();
 
 	/**
 	 * This method parses the input file (needs absolute path) after it has
@@ -77,77 +109,372 @@ public class Parser {
 
 		// create TaskManController
 		TaskManController tmc = new TaskManController(systemTime);
+		startCompany();
 
 		List<LinkedHashMap<String, Object>> branches = (List<LinkedHashMap<String, Object>>) objects
 				.get("branch");
 
 		for (LinkedHashMap<String, Object> branch : branches) {
-			timeIntervals = new ArrayList<TimeInterval>();
-			alltasks = new ArrayList<Task>();
-			allresources = new ArrayList<Resource>();
-
 			BranchOffice activeOffice = tmc.createBranchOffice((String) branch
 					.get("location"));
-
 			tmc.logIn(activeOffice);
+			constructBranch(branch, tmc, activeOffice);
+		}
+
+		// Delegations
+		if (objects.get("delegations") != null) {
+			constructDelegations(
+					(List<LinkedHashMap<String, Object>>) objects
+							.get("delegations"),
+					tmc);
+		}
+
+		return tmc;
+	}
+
+	/**
+	 * This method parses the input file (needs absolute path) like parse, but
+	 * builds the objects of every branch office on a separate thread of the
+	 * common fork join pool. The branch offices only refer to each other by
+	 * their delegations, which are made when all branch offices are built.
+	 * The result is the same as the result of parse.
+	 * 
+	 * @param pathToFile
+	 * @throws FileNotFoundException
+	 * @throws RuntimeException
+	 */
+	@SuppressWarnings("unchecked")
+	public TaskManController parseParallel(String pathToFile)
+			throws FileNotFoundException, RuntimeException {
+		InputStream input = new FileInputStream(new File(pathToFile));
+		Map<String, Object> objects = (Map<String, Object>) new Yaml()
+				.load(input);
+
+		TaskManController tmc = new TaskManController(
+				constructSystemTime((CharSequence) objects.get("systemTime")));
+		startCompany();
+
+		// the offices are created in order, so they are numbered like in parse
+		List<BranchImport> imports = new ArrayList<BranchImport>();
+		for (LinkedHashMap<String, Object> branch : (List<LinkedHashMap<String, Object>>) objects
+				.get("branch")) {
+			BranchOffice branchOffice = tmc.createBranchOffice((String) branch
+					.get("location"));
+			imports.add(new BranchImport(branch, tmc, branchOffice));
+		}
+		ForkJoinPool pool = ForkJoinPool.commonPool();
+		for (BranchImport branchImport : imports) {
+			pool.execute(branchImport);
+		}
+		for (BranchImport branchImport : imports) {
+			branchImport.join();
+			offices.add(branchImport.office);
+			officeProjects.put(branchImport.office,
+					branchImport.parser.projects);
+			projectTasks.putAll(branchImport.parser.projectTasks);
+		}
+		if (!offices.isEmpty()) {
+			tmc.logIn(offices.get(offices.size() - 1));
+		}
+
+		if (objects.get("delegations") != null) {
+			constructDelegations(
+					(List<LinkedHashMap<String, Object>>) objects
+							.get("delegations"),
+					tmc);
+		}
+		return tmc;
+	}
+
+	/**
+	 * Builds the objects of one branch office with a parser of its own
+	 */
+	@SuppressWarnings("serial")
+	private static class BranchImport extends RecursiveAction {
+
+		private final LinkedHashMap<String, Object> branch;
+		private final TaskManController tmc;
+		private final BranchOffice office;
+		private final Parser parser = new Parser();
+
+		private BranchImport(LinkedHashMap<String, Object> branch,
+				TaskManController tmc, BranchOffice office) {
+			this.branch = branch;
+			this.tmc = tmc;
+			this.office = office;
+		}
+
+		@Override
+		protected void compute() {
+			parser.constructBranch(branch, tmc, office);
+		}
+	}
+
+	/**
+	 * This method parses the input file (needs absolute path) while it is
+	 * read. Every item of a section is built as soon as it is read and is not
+	 * kept afterwards, so the whole document is never in memory. The sections
+	 * must be in the order of the TaskMan file format: the system time before
+	 * the branches, the location first in a branch and the plannings after the
+	 * tasks.
+	 * 
+	 * @param pathToFile
+	 * @throws FileNotFoundException
+	 * @throws RuntimeException
+	 */
+	public TaskManController parseStreaming(String pathToFile)
+			throws FileNotFoundException, RuntimeException {
+		try (Reader input = new BufferedReader(new InputStreamReader(
+				new FileInputStream(new File(pathToFile)),
+				StandardCharsets.UTF_8))) {
+			YamlEventReader reader = new YamlEventReader(input);
+			reader.expect(Event.ID.StreamStart);
+			reader.expect(Event.ID.DocumentStart);
+			reader.expect(Event.ID.MappingStart);
+
+			TaskManController tmc = null;
+			while (!reader.isAt(Event.ID.MappingEnd)) {
+				switch (reader.readKey()) {
+				case "systemTime":
+					tmc = new TaskManController(
+							constructSystemTime((CharSequence) reader
+									.readValue()));
+					startCompany();
+					break;
+				case "branch":
+					if (reader.enterSequence()) {
+						while (reader.hasNextItem()) {
+							parseBranch(reader, tmc);
+						}
+					}
+					break;
+				case "delegations":
+					if (reader.enterSequence()) {
+						while (reader.hasNextItem()) {
+							constructDelegation(readItem(reader), tmc);
+						}
+					}
+					break;
+				default:
+					reader.readValue();
+				}
+			}
+			return tmc;
+		} catch (FileNotFoundException e) {
+			throw e;
+		} catch (IOException e) {
+			throw new RuntimeException(e);
+		}
+	}
 
-			// create daily availability
-			if (branch.get("dailyAvailability") != null) {
-				constructDailyAvailabilities((List<LinkedHashMap<String, Object>>) branch
-						.get("dailyAvailability"));
+	/**
+	 * Reads one branch office and builds its objects section by section
+	 */
+	private void parseBranch(YamlEventReader reader, TaskManController tmc) {
+		Map<Integer, LinkedHashMap<String, Object>> statuses = new HashMap<Integer, LinkedHashMap<String, Object>>();
+		Deque<LinkedHashMap<String, Object>> waitingTasks = new ArrayDeque<LinkedHashMap<String, Object>>();
+		BranchOffice activeOffice = null;
+
+		reader.expect(Event.ID.MappingStart);
+		while (!reader.isAt(Event.ID.MappingEnd)) {
+			String key = reader.readKey();
+			if (key.equals("location")) {
+				activeOffice = tmc.createBranchOffice((String) reader
+						.readValue());
+				startBranch(activeOffice, tmc);
+				tmc.logIn(activeOffice);
+				continue;
 			}
-			// create all resource types
-			if (branch.get("resourceTypes") != null) {
-				constructResourceTypes(
-						(List<LinkedHashMap<String, Object>>) branch
-								.get("resourceTypes"),
-						tmc, activeOffice);
+			if (!BRANCH_SECTIONS.contains(key)) {
+				reader.readValue();
+				continue;
 			}
-			// create all resources
-			if (branch.get("resources") != null) {
-				constructResources(
-						(List<LinkedHashMap<String, Object>>) branch
-								.get("resources"),
-						tmc);
+			if (!reader.enterSequence()) {
+				continue;
 			}
-			// create all developers
-			if (branch.get("developers") != null) {
-				constructDevelopers(
-						(List<LinkedHashMap<String, Object>>) branch
-								.get("developers"),
-						tmc);
+			while (reader.hasNextItem()) {
+				LinkedHashMap<String, Object> item = readItem(reader);
+				switch (key) {
+				case "dailyAvailability":
+					constructDailyAvailability(item);
+					break;
+				case "resourceTypes":
+					constructResourceType(item, tmc);
+					break;
+				case "resources":
+					constructResource(item, tmc);
+					break;
+				case "developers":
+					constructDeveloper(item, tmc);
+					break;
+				case "projects":
+					constructProject(item, tmc);
+					break;
+				case "tasks":
+					waitingTasks.add(item);
+					constructWaitingTasks(waitingTasks, statuses, tmc);
+					break;
+				case "plannings":
+					int taskNr = (int) item.get("task");
+					LinkedHashMap<String, Object> status = statuses
+							.remove(taskNr);
+					constructPlanning(item, status);
+					if (status != null) {
+						plannedStatuses.add(new PlannedStatus(status, item,
+								alltasks.get(taskNr)));
+						if (!waitingTasks.isEmpty()) {
+							// the task can be the original of a waiting task
+							constructPlannedStatuses(tmc);
+							constructWaitingTasks(waitingTasks, statuses, tmc);
+						}
+					}
+					break;
+				}
 			}
-
-			// create all projects
-			if (branch.get("projects") != null) {
-				constructProjects(
-						(List<LinkedHashMap<String, Object>>) branch
-								.get("projects"),
-						tmc);
+			if (key.equals("resources")) {
+				collectResources(tmc);
 			}
-			// create all tasks
-			if (branch.get("tasks") != null) {
-				List<LinkedHashMap<String, Object>> plannings = new ArrayList<LinkedHashMap<String, Object>>();
-				if (branch.get("plannings") != null) {
-					plannings = (List<LinkedHashMap<String, Object>>) branch
-							.get("plannings");
+			if (key.equals("plannings")) {
+				constructPlannedStatuses(tmc);
+				constructWaitingTasks(waitingTasks, statuses, tmc);
+			}
+		}
+		constructPlannedStatuses(tmc);
+		// tasks that are still waiting fail like they do in parse
+		while (!waitingTasks.isEmpty()) {
+			constructStreamedTask(waitingTasks.poll(), statuses, tmc);
+		}
+		reader.expect(Event.ID.MappingEnd);
+	}
+
+	/**
+	 * Constructs the waiting tasks in order, until a task is an alternative
+	 * for a task that has not failed yet. Its original task fails when the
+	 * planning of the original task is read.
+	 */
+	private void constructWaitingTasks(
+			Deque<LinkedHashMap<String, Object>> waitingTasks,
+			Map<Integer, LinkedHashMap<String, Object>> statuses,
+			TaskManController tmc) {
+		while (!waitingTasks.isEmpty()) {
+			LinkedHashMap<String, Object> task = waitingTasks.peek();
+			if (task.get("alternativeFor") != null) {
+				Project projectOfTask = projects.get((int) task.get("project"));
+				Task original = projectTasks.get(projectOfTask).get(
+						(int) task.get("alternativeFor") - 1);
+				if (original.getStatus() != TaskStatus.FAILED) {
+					return;
 				}
-				constructTasks(
-						(List<LinkedHashMap<String, Object>>) branch
-								.get("tasks"),
-						plannings, tmc);
 			}
+			constructStreamedTask(waitingTasks.poll(), statuses, tmc);
 		}
+	}
 
-		// Delegations
-		if (objects.get("delegations") != null) {
-			constructDelegations(
-					(List<LinkedHashMap<String, Object>>) objects
-							.get("delegations"),
+	/**
+	 * Constructs a task and keeps its status until its planning is read
+	 */
+	private void constructStreamedTask(LinkedHashMap<String, Object> task,
+			Map<Integer, LinkedHashMap<String, Object>> statuses,
+			TaskManController tmc) {
+		constructTask(task, tmc);
+		if (task.get("status") != null) {
+			LinkedHashMap<String, Object> status = new LinkedHashMap<String, Object>();
+			status.put("status", task.get("status"));
+			status.put("startTime", task.get("startTime"));
+			status.put("endTime", task.get("endTime"));
+			statuses.put(alltasks.size() - 1, status);
+		}
+	}
+
+	/**
+	 * Constructs the objects of one branch office. Only the given office is
+	 * changed.
+	 */
+	@SuppressWarnings("unchecked")
+	private void constructBranch(LinkedHashMap<String, Object> branch,
+			TaskManController tmc, BranchOffice activeOffice) {
+		startBranch(activeOffice, tmc);
+
+		// create daily availability
+		if (branch.get("dailyAvailability") != null) {
+			constructDailyAvailabilities((List<LinkedHashMap<String, Object>>) branch
+					.get("dailyAvailability"));
+		}
+		// create all resource types
+		if (branch.get("resourceTypes") != null) {
+			constructResourceTypes(
+					(List<LinkedHashMap<String, Object>>) branch
+							.get("resourceTypes"),
+					tmc);
+		}
+		// create all resources
+		if (branch.get("resources") != null) {
+			constructResources(
+					(List<LinkedHashMap<String, Object>>) branch
+							.get("resources"),
+					tmc);
+		}
+		// create all developers
+		if (branch.get("developers") != null) {
+			constructDevelopers(
+					(List<LinkedHashMap<String, Object>>) branch
+							.get("developers"),
 					tmc);
 		}
 
-		return tmc;
+		// create all projects
+		if (branch.get("projects") != null) {
+			constructProjects(
+					(List<LinkedHashMap<String, Object>>) branch
+							.get("projects"),
+					tmc);
+		}
+		// create all tasks
+		if (branch.get("tasks") != null) {
+			List<LinkedHashMap<String, Object>> plannings = new ArrayList<LinkedHashMap<String, Object>>();
+			if (branch.get("plannings") != null) {
+				plannings = (List<LinkedHashMap<String, Object>>) branch
+						.get("plannings");
+			}
+			constructTasks(
+					(List<LinkedHashMap<String, Object>>) branch
+							.get("tasks"),
+					plannings, tmc);
+		}
+	}
+
+	/**
+	 * Forgets the objects of the previous company
+	 */
+	private void startCompany() {
+		offices = new ArrayList<BranchOffice>();
+		officeProjects = new HashMap<BranchOffice, List<Project>>();
+		projectTasks = new HashMap<Project, List<Task>>();
+	}
+
+	/**
+	 * Starts numbering the objects of a new branch office
+	 */
+	private void startBranch(BranchOffice office, TaskManController tmc) {
+		this.office = office;
+		plannings = tmc.createPlanningBatch(office);
+		plannedStatuses = new ArrayList<PlannedStatus>();
+		timeIntervals = new ArrayList<TimeInterval>();
+		alltasks = new ArrayList<Task>();
+		allresources = new ArrayList<Resource>();
+		resourceTypes = new ArrayList<ResourceType>();
+		developers = new ArrayList<Developer>();
+		projects = new ArrayList<Project>();
+		offices.add(office);
+		officeProjects.put(office, projects);
+	}
+
+	/**
+	 * Reads the next item of a section
+	 */
+	@SuppressWarnings("unchecked")
+	private LinkedHashMap<String, Object> readItem(YamlEventReader reader) {
+		return (LinkedHashMap<String, Object>) reader.readValue();
 	}
 
 	private LocalDateTime constructSystemTime(CharSequence time) {
@@ -162,60 +489,72 @@ public class Parser {
 			List<LinkedHashMap<String, Object>> dailyAvailabilities) {
 
 		for (LinkedHashMap<String, Object> dailyAvailability : dailyAvailabilities) {
-
-			LocalTime startTime = LocalTime.parse(
-					(CharSequence) dailyAvailability.get("startTime"),
-					timeFormatter);
-			LocalTime endTime = LocalTime.parse(
-					(CharSequence) dailyAvailability.get("endTime"),
-					timeFormatter);
-			timeIntervals.add(new TimeInterval(startTime, endTime));
+			constructDailyAvailability(dailyAvailability);
 		}
 	}
 
+	/**
+	 * Constructs one daily availability
+	 */
+	private void constructDailyAvailability(
+			LinkedHashMap<String, Object> dailyAvailability) {
+		LocalTime startTime = LocalTime.parse(
+				(CharSequence) dailyAvailability.get("startTime"),
+				timeFormatter);
+		LocalTime endTime = LocalTime.parse(
+				(CharSequence) dailyAvailability.get("endTime"), timeFormatter);
+		timeIntervals.add(new TimeInterval(startTime, endTime));
+	}
+
 	/**
 	 * Construct the resource types
 	 */
-	@SuppressWarnings("unchecked")
 	private void constructResourceTypes(
 			List<LinkedHashMap<String, Object>> resourceTypes,
-			TaskManController tmc, BranchOffice activeBranchOffice) {
+			TaskManController tmc) {
 
 		for (LinkedHashMap<String, Object> resourceType : resourceTypes) {
+			constructResourceType(resourceType, tmc);
+		}
+	}
 
-			String name = (String) resourceType.get("name");
+	/**
+	 * Construct one resource type
+	 */
+	@SuppressWarnings("unchecked")
+	private void constructResourceType(
+			LinkedHashMap<String, Object> resourceType, TaskManController tmc) {
 
-			ResourceTypeBuilder builder = ResourceType.builder(name);
-			List<ResourceType> resourceTypeList = new ArrayList<ResourceType>(
-					tmc.getAllResourceTypes());
+		String name = (String) resourceType.get("name");
 
-			if (resourceType.get("requires") != null) {
-				ArrayList<Integer> requiredResourceTypes = (ArrayList<Integer>) resourceType
-						.get("requires");
-				for (Integer resourceTypeNr : requiredResourceTypes) {
-					builder.addRequiredResourceTypes(resourceTypeList
-							.get(resourceTypeNr));
-				}
-			}
+		ResourceTypeBuilder builder = ResourceType.builder(name);
 
-			if (resourceType.get("conflictsWith") != null) {
-				ArrayList<Integer> conflictedResourceTypes = (ArrayList<Integer>) resourceType
-						.get("conflictsWith");
-				for (Integer resourceTypeNr : conflictedResourceTypes) {
-					builder.addConflictedResourceTypes(resourceTypeList
-							.get(resourceTypeNr -1));
-				}
+		if (resourceType.get("requires") != null) {
+			ArrayList<Integer> requiredResourceTypes = (ArrayList<Integer>) resourceType
+					.get("requires");
+			for (Integer resourceTypeNr : requiredResourceTypes) {
+				builder.addRequiredResourceTypes(resourceTypes
+						.get(resourceTypeNr));
 			}
+		}
 
-			if (resourceType.get("dailyAvailability") != null) {
-				int dailyAvailability = (int) resourceType
-						.get("dailyAvailability");
-				builder.addDailyAvailability(timeIntervals
-						.get(dailyAvailability));
+		if (resourceType.get("conflictsWith") != null) {
+			ArrayList<Integer> conflictedResourceTypes = (ArrayList<Integer>) resourceType
+					.get("conflictsWith");
+			for (Integer resourceTypeNr : conflictedResourceTypes) {
+				builder.addConflictedResourceTypes(resourceTypes
+						.get(resourceTypeNr -1));
 			}
+		}
 
-			builder.build(activeBranchOffice);
+		if (resourceType.get("dailyAvailability") != null) {
+			int dailyAvailability = (int) resourceType
+					.get("dailyAvailability");
+			builder.addDailyAvailability(timeIntervals
+					.get(dailyAvailability));
 		}
+
+		resourceTypes.add(builder.build(office));
 	}
 
 	/**
@@ -224,19 +563,31 @@ public class Parser {
 	private void constructResources(
 			List<LinkedHashMap<String, Object>> resources, TaskManController tmc) {
 
-		List<ResourceType> resourceTypeList = new ArrayList<ResourceType>(
-				tmc.getAllResourceTypes());
-
 		for (LinkedHashMap<String, Object> resource : resources) {
-			String name = (String) resource.get("name");
-			int resourceTypeNumber = (int) (resource.get("type"));
-			ResourceType resourceTypeOfResource = resourceTypeList
-					.get(resourceTypeNumber);
-
-			resourceTypeOfResource.createResource(name);
+			constructResource(resource, tmc);
 		}
+		collectResources(tmc);
+	}
+
+	/**
+	 * Constructs one resource
+	 */
+	private void constructResource(LinkedHashMap<String, Object> resource,
+			TaskManController tmc) {
+		String name = (String) resource.get("name");
+		int resourceTypeNumber = (int) (resource.get("type"));
+		ResourceType resourceTypeOfResource = resourceTypes
+				.get(resourceTypeNumber);
+
+		resourceTypeOfResource.createResource(name);
+	}
 
-		for (ResourceType type : tmc.getAllResourceTypes()) {
+	/**
+	 * Numbers the resources of the branch office by type, as they are
+	 * referred to by the plannings
+	 */
+	private void collectResources(TaskManController tmc) {
+		for (ResourceType type : resourceTypes) {
 			for (Resource resource : type.getAllResources()) {
 				allresources.add(resource);
 			}
@@ -250,37 +601,54 @@ public class Parser {
 			List<LinkedHashMap<String, Object>> developers,
 			TaskManController tmc) {
 		for (LinkedHashMap<String, Object> developer : developers) {
-			// get the developer name
-			String name= (String) developer.get("name");
-			tmc.createDeveloper(name);
+			constructDeveloper(developer, tmc);
 		}
 	}
 
+	/**
+	 * Constructs one developer
+	 */
+	private void constructDeveloper(LinkedHashMap<String, Object> developer,
+			TaskManController tmc) {
+		// get the developer name
+		String name = (String) developer.get("name");
+		developers.add(tmc.createDeveloper(office, name));
+	}
+
 	/**
 	 * Construct the projects
 	 */
 	private void constructProjects(
 			List<LinkedHashMap<String, Object>> projects, TaskManController tmc) {
 		for (LinkedHashMap<String, Object> project : projects) {
-			// get all arguments needed for a project: name, description,
-			// creation time and due time
-			String name = (String) project.get("name");
-			String description = (String) project.get("description");
-			LocalDateTime creationTime = LocalDateTime.parse(
-					(CharSequence) project.get("creationTime"),
-					dateTimeFormatter);
-			LocalDateTime dueTime = LocalDateTime.parse(
-					(CharSequence) project.get("dueTime"), dateTimeFormatter);
-
-			// create a new project object
-			tmc.createProject(name, description, creationTime, dueTime);
+			constructProject(project, tmc);
 		}
 	}
 
+	/**
+	 * Constructs one project
+	 */
+	private void constructProject(LinkedHashMap<String, Object> project,
+			TaskManController tmc) {
+		// get all arguments needed for a project: name, description,
+		// creation time and due time
+		String name = (String) project.get("name");
+		String description = (String) project.get("description");
+		LocalDateTime creationTime = LocalDateTime.parse(
+				(CharSequence) project.get("creationTime"), dateTimeFormatter);
+		LocalDateTime dueTime = LocalDateTime.parse(
+				(CharSequence) project.get("dueTime"), dateTimeFormatter);
+
+		// create a new project object
+		Project newProject = tmc.createProject(office, name, description,
+				creationTime, dueTime);
+		projects.add(newProject);
+		projectTasks.put(newProject, new ArrayList<Task>());
+	}
+
 	/**
 	 * Constructs the tasks
 	 */
-	@SuppressWarnings("unchecked")
 	private void constructTasks(List<LinkedHashMap<String, Object>> tasks,
 			List<LinkedHashMap<String, Object>> plannings,
 			TaskManController controller) {
@@ -295,105 +663,153 @@ public class Parser {
 		int counter = 0;
 		int planningCounter = 0;
 		for (LinkedHashMap<String, Object> task : tasks) {
-			// get all arguments needed for a task: project, description,
-			// estimated duration and acceptable deviation.
-			int projectNumber = (int) (task.get("project"));
-			String description = (String) (task.get("description"));
-			Duration estimatedDuration = Duration.ofHours((long) (int) task
-					.get("estimatedDuration"));
-			double acceptableDeviation = (double) ((int) (task
-					.get("acceptableDeviation")));
-			acceptableDeviation /= 100;
-
-			Project projectOfTask = new ArrayList<>(controller.getAllProjectsActiveOffice())
-					.get(projectNumber);
-
-			TaskBuilder builder = Task.builder(description, estimatedDuration,
-					acceptableDeviation);
-
-			// add dependencies if there are any
-			if (task.get("prerequisiteTasks") != null) {
-				ArrayList<Integer> prerequisiteTasks = (ArrayList<Integer>) task
-						.get("prerequisiteTasks");
-				for (Integer taskNr : prerequisiteTasks) {
-					builder.addDependencies(new ArrayList<>(projectOfTask
-							.getAllTasks()).get(taskNr));
-				}
-			}
-
-			// add alternative task if there is any
 			if (task.get("alternativeFor") != null) {
-				int alternativeTaskNr = (int) task.get("alternativeFor");
-				builder.setOriginalTask(new ArrayList<>(projectOfTask
-						.getAllTasks()).get(alternativeTaskNr-1));
+				// the status of the original task must be set
+				constructPlannedStatuses(controller);
 			}
+			Task newTask = constructTask(task, controller);
 
-			// add amount of devs needed
-			if (task.get("requiredDevelopers") != null) {
-				int amountOfDevs = (int) task.get("requiredDevelopers");
-				builder.amountOfRequiredDevelopers(amountOfDevs);
+			if (taskNrSet.contains(counter)) {
+				LinkedHashMap<String, Object> planningOfTask = plannings
+						.get(planningCounter);
+				constructPlanning(planningOfTask, task);
+				plannedStatuses.add(new PlannedStatus(task, planningOfTask,
+						newTask));
+				planningCounter++;
 			}
 
-			// add required resource types
-			if (task.get("requiredTypes") != null) {
-				List<ResourceType> resourceTypeList = new ArrayList<ResourceType>(
-						controller.getAllResourceTypes());
-				for (LinkedHashMap<String, Object> pair : (List<LinkedHashMap<String, Object>>) task
-						.get("requiredTypes")) {
-					builder.addRequiredResourceType(
-							resourceTypeList.get((int) pair.get("type")),
-							(int) pair.get("quantity"));
-				}
+			counter++;
+		}
+		constructPlannedStatuses(controller);
+	}
+
+	/**
+	 * Constructs one task
+	 */
+	@SuppressWarnings("unchecked")
+	private Task constructTask(LinkedHashMap<String, Object> task,
+			TaskManController controller) {
+		// get all arguments needed for a task: project, description,
+		// estimated duration and acceptable deviation.
+		int projectNumber = (int) (task.get("project"));
+		String description = (String) (task.get("description"));
+		Duration estimatedDuration = Duration.ofHours((long) (int) task
+				.get("estimatedDuration"));
+		double acceptableDeviation = (double) ((int) (task
+				.get("acceptableDeviation")));
+		acceptableDeviation /= 100;
+
+		Project projectOfTask = projects.get(projectNumber);
+		List<Task> tasksOfProject = projectTasks.get(projectOfTask);
+
+		TaskBuilder builder = Task.builder(description, estimatedDuration,
+				acceptableDeviation);
+
+		// add dependencies if there are any
+		if (task.get("prerequisiteTasks") != null) {
+			ArrayList<Integer> prerequisiteTasks = (ArrayList<Integer>) task
+					.get("prerequisiteTasks");
+			for (Integer taskNr : prerequisiteTasks) {
+				builder.addDependencies(tasksOfProject.get(taskNr));
 			}
+		}
 
-			// build the new task
-			builder.build(projectOfTask);
-			Task newTask = new ArrayList<>(projectOfTask.getAllTasks())
-					.get(projectOfTask.getAllTasks().size() - 1);
-			alltasks.add(newTask);
+		// add alternative task if there is any
+		if (task.get("alternativeFor") != null) {
+			int alternativeTaskNr = (int) task.get("alternativeFor");
+			builder.setOriginalTask(tasksOfProject.get(alternativeTaskNr-1));
+		}
 
-			if (taskNrSet.contains(counter)) {
-				LinkedHashMap<String, Object> planningOfTask = plannings
-						.get(planningCounter);
-				constructPlannings(planningOfTask, controller);
-				if (task.get("status") != null) {
-					String status = (String) task.get("status");
-					if (status.equals("executing")) {
-						LocalDateTime startTime = LocalDateTime.parse(
-								(CharSequence) plannings.get(planningCounter)
-										.get("plannedStartTime"),
-								dateTimeFormatter);
-						controller.setExecuting(newTask, startTime);
-					} else {
-						LocalDateTime startTime = LocalDateTime.parse(
-								(CharSequence) task.get("startTime"),
-								dateTimeFormatter);
-						LocalDateTime endTime = LocalDateTime.parse(
-								(CharSequence) task.get("endTime"),
-								dateTimeFormatter);
-						if (status.equals("failed")) {
-							controller.setExecuting(newTask, startTime);
-							controller.setFailed(newTask, endTime);
-						} else {
-							controller.setExecuting(newTask, startTime);
-							controller.setFinished(newTask, endTime);
-						}
+		// add amount of devs needed
+		if (task.get("requiredDevelopers") != null) {
+			int amountOfDevs = (int) task.get("requiredDevelopers");
+			builder.amountOfRequiredDevelopers(amountOfDevs);
+		}
 
-					}
+		// add required resource types
+		if (task.get("requiredTypes") != null) {
+			for (LinkedHashMap<String, Object> pair : (List<LinkedHashMap<String, Object>>) task
+					.get("requiredTypes")) {
+				builder.addRequiredResourceType(
+						resourceTypes.get((int) pair.get("type")),
+						(int) pair.get("quantity"));
+			}
+		}
+
+		// build the new task
+		Task newTask = builder.build(projectOfTask);
+		tasksOfProject.add(newTask);
+		alltasks.add(newTask);
+		return newTask;
+	}
+
+	/**
+	 * Sets the status of a planned task
+	 */
+	private void constructStatus(LinkedHashMap<String, Object> task,
+			LinkedHashMap<String, Object> planningOfTask, Task newTask,
+			TaskManController controller) {
+		if (task.get("status") != null) {
+			String status = (String) task.get("status");
+			if (status.equals("executing")) {
+				LocalDateTime startTime = LocalDateTime.parse(
+						(CharSequence) planningOfTask.get("plannedStartTime"),
+						dateTimeFormatter);
+				controller.setExecuting(office, newTask, startTime);
+			} else {
+				LocalDateTime startTime = LocalDateTime.parse(
+						(CharSequence) task.get("startTime"),
+						dateTimeFormatter);
+				LocalDateTime endTime = LocalDateTime.parse(
+						(CharSequence) task.get("endTime"),
+						dateTimeFormatter);
+				if (status.equals("failed")) {
+					controller.setExecuting(office, newTask, startTime);
+					controller.setFailed(office, newTask, endTime);
+				} else {
+					controller.setExecuting(office, newTask, startTime);
+					controller.setFinished(office, newTask, endTime);
 				}
-				planningCounter++;
+
 			}
+		}
+	}
 
-			counter++;
+	/**
+	 * Builds the batch of plannings and sets the statuses of their tasks
+	 */
+	private void constructPlannedStatuses(TaskManController controller) {
+		plannings.build();
+		for (PlannedStatus planned : plannedStatuses) {
+			constructStatus(planned.task, planned.planning, planned.newTask,
+					controller);
 		}
+		plannedStatuses.clear();
 	}
 
 	/**
-	 * Constructs the plannings
+	 * A planned task of which the status is set when its planning is built
+	 */
+	private static class PlannedStatus {
+		private final LinkedHashMap<String, Object> task;
+		private final LinkedHashMap<String, Object> planning;
+		private final Task newTask;
+
+		private PlannedStatus(LinkedHashMap<String, Object> task,
+				LinkedHashMap<String, Object> planning, Task newTask) {
+			this.task = task;
+			this.planning = planning;
+			this.newTask = newTask;
+		}
+	}
+
+	/**
+	 * Adds one planning to the batch of plannings. The planning is checked
+	 * for the time span it gets when the status of its task is set.
 	 */
 	@SuppressWarnings("unchecked")
-	private void constructPlannings(LinkedHashMap<String, Object> planning,
-			TaskManController controller) {
+	private void constructPlanning(LinkedHashMap<String, Object> planning,
+			LinkedHashMap<String, Object> task) {
 
 		LocalDateTime startTime = LocalDateTime.parse(
 				(CharSequence) planning.get("plannedStartTime"),
@@ -404,13 +820,14 @@ public class Parser {
 		List<Developer> assignedDevs = new ArrayList<Developer>();
 
 		for (Integer devNr : developersNr) {
-			assignedDevs.add(new ArrayList<Developer>(controller
-					.getAllDevelopers()).get(devNr));
+			assignedDevs.add(developers.get(devNr));
 		}
 
 		int taskNr = (int) (planning.get("task"));
-		PlanningBuilder pbuilder = controller.createPlanning(startTime,
-				alltasks.get(taskNr), assignedDevs.get(0));
+		Task plannedTask = alltasks.get(taskNr);
+		PlanningBuilder pbuilder = plannings.add(
+				constructTimeSpan(task, startTime, plannedTask), plannedTask,
+				assignedDevs.get(0));
 
 		for (int i = 1; i < assignedDevs.size(); i++) {
 			pbuilder.addDeveloper(assignedDevs.get(i));
@@ -425,7 +842,31 @@ public class Parser {
 				}
 			}
 		}
-		pbuilder.build();
+	}
+
+	/**
+	 * Returns the time span of a planning after the status of its task is
+	 * set: a task that started is planned from its start time on and a task
+	 * that ended is planned until its end time at the latest
+	 */
+	private TimeSpan constructTimeSpan(LinkedHashMap<String, Object> task,
+			LocalDateTime plannedStartTime, Task plannedTask) {
+		String status = task == null ? null : (String) task.get("status");
+		if (status == null) {
+			return new TimeSpan(plannedStartTime,
+					plannedStartTime.plus(plannedTask.getDuration()));
+		} else if (status.equals("executing")) {
+			return new TimeSpan(plannedStartTime, plannedTask.getDuration());
+		}
+		LocalDateTime startTime = LocalDateTime.parse(
+				(CharSequence) task.get("startTime"), dateTimeFormatter);
+		LocalDateTime endTime = LocalDateTime.parse(
+				(CharSequence) task.get("endTime"), dateTimeFormatter);
+		TimeSpan executed = new TimeSpan(startTime, plannedTask.getDuration());
+		if (endTime.isBefore(executed.getEnd())) {
+			return new TimeSpan(startTime, endTime);
+		}
+		return executed;
 	}
 
 	/**
@@ -435,20 +876,25 @@ public class Parser {
 			List<LinkedHashMap<String, Object>> delegations,
 			TaskManController controller) {
 		for (LinkedHashMap<String, Object> delegation : delegations) {
-
-			// get all information from delegation:
-			int branchFromNr = (int) delegation.get("branchFrom");
-			int projectNr = (int) delegation.get("project");
-			int taskNr = (int) delegation.get("task");
-			int branchToNr = (int) delegation.get("branchTo");
-
-			BranchOffice branchFrom = new ArrayList<>(
-					controller.getAllOffices()).get(branchFromNr);
-			controller.logIn(branchFrom);
-			Project project = new ArrayList<>(
-					controller.getAllProjectsActiveOffice()).get(projectNr);
-			Task task = new ArrayList<>(project.getAllTasks()).get(taskNr);
-			controller.delegate(task,  new ArrayList<>(controller.getAllOffices()).get(branchToNr));
+			constructDelegation(delegation, controller);
 		}
 	}
+
+	/**
+	 * Construct one delegation
+	 */
+	private void constructDelegation(LinkedHashMap<String, Object> delegation,
+			TaskManController controller) {
+		// get all information from delegation:
+		int branchFromNr = (int) delegation.get("branchFrom");
+		int projectNr = (int) delegation.get("project");
+		int taskNr = (int) delegation.get("task");
+		int branchToNr = (int) delegation.get("branchTo");
+
+		BranchOffice branchFrom = offices.get(branchFromNr);
+		controller.logIn(branchFrom);
+		Project project = officeProjects.get(branchFrom).get(projectNr);
+		Task task = projectTasks.get(project).get(taskNr);
+		controller.delegate(task, offices.get(branchToNr));
+	}
 }
@@ -0,0 +1,173 @@
+package parser;
+
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+import org.yaml.snakeyaml.Yaml;
+import org.yaml.snakeyaml.events.Event;
+import org.yaml.snakeyaml.events.ScalarEvent;
+import org.yaml.snakeyaml.nodes.NodeId;
+import org.yaml.snakeyaml.nodes.Tag;
+import org.yaml.snakeyaml.resolver.Resolver;
+
+/**
+ * The YAML event reader walks through the events of the SnakeYAML parser. The
+ * sections of a document can be read one item at a time, an item is read into
+ * the same maps, lists and values that SnakeYAML would load, so only the item
+ * that is being read is kept in memory.
+ *
+ * @author Groep 8
+ */
+class YamlEventReader {
+
+	private final Iterator<Event> events;
+	private final Resolver resolver = new Resolver();
+	private Event current;
+
+	/**
+	 * Creates a reader of the YAML events of the given input
+	 *
+	 * @param input
+	 *            : the YAML input
+	 */
+	YamlEventReader(Reader input) {
+		this.events = new Yaml().parse(input).iterator();
+		this.current = events.next();
+	}
+
+	/**
+	 * Checks whether the next event is of the given kind
+	 *
+	 * @param id
+	 *            : the kind of event
+	 * @return true if the next event is of the given kind
+	 */
+	boolean isAt(Event.ID id) {
+		return current.is(id);
+	}
+
+	/**
+	 * Skips the next event, which must be of the given kind
+	 *
+	 * @param id
+	 *            : the expected kind of event
+	 * @throws RuntimeException
+	 *             : thrown when the next event is of an other kind
+	 */
+	void expect(Event.ID id) {
+		if (!isAt(id)) {
+			error(id + " expected");
+		}
+		next();
+	}
+
+	/**
+	 * Reads the key of the next entry of a mapping
+	 *
+	 * @return key : the key of the entry
+	 */
+	String readKey() {
+		if (!isAt(Event.ID.Scalar)) {
+			error("Key expected");
+		}
+		return ((ScalarEvent) next()).getValue();
+	}
+
+	/**
+	 * Starts reading the items of a sequence one by one. An empty value is
+	 * read as a sequence without items.
+	 *
+	 * @return true if there is a sequence to read
+	 */
+	boolean enterSequence() {
+		if (isAt(Event.ID.Scalar) && readValue() == null) {
+			return false;
+		}
+		expect(Event.ID.SequenceStart);
+		return true;
+	}
+
+	/**
+	 * Checks whether the sequence that is being read has more items. The end
+	 * of the sequence is skipped.
+	 *
+	 * @return true if there is an other item
+	 */
+	boolean hasNextItem() {
+		if (isAt(Event.ID.SequenceEnd)) {
+			next();
+			return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Reads the next value with all the values it contains
+	 *
+	 * @return value : a map, list, number, string or null
+	 */
+	Object readValue() {
+		Event event = next();
+		if (event.is(Event.ID.Scalar)) {
+			return resolve((ScalarEvent) event);
+		} else if (event.is(Event.ID.SequenceStart)) {
+			List<Object> list = new ArrayList<Object>();
+			while (!isAt(Event.ID.SequenceEnd)) {
+				list.add(readValue());
+			}
+			next();
+			return list;
+		} else if (event.is(Event.ID.MappingStart)) {
+			LinkedHashMap<String, Object> map = new LinkedHashMap<String, Object>();
+			while (!isAt(Event.ID.MappingEnd)) {
+				map.put(readKey(), readValue());
+			}
+			next();
+			return map;
+		}
+		current = event;
+		error("Value expected");
+		return null;
+	}
+
+	/**
+	 * Converts a scalar to the value SnakeYAML would load
+	 */
+	private Object resolve(ScalarEvent event) {
+		String value = event.getValue();
+		Tag tag = resolver.resolve(NodeId.scalar, value, event.getImplicit()
+				.canOmitTagInPlainScalar());
+		if (Tag.NULL.equals(tag)) {
+			return null;
+		} else if (Tag.INT.equals(tag)) {
+			long number = Long.parseLong(value.replace("_", ""));
+			if (number == (int) number) {
+				return (int) number;
+			}
+			return number;
+		} else if (Tag.FLOAT.equals(tag)) {
+			return Double.valueOf(value.replace("_", ""));
+		} else if (Tag.BOOL.equals(tag)) {
+			String lower = value.toLowerCase();
+			return lower.equals("true") || lower.equals("yes")
+					|| lower.equals("on");
+		}
+		return value;
+	}
+
+	private Event next() {
+		Event event = current;
+		if (events.hasNext()) {
+			current = events.next();
+		}
+		return event;
+	}
+
+	private void error(String message) {
+		throw new RuntimeException("Line "
+				+ (current.getStartMark().getLine() + 1) + ": " + message);
+	}
+}
@@ -0,0 +1,357 @@
+package taskmanager;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+
+import taskmanager.Planning.PlanningBuilder;
+import utility.TimeSpan;
+import utility.WorkWeek;
+
+/**
+ * The batch scheduler plans the unplanned tasks of a branch office in one
+ * pass. Every task is scheduled after the tasks it depends on, and of the
+ * tasks whose dependencies are scheduled, the task of the project that is due
+ * first goes first. A task gets the earliest work time at which its
+ * dependencies end and enough developers and resources of the office are
+ * free.
+ *
+ * Every developer and resource has a calendar of its plannings and of the
+ * plannings of the batch. Plannings that are only separated by free time are
+ * merged in the calendar, so a developer or resource that is busy is skipped
+ * until the end of its busy period with one lookup. All plannings are added
+ * to the planner as one batch.
+ *
+ * @author Groep 8
+ */
+class BatchScheduler {
+
+	private final BranchOffice office;
+	private final OwnershipRegistry registry;
+	private final LocalDateTime now;
+
+	private final Map<Developer, BookingCalendar> developerCalendars = new HashMap<Developer, BookingCalendar>();
+	private final Map<Resource, BookingCalendar> resourceCalendars = new HashMap<Resource, BookingCalendar>();
+	private final Map<Task, TimeSpan> scheduled = new HashMap<Task, TimeSpan>();
+
+	/**
+	 * Creates a scheduler for the given office
+	 *
+	 * @param office
+	 *            : the office planning the tasks
+	 * @param registry
+	 *            : the ownership registry of the company
+	 * @param now
+	 *            : the current time, no task starts before it
+	 */
+	BatchScheduler(BranchOffice office, OwnershipRegistry registry,
+			LocalDateTime now) {
+		this.office = office;
+		this.registry = registry;
+		this.now = now;
+	}
+
+	/**
+	 * Plans the given tasks. Tasks that are planned, executing or ended,
+	 * tasks executed by another office and tasks the office does not have
+	 * enough developers or resources for are left out, as are tasks for which
+	 * no start time is found within a year.
+	 *
+	 * @param tasks
+	 *            : the unplanned tasks
+	 * @return the plannings of the scheduled tasks, in the order they were
+	 *         scheduled
+	 */
+	List<Planning> schedule(Set<Task> tasks) {
+		Set<Task> schedulable = new LinkedHashSet<Task>();
+		for (Task task : tasks) {
+			if (canSchedule(task)) {
+				schedulable.add(task);
+			}
+		}
+		fillCalendars();
+
+		PlanningBatch batch = new PlanningBatch(office.getPlanner());
+		for (Task task : order(schedulable)) {
+			schedule(task, batch);
+		}
+		return batch.build();
+	}
+
+	private boolean canSchedule(Task task) {
+		if (office.getPlanner().taskHasPlanning(task)
+				|| task.getStatus() == TaskStatus.EXECUTING
+				|| task.getStatus() == TaskStatus.FINISHED
+				|| task.getStatus() == TaskStatus.FAILED
+				|| !office.equals(registry.getExecutor(task))) {
+			return false;
+		}
+		try {
+			office.checkExecutionCapability(task);
+			return true;
+		} catch (IllegalStateException e) {
+			return false;
+		}
+	}
+
+	/**
+	 * Books the plannings of the office that have not ended yet in the
+	 * calendars of their developers and resources
+	 */
+	private void fillCalendars() {
+		for (Planning planning : office.getPlanner().getAllPlannings()) {
+			if (planning.getTimeSpan().getEnd().isAfter(now)) {
+				book(planning.getTimeSpan(), planning.getDevelopers(),
+						planning.getResources());
+			}
+		}
+	}
+
+	/**
+	 * Orders the tasks so that every task comes after the tasks of the set it
+	 * depends on. Of the tasks whose dependencies are ordered, the task of the
+	 * project with the earliest due time comes first.
+	 */
+	private List<Task> order(Set<Task> tasks) {
+		Comparator<Task> priority = Comparator.comparing(this::getDueTime)
+				.thenComparingInt(Task::getId);
+		PriorityQueue<Task> ready = new PriorityQueue<Task>(priority);
+		Map<Task, Integer> waiting = new HashMap<Task, Integer>();
+		for (Task task : tasks) {
+			int dependencies = 0;
+			for (Task dependency : task.getDependencies()) {
+				if (tasks.contains(dependency)) {
+					dependencies++;
+				}
+			}
+			if (dependencies == 0) {
+				ready.add(task);
+			} else {
+				waiting.put(task, dependencies);
+			}
+		}
+
+		List<Task> ordered = new ArrayList<Task>(tasks.size());
+		while (!ready.isEmpty()) {
+			Task task = ready.poll();
+			ordered.add(task);
+			for (Task dependent : task.getDependents()) {
+				Integer dependencies = waiting.get(dependent);
+				if (dependencies != null) {
+					if (dependencies == 1) {
+						waiting.remove(dependent);
+						ready.add(dependent);
+					} else {
+						waiting.put(dependent, dependencies - 1);
+					}
+				}
+			}
+		}
+		return ordered;
+	}
+
+	private LocalDateTime getDueTime(Task task) {
+		Project project = registry.getProject(task);
+		return project == null ? LocalDateTime.MAX : project.getDueTime();
+	}
+
+	/**
+	 * Adds a planning of the given task at its earliest possible start time
+	 * to the batch
+	 *
+	 * @return true if a start time was found within a year
+	 */
+	private boolean schedule(Task task, PlanningBatch batch) {
+		LocalDateTime start = nextWorkTime(getEarliestStart(task));
+		LocalDateTime last = start.plusYears(1);
+		while (start.isBefore(last)) {
+			TimeSpan timeSpan = new TimeSpan(start, start.plus(task
+					.getDuration()));
+			List<Developer> developers = new ArrayList<Developer>();
+			LocalDateTime release = select(office.getDeveloperExpert()
+					.getAllDevelopers(), developerCalendars,
+					task.getAmountOfRequiredDevelopers(), timeSpan, developers);
+			List<Resource> resources = new ArrayList<Resource>();
+			for (Map.Entry<ResourceType, Integer> required : task
+					.getRequiredResourceTypes().entrySet()) {
+				release = latest(release, select(required.getKey()
+						.getAllResources(), resourceCalendars,
+						required.getValue(), timeSpan, resources));
+			}
+
+			if (release == null) {
+				scheduled.put(task, timeSpan);
+				book(timeSpan, developers, resources);
+				PlanningBuilder builder = batch.add(timeSpan, task,
+						developers.get(0));
+				for (Developer developer : developers) {
+					builder.addDeveloper(developer);
+				}
+				for (Resource resource : resources) {
+					builder.addResources(resource);
+				}
+				return true;
+			}
+			start = nextWorkTime(release);
+		}
+		return false;
+	}
+
+	/**
+	 * Returns the time at which the dependencies of the given task are
+	 * planned or estimated to end, or the current time if that is later
+	 */
+	private LocalDateTime getEarliestStart(Task task) {
+		LocalDateTime earliest = now;
+		for (Task dependency : task.getDependencies()) {
+			earliest = latest(earliest, getEnd(dependency));
+		}
+		return earliest;
+	}
+
+	private LocalDateTime getEnd(Task task) {
+		if (scheduled.containsKey(task)) {
+			return scheduled.get(task).getEnd();
+		}
+		if (task.getEndTime() != null) {
+			return task.getEndTime();
+		}
+		BranchOffice executor = registry.getExecutor(task);
+		if (executor != null && executor.getPlanner().taskHasPlanning(task)) {
+			return executor.getPlanner().getPlanning(task).getTimeSpan()
+					.getEnd();
+		}
+		return task.getEstimatedFinishTime();
+	}
+
+	/**
+	 * Adds the given amount of the candidates that are free during the time
+	 * span to the chosen candidates
+	 *
+	 * @return null if enough candidates are free, or else the time at which
+	 *         enough busy candidates have become free
+	 */
+	private static <K> LocalDateTime select(Collection<K> candidates,
+			Map<K, BookingCalendar> calendars, int amount, TimeSpan timeSpan,
+			List<K> chosen) {
+		List<LocalDateTime> releases = new ArrayList<LocalDateTime>();
+		int free = 0;
+		for (K candidate : candidates) {
+			BookingCalendar calendar = calendars.get(candidate);
+			LocalDateTime busyUntil = calendar == null ? null : calendar
+					.getBusyUntil(timeSpan);
+			if (busyUntil == null) {
+				chosen.add(candidate);
+				if (++free == amount) {
+					return null;
+				}
+			} else {
+				releases.add(busyUntil);
+			}
+		}
+		Collections.sort(releases);
+		return releases.get(amount - free - 1);
+	}
+
+	private void book(TimeSpan timeSpan, Collection<Developer> developers,
+			Collection<Resource> resources) {
+		for (Developer developer : developers) {
+			getCalendar(developerCalendars, developer).book(timeSpan);
+		}
+		for (Resource resource : resources) {
+			getCalendar(resourceCalendars, resource).book(timeSpan);
+		}
+	}
+
+	private static <K> BookingCalendar getCalendar(
+			Map<K, BookingCalendar> calendars, K key) {
+		BookingCalendar calendar = calendars.get(key);
+		if (calendar == null) {
+			calendar = new BookingCalendar();
+			calendars.put(key, calendar);
+		}
+		return calendar;
+	}
+
+	private static LocalDateTime latest(LocalDateTime time, LocalDateTime other) {
+		if (time == null || (other != null && other.isAfter(time))) {
+			return other;
+		}
+		return time;
+	}
+
+	/**
+	 * Returns the first time at or after the given time at which a work
+	 * minute starts
+	 */
+	static LocalDateTime nextWorkTime(LocalDateTime time) {
+		LocalDateTime minute = time.truncatedTo(ChronoUnit.MINUTES);
+		if (minute.isBefore(time)) {
+			minute = minute.plusMinutes(1);
+		}
+		if (!WorkWeek.isSupported(minute)) {
+			minute = minute.toLocalDate().plusDays(1).atStartOfDay();
+		}
+		return WorkWeek.timeAtWorkMinutes(
+				WorkWeek.workMinutesUntil(minute) + 1).minusMinutes(1);
+	}
+
+	/**
+	 * The busy periods of a developer or resource. Bookings that overlap or
+	 * that are only separated by free time are merged into one period.
+	 */
+	private static class BookingCalendar {
+
+		private final TreeMap<LocalDateTime, LocalDateTime> periods = new TreeMap<LocalDateTime, LocalDateTime>();
+
+		/**
+		 * Returns the end of the last busy period that overlaps with the
+		 * given time span. Every start time before that end that is not
+		 * before the begin of the time span overlaps with that period too.
+		 *
+		 * @return the end of the period or null if the time span is free
+		 */
+		LocalDateTime getBusyUntil(TimeSpan timeSpan) {
+			Map.Entry<LocalDateTime, LocalDateTime> period = periods
+					.lowerEntry(timeSpan.getEnd());
+			if (period != null && period.getValue().isAfter(timeSpan.getBegin())) {
+				return period.getValue();
+			}
+			return null;
+		}
+
+		/**
+		 * Adds the time span to the busy periods
+		 */
+		void book(TimeSpan timeSpan) {
+			LocalDateTime begin = timeSpan.getBegin();
+			LocalDateTime end = timeSpan.getEnd();
+			Map.Entry<LocalDateTime, LocalDateTime> before = periods
+					.floorEntry(begin);
+			if (before != null
+					&& !nextWorkTime(before.getValue()).isBefore(begin)) {
+				begin = before.getKey();
+				end = latest(end, before.getValue());
+				periods.remove(before.getKey());
+			}
+			Map.Entry<LocalDateTime, LocalDateTime> after = periods
+					.ceilingEntry(begin);
+			while (after != null && !nextWorkTime(end).isBefore(after.getKey())) {
+				end = latest(end, after.getValue());
+				periods.remove(after.getKey());
+				after = periods.ceilingEntry(begin);
+			}
+			periods.put(begin, end);
+		}
+	}
+}
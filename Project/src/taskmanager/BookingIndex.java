@@ -0,0 +1,204 @@
+package taskmanager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+import utility.TimeSpan;
+
+/**
+ * The booking index keeps for every developer or resource the plannings it is
+ * booked in, sorted on the begin time of their time span. This allows the
+ * planner to check the availability of a developer or resource by only looking
+ * at the plannings that can overlap with a given time span instead of at all
+ * the plannings of the branch office.
+ *
+ * Because plannings can overlap, a planning overlapping a time span can begin
+ * before that time span. The index therefore remembers the longest booking it
+ * has ever seen: only plannings beginning less than that length before the
+ * time span have to be checked.
+ *
+ * @author Groep 8
+ *
+ * @param <K>
+ *            : the type of the booked objects (developers or resources)
+ */
+class BookingIndex<K> {
+
+	private Map<K, TreeMap<LocalDateTime, List<Planning>>> bookings = new HashMap<K, TreeMap<LocalDateTime, List<Planning>>>();
+	private Duration longestBooking = Duration.ZERO;
+
+	/**
+	 * Adds a booking of the given key in the given planning
+	 *
+	 * @param key
+	 *            : the booked developer or resource
+	 * @param planning
+	 *            : the planning the key is booked in
+	 */
+	void add(K key, Planning planning) {
+		TimeSpan timeSpan = planning.getTimeSpan();
+		TreeMap<LocalDateTime, List<Planning>> plannings = bookings.get(key);
+		if (plannings == null) {
+			plannings = new TreeMap<LocalDateTime, List<Planning>>();
+			bookings.put(key, plannings);
+		}
+		List<Planning> atBegin = plannings.get(timeSpan.getBegin());
+		if (atBegin == null) {
+			atBegin = new ArrayList<Planning>(1);
+			plannings.put(timeSpan.getBegin(), atBegin);
+		}
+		atBegin.add(planning);
+
+		Duration length = Duration.between(timeSpan.getBegin(),
+				timeSpan.getEnd());
+		if (length.compareTo(longestBooking) > 0) {
+			longestBooking = length;
+		}
+	}
+
+	/**
+	 * Removes the booking of the given key in the given planning. The begin
+	 * time of the planning must not have changed since it was added.
+	 *
+	 * @param key
+	 *            : the booked developer or resource
+	 * @param planning
+	 *            : the planning the key is booked in
+	 */
+	void remove(K key, Planning planning) {
+		TreeMap<LocalDateTime, List<Planning>> plannings = bookings.get(key);
+		if (plannings == null) {
+			return;
+		}
+		LocalDateTime begin = planning.getTimeSpan().getBegin();
+		List<Planning> atBegin = plannings.get(begin);
+		if (atBegin != null && atBegin.remove(planning) && atBegin.isEmpty()) {
+			plannings.remove(begin);
+			if (plannings.isEmpty()) {
+				bookings.remove(key);
+			}
+		}
+	}
+
+	/**
+	 * Removes all bookings from the index
+	 */
+	void clear() {
+		bookings.clear();
+		longestBooking = Duration.ZERO;
+	}
+
+	/**
+	 * Checks whether the given key is booked in a planning, other than the
+	 * ignored planning, that overlaps with the given time span
+	 *
+	 * @param key
+	 *            : the developer or resource
+	 * @param timeSpan
+	 *            : the time span to check
+	 * @param ignored
+	 *            : a planning that must not be taken into account, may be null
+	 * @return true if the key has an overlapping booking
+	 */
+	boolean isBooked(K key, TimeSpan timeSpan, Planning ignored) {
+		for (List<Planning> atBegin : candidates(key, timeSpan).values()) {
+			for (Planning planning : atBegin) {
+				if (planning != ignored
+						&& timeSpan.overlaps(planning.getTimeSpan())) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Returns the latest end time of the plannings, other than the ignored
+	 * planning, in which the given key is booked during the given time span
+	 *
+	 * @param key
+	 *            : the developer or resource
+	 * @param timeSpan
+	 *            : the time span to check
+	 * @param ignored
+	 *            : a planning that must not be taken into account, may be null
+	 * @return the latest end time or null if the key is not booked
+	 */
+	LocalDateTime getLatestEnd(K key, TimeSpan timeSpan, Planning ignored) {
+		LocalDateTime latestEnd = null;
+		for (List<Planning> atBegin : candidates(key, timeSpan).values()) {
+			for (Planning planning : atBegin) {
+				if (planning != ignored
+						&& timeSpan.overlaps(planning.getTimeSpan())
+						&& (latestEnd == null || planning.getTimeSpan()
+								.getEnd().isAfter(latestEnd))) {
+					latestEnd = planning.getTimeSpan().getEnd();
+				}
+			}
+		}
+		return latestEnd;
+	}
+
+	/**
+	 * Returns the plannings in which the given key is booked during the given
+	 * time span
+	 *
+	 * @param key
+	 *            : the developer or resource
+	 * @param timeSpan
+	 *            : the time span to check
+	 * @return list of overlapping plannings of the key
+	 */
+	List<Planning> getOverlapping(K key, TimeSpan timeSpan) {
+		List<Planning> overlapping = new ArrayList<Planning>();
+		for (List<Planning> atBegin : candidates(key, timeSpan).values()) {
+			for (Planning planning : atBegin) {
+				if (timeSpan.overlaps(planning.getTimeSpan())) {
+					overlapping.add(planning);
+				}
+			}
+		}
+		return overlapping;
+	}
+
+	/**
+	 * Returns all the plannings the given key is booked in, sorted on their
+	 * begin time
+	 *
+	 * @param key
+	 *            : the developer or resource
+	 * @return list of plannings of the key
+	 */
+	List<Planning> getBookings(K key) {
+		TreeMap<LocalDateTime, List<Planning>> plannings = bookings.get(key);
+		if (plannings == null) {
+			return Collections.emptyList();
+		}
+		List<Planning> result = new ArrayList<Planning>();
+		for (List<Planning> atBegin : plannings.values()) {
+			result.addAll(atBegin);
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the plannings of the key beginning in the range in which an
+	 * overlapping planning can begin
+	 */
+	private NavigableMap<LocalDateTime, List<Planning>> candidates(K key,
+			TimeSpan timeSpan) {
+		TreeMap<LocalDateTime, List<Planning>> plannings = bookings.get(key);
+		if (plannings == null) {
+			return Collections.emptyNavigableMap();
+		}
+		return plannings.subMap(timeSpan.getBegin().minus(longestBooking),
+				true, timeSpan.getEnd(), false);
+	}
+}
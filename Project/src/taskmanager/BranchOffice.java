@@ -1,7 +1,10 @@
 package taskmanager;
 
-import java.util.HashSet;
-import java.util.Set;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * A branch office is a part of some company with a specific geo- graphical
@@ -24,6 +27,12 @@ public class BranchOffice implements Visitable {
 	private DelegatedTaskExpert delegatedTaskExpert;
 	private Planner planner;
 	private TaskManClock clock;
+	private final OwnershipRegistry registry;
+
+	private static AtomicInteger lockCounter = new AtomicInteger(1);
+	// sessions lock offices in the order of their lock number
+	private final int lockNumber = lockCounter.getAndIncrement();
+	private final ReentrantLock lock = new ReentrantLock();
 
 	
 	/**
@@ -32,10 +41,13 @@ public class BranchOffice implements Visitable {
 	 * 			: where the Branch office is located
 	 * @param clock
 	 * 			: keeps track of the system time
+	 * @param registry
+	 * 			: the ownership registry of the company
 	 */
-	BranchOffice(String location, ImmutableClock clock) {
+	BranchOffice(String location, ImmutableClock clock, OwnershipRegistry registry) {
 		// temporary time object
 		this.clock = (TaskManClock) clock;
+		this.registry = registry;
         setLocation(location);
 		createDeveloperExpert();
 		createResourceExpert();
@@ -48,7 +60,7 @@ public class BranchOffice implements Visitable {
 	 * Creates a new delegated task expert
 	 */
 	private void createDelegatedTaskExpert() {
-		this.delegatedTaskExpert = new DelegatedTaskExpert();
+		this.delegatedTaskExpert = new DelegatedTaskExpert(this, registry);
 	}
 
 	/**
@@ -65,7 +77,7 @@ public class BranchOffice implements Visitable {
 	 * Creates a new project expert
 	 */
 	private void createProjectExpert() {
-		this.projectExpert = new ProjectExpert(clock);
+		this.projectExpert = new ProjectExpert(clock, this, registry);
 	}
 
 	/**
@@ -144,7 +156,29 @@ public class BranchOffice implements Visitable {
 	}
 
 	/**
-	 * Saves the current state of the system. Only the last state is remembered
+	 * Returns the lock that guards the state of the office while it is used
+	 * by sessions
+	 * 
+	 * @return lock : the lock of the office
+	 */
+	ReentrantLock getLock() {
+		return this.lock;
+	}
+
+	/**
+	 * Returns the number that orders the locks of the offices. Offices are
+	 * always locked from the lowest to the highest number.
+	 * 
+	 * @return lockNumber : the number of the lock of the office
+	 */
+	int getLockNumber() {
+		return this.lockNumber;
+	}
+
+	/**
+	 * Saves the current state of the system. The experts of the office are
+	 * saved when it is the given active office, the delegated tasks always.
+	 * Only the last state is remembered
 	 */
 	void saveSystem(BranchOffice office) {
 		if (this.equals(office)) {
@@ -152,9 +186,8 @@ public class BranchOffice implements Visitable {
 			this.getDeveloperExpert().save();
 			this.getPlanner().save();
 			this.getResourceExpert().save();
-		} else {
-			this.getDelegatedTaskExpert().save(office);
 		}
+		this.getDelegatedTaskExpert().save();
 	}
 
 
@@ -167,9 +200,29 @@ public class BranchOffice implements Visitable {
 			this.getDeveloperExpert().load();
 			this.getPlanner().load();
 			this.getResourceExpert().load();
-		} else {
-			this.getDelegatedTaskExpert().load(office);
 		}
+		this.getDelegatedTaskExpert().load();
+	}
+
+	/**
+	 * Returns the journals of all the experts of the branch office
+	 * 
+	 * @return journals : the snapshot journals of the office
+	 */
+	List<SnapshotJournal> getJournals() {
+		return Arrays.asList(this.getProjectExpert().getJournal(), this
+				.getDeveloperExpert().getJournal(), this.getPlanner()
+				.getJournal(), this.getResourceExpert().getJournal(), this
+				.getDelegatedTaskExpert().getJournal());
+	}
+
+	/**
+	 * Rebuilds the indexes of the office after its state was replaced by an
+	 * other simulation branch
+	 */
+	void rebuildIndexes() {
+		this.getPlanner().reindex();
+		this.getResourceExpert().getConstraints().invalidate();
 	}
 
 	/**
@@ -185,7 +238,7 @@ public class BranchOffice implements Visitable {
 	 * @param task
 	 */
 	public void updateTaskResourceTypes(Task task) {
-		Set<ResourceType> oldTypes = new HashSet<ResourceType>(task.getRequiredResourceTypes().keySet());
+		List<ResourceType> oldTypes = new ArrayList<ResourceType>(task.getRequiredResourceTypes().keySet());
 		for(ResourceType oldType: oldTypes) {
 			for(ResourceType ourType: this.getResourceExpert().getAllResourceTypes()) {
 				if(oldType.getName().equals(ourType.getName())) {
@@ -195,8 +248,16 @@ public class BranchOffice implements Visitable {
 		}
 	}
 
-	void checkExecutionCapability(TaskManController taskManController, Task task) {
-		if (taskManController.getActiveOffice().getDeveloperExpert().getAllDevelopers().size() < task
+	/**
+	 * Checks whether this office has enough developers and resources to
+	 * execute the given task
+	 * 
+	 * @param task
+	 * @throws IllegalStateException
+	 *             : thrown when the task can not be executed by this office
+	 */
+	void checkExecutionCapability(Task task) {
+		if (this.getDeveloperExpert().getAllDevelopers().size() < task
 				.getAmountOfRequiredDevelopers()) {
 			throw new IllegalStateException("To many developers required ("
 					+ task.getAmountOfRequiredDevelopers()
@@ -206,7 +267,7 @@ public class BranchOffice implements Visitable {
 		for (ResourceType taskResource : task.getRequiredResourceTypes()
 				.keySet()) {
 	
-			if (taskManController.getActiveOffice().getResourceExpert().getAllResourceTypes()
+			if (this.getResourceExpert().getAllResourceTypes()
 					.contains(taskResource)) {
 	
 				if (taskResource.getAllResources().size() < task
@@ -13,6 +13,7 @@ public class Company {
 
 	private Set<BranchOffice> branchOffices;
 	private ImmutableClock clock;
+	private final OwnershipRegistry registry = new OwnershipRegistry();
 
 	/**
 	 * Default constructor of Company class. Initializes a new set of branch
@@ -31,7 +32,7 @@ public class Company {
 	 *            : given name
 	 */
 	BranchOffice createBranchOffice(String location) {
-		BranchOffice branchOffice = new BranchOffice(location, clock);
+		BranchOffice branchOffice = new BranchOffice(location, clock, registry);
 		branchOffices.add(branchOffice);
 		return branchOffice;
 	}
@@ -43,4 +44,20 @@ public class Company {
 		return branchOffices;
 	}
 
+	/**
+	 * @return registry : the owning and executing offices of all projects and
+	 *         tasks of the company
+	 */
+	OwnershipRegistry getOwnershipRegistry() {
+		return registry;
+	}
+
+	/**
+	 * Builds the ownership registry again, after the state of the branch
+	 * offices is loaded
+	 */
+	void rebuildOwnershipRegistry() {
+		registry.rebuild(branchOffices);
+	}
+
 }
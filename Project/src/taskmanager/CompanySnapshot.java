@@ -0,0 +1,533 @@
+package taskmanager;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import utility.TimeInterval;
+import utility.TimeSpan;
+
+/**
+ * A company snapshot is a compact binary image of the full state of the
+ * company of a controller: the branch offices with their resource types,
+ * resources, developers, projects, tasks and plannings, and the delegations
+ * between the offices.
+ *
+ * The objects are written in two parts. The first part contains the objects
+ * themselves, every object gets the number of its position. The second part
+ * contains the links between the objects as numbers. Loading a snapshot builds
+ * the objects in bulk without validating them again, they were valid when the
+ * snapshot was written. A snapshot file is memory mapped when it is loaded.
+ *
+ * @author Groep 8
+ */
+public class CompanySnapshot {
+
+	private static final int MAGIC = 0x544D414E;
+	private static final int VERSION = 1;
+	private static final long NO_TIME = Long.MIN_VALUE;
+	private static final int NONE = -1;
+
+	private CompanySnapshot() {
+	}
+
+	/**
+	 * Writes the state of the company of the given controller to the file at
+	 * the given path
+	 *
+	 * @param controller
+	 *            : the controller of the company
+	 * @param path
+	 *            : the file to write, it is replaced when it exists
+	 * @throws IOException
+	 *             : thrown when the file can not be written
+	 */
+	public static void write(TaskManController controller, Path path)
+			throws IOException {
+		try (FileChannel channel = FileChannel.open(path,
+				StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING)) {
+			write(controller, channel);
+		}
+	}
+
+	/**
+	 * Writes the state of the company of the given controller to the given
+	 * channel
+	 *
+	 * @param controller
+	 *            : the controller of the company
+	 * @param channel
+	 *            : the channel to write to
+	 * @throws IOException
+	 *             : thrown when the channel can not be written
+	 */
+	public static void write(TaskManController controller,
+			WritableByteChannel channel) throws IOException {
+		new Writer(channel).writeCompany(controller);
+	}
+
+	/**
+	 * Loads a new controller from the snapshot file at the given path. The
+	 * file is memory mapped.
+	 *
+	 * @param path
+	 *            : the snapshot file
+	 * @return a controller with the state of the snapshot
+	 * @throws IOException
+	 *             : thrown when the file can not be read or is no snapshot
+	 */
+	public static TaskManController read(Path path) throws IOException {
+		try (FileChannel channel = FileChannel.open(path,
+				StandardOpenOption.READ)) {
+			MappedByteBuffer buffer = channel.map(MapMode.READ_ONLY, 0,
+					channel.size());
+			return read(buffer);
+		}
+	}
+
+	/**
+	 * Loads a new controller from the snapshot in the given channel
+	 *
+	 * @param channel
+	 *            : the channel to read the snapshot from
+	 * @return a controller with the state of the snapshot
+	 * @throws IOException
+	 *             : thrown when the channel can not be read or contains no
+	 *             snapshot
+	 */
+	public static TaskManController read(ReadableByteChannel channel)
+			throws IOException {
+		ByteBuffer buffer = ByteBuffer.allocate(1 << 16);
+		while (channel.read(buffer) >= 0) {
+			if (!buffer.hasRemaining()) {
+				ByteBuffer larger = ByteBuffer
+						.allocate(buffer.capacity() * 2);
+				buffer.flip();
+				larger.put(buffer);
+				buffer = larger;
+			}
+		}
+		buffer.flip();
+		return read(buffer);
+	}
+
+	private static TaskManController read(ByteBuffer buffer)
+			throws IOException {
+		try {
+			return new Reader(buffer).readCompany();
+		} catch (BufferUnderflowException | IndexOutOfBoundsException
+				| NegativeArraySizeException e) {
+			throw new IOException("The snapshot is incomplete or damaged", e);
+		}
+	}
+
+	/**
+	 * Writes the objects of a company and numbers them in the order they are
+	 * written
+	 */
+	private static class Writer {
+
+		private final WritableByteChannel channel;
+		private ByteBuffer buffer = ByteBuffer.allocate(1 << 16);
+
+		private final Map<BranchOffice, Integer> offices = new HashMap<BranchOffice, Integer>();
+		private final Map<ResourceType, Integer> resourceTypes = new HashMap<ResourceType, Integer>();
+		private final Map<Resource, Integer> resources = new HashMap<Resource, Integer>();
+		private final Map<Developer, Integer> developers = new HashMap<Developer, Integer>();
+		private final Map<Task, Integer> tasks = new HashMap<Task, Integer>();
+		private final List<ResourceType> resourceTypeOrder = new ArrayList<ResourceType>();
+		private final List<Task> taskOrder = new ArrayList<Task>();
+
+		Writer(WritableByteChannel channel) {
+			this.channel = channel;
+		}
+
+		void writeCompany(TaskManController controller) throws IOException {
+			putInt(MAGIC);
+			putInt(VERSION);
+			putTime(controller.getTime());
+			Set<BranchOffice> allOffices = controller.getCompany()
+					.getAllBranchOffices();
+			putInt(allOffices.size());
+			for (BranchOffice office : allOffices) {
+				offices.put(office, offices.size());
+				writeOffice(office);
+			}
+
+			for (ResourceType resourceType : resourceTypeOrder) {
+				putReferences(resourceType.getRequiredResourceTypes(),
+						resourceTypes);
+				putReferences(resourceType.getConflictedResourceTypes(),
+						resourceTypes);
+			}
+			for (Task task : taskOrder) {
+				putInt(task.getOriginal() == null ? NONE : reference(
+						task.getOriginal(), tasks));
+				putReferences(task.getDependencies(), tasks);
+				putInt(task.getRequiredResourceTypes().size());
+				for (Map.Entry<ResourceType, Integer> entry : task
+						.getRequiredResourceTypes().entrySet()) {
+					putInt(reference(entry.getKey(), resourceTypes));
+					putInt(entry.getValue());
+				}
+			}
+			for (BranchOffice office : allOffices) {
+				writePlannings(office.getPlanner());
+			}
+			for (BranchOffice office : allOffices) {
+				List<Task> delegated = inOrder(office.getDelegatedTaskExpert()
+						.getAllDelegatedTasks());
+				putInt(delegated.size());
+				for (Task task : delegated) {
+					putInt(reference(task, tasks));
+					putInt(reference(office.getDelegatedTaskExpert()
+							.getOriginalOffice(task), offices));
+				}
+			}
+			flush();
+		}
+
+		private void writeOffice(BranchOffice office) throws IOException {
+			putString(office.getLocation());
+			putInt(office.getPlanner().getStartTimeSearch().ordinal());
+
+			Set<ResourceType> officeTypes = office.getResourceExpert()
+					.getAllResourceTypes();
+			putInt(officeTypes.size());
+			for (ResourceType resourceType : officeTypes) {
+				resourceTypes.put(resourceType, resourceTypes.size());
+				resourceTypeOrder.add(resourceType);
+				putString(resourceType.getName());
+				putLong(resourceType.getDailyAvailability().getBegin()
+						.toNanoOfDay());
+				putLong(resourceType.getDailyAvailability().getEnd()
+						.toNanoOfDay());
+				putInt(resourceType.getAllResources().size());
+				for (Resource resource : resourceType.getAllResources()) {
+					resources.put(resource, resources.size());
+					putString(resource.getName());
+				}
+			}
+
+			Set<Developer> officeDevelopers = office.getDeveloperExpert()
+					.getAllDevelopers();
+			putInt(officeDevelopers.size());
+			for (Developer developer : officeDevelopers) {
+				developers.put(developer, developers.size());
+				putString(developer.getName());
+			}
+
+			Set<Project> projects = office.getProjectExpert().getAllProjects();
+			putInt(projects.size());
+			for (Project project : projects) {
+				putString(project.getName());
+				putString(project.getDescription());
+				putTime(project.getCreationTime());
+				putTime(project.getDueTime());
+				putInt(project.getAllTasks().size());
+				for (Task task : project.getAllTasks()) {
+					tasks.put(task, tasks.size());
+					taskOrder.add(task);
+					putString(task.getDescription());
+					putLong(task.getEstimatedDuration().getSeconds());
+					putInt(task.getEstimatedDuration().getNano());
+					putDouble(task.getAcceptableDeviation());
+					putInt(task.getAmountOfRequiredDevelopers());
+					putInt(task.getStatus().ordinal());
+					putTime(task.getStartTime());
+					putTime(task.getEndTime());
+				}
+			}
+		}
+
+		private void writePlannings(Planner planner) throws IOException {
+			List<Task> planned = new ArrayList<Task>();
+			for (Planning planning : planner.getAllPlannings()) {
+				planned.add(planner.getTask(planning));
+			}
+			planned = inOrder(planned);
+			putInt(planned.size());
+			for (Task task : planned) {
+				Planning planning = planner.getPlanning(task);
+				putInt(reference(task, tasks));
+				putTime(planning.getTimeSpan().getBegin());
+				putTime(planning.getTimeSpan().getEnd());
+				putReferences(planning.getDevelopers(), developers);
+				// the resources of a planning have no order
+				List<Integer> numbers = new ArrayList<Integer>();
+				for (Resource resource : planning.getResources()) {
+					numbers.add(reference(resource, resources));
+				}
+				Collections.sort(numbers);
+				putInt(numbers.size());
+				for (int number : numbers) {
+					putInt(number);
+				}
+			}
+		}
+
+		/**
+		 * Returns the given tasks sorted by their number, so the same state
+		 * is always written the same way
+		 */
+		private List<Task> inOrder(Collection<Task> unordered) {
+			List<Task> ordered = new ArrayList<Task>(unordered);
+			ordered.sort(Comparator.comparing(task -> reference(task, tasks)));
+			return ordered;
+		}
+
+		private <T> int reference(T object, Map<T, Integer> numbers) {
+			Integer number = numbers.get(object);
+			if (number == null) {
+				throw new IllegalStateException(
+						"The company refers to an object outside the company");
+			}
+			return number;
+		}
+
+		private <T> void putReferences(Set<T> objects, Map<T, Integer> numbers)
+				throws IOException {
+			putInt(objects.size());
+			for (T object : objects) {
+				putInt(reference(object, numbers));
+			}
+		}
+
+		private void putInt(int value) throws IOException {
+			ensure(Integer.BYTES);
+			buffer.putInt(value);
+		}
+
+		private void putLong(long value) throws IOException {
+			ensure(Long.BYTES);
+			buffer.putLong(value);
+		}
+
+		private void putDouble(double value) throws IOException {
+			ensure(Double.BYTES);
+			buffer.putDouble(value);
+		}
+
+		private void putTime(LocalDateTime time) throws IOException {
+			if (time == null) {
+				putLong(NO_TIME);
+			} else {
+				putLong(time.toEpochSecond(ZoneOffset.UTC));
+				putInt(time.getNano());
+			}
+		}
+
+		private void putString(String value) throws IOException {
+			if (value == null) {
+				putInt(NONE);
+				return;
+			}
+			byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+			putInt(bytes.length);
+			ensure(bytes.length);
+			buffer.put(bytes);
+		}
+
+		/**
+		 * Makes room for the given number of bytes in the buffer
+		 */
+		private void ensure(int bytes) throws IOException {
+			if (buffer.remaining() < bytes) {
+				flush();
+				if (buffer.capacity() < bytes) {
+					buffer = ByteBuffer.allocate(bytes);
+				}
+			}
+		}
+
+		private void flush() throws IOException {
+			buffer.flip();
+			while (buffer.hasRemaining()) {
+				channel.write(buffer);
+			}
+			buffer.clear();
+		}
+	}
+
+	/**
+	 * Builds the objects of a company in the order they were written
+	 */
+	private static class Reader {
+
+		private final ByteBuffer buffer;
+
+		private final List<BranchOffice> offices = new ArrayList<BranchOffice>();
+		private final List<ResourceType> resourceTypes = new ArrayList<ResourceType>();
+		private final List<Resource> resources = new ArrayList<Resource>();
+		private final List<Developer> developers = new ArrayList<Developer>();
+		private final List<Task> tasks = new ArrayList<Task>();
+
+		Reader(ByteBuffer buffer) {
+			this.buffer = buffer;
+		}
+
+		TaskManController readCompany() throws IOException {
+			if (buffer.remaining() < 2 * Integer.BYTES
+					|| buffer.getInt() != MAGIC) {
+				throw new IOException("The given data is not a TaskMan snapshot");
+			}
+			int version = buffer.getInt();
+			if (version != VERSION) {
+				throw new IOException("Unsupported snapshot version " + version);
+			}
+			TaskManController controller = new TaskManController(getTime());
+			int officeCount = buffer.getInt();
+			for (int i = 0; i < officeCount; i++) {
+				BranchOffice office = controller.createBranchOffice(getString());
+				offices.add(office);
+				readOffice(office);
+			}
+
+			for (ResourceType resourceType : resourceTypes) {
+				List<ResourceType> required = getReferences(resourceTypes);
+				resourceType.restoreRelations(required,
+						getReferences(resourceTypes));
+			}
+			for (Task task : tasks) {
+				int original = buffer.getInt();
+				List<Task> dependencies = getReferences(tasks);
+				int typeCount = buffer.getInt();
+				Map<ResourceType, Integer> requiredTypes = new LinkedHashMap<ResourceType, Integer>();
+				for (int i = 0; i < typeCount; i++) {
+					ResourceType resourceType = resourceTypes.get(buffer
+							.getInt());
+					requiredTypes.put(resourceType, buffer.getInt());
+				}
+				task.restoreLinks(original == NONE ? null : tasks.get(original),
+						dependencies, requiredTypes);
+			}
+			for (BranchOffice office : offices) {
+				readPlannings(office.getPlanner());
+			}
+			for (BranchOffice office : offices) {
+				int delegatedCount = buffer.getInt();
+				for (int i = 0; i < delegatedCount; i++) {
+					Task task = tasks.get(buffer.getInt());
+					office.getDelegatedTaskExpert().addDelegatedTask(task,
+							offices.get(buffer.getInt()));
+				}
+			}
+			return controller;
+		}
+
+		private void readOffice(BranchOffice office) {
+			office.getPlanner().setStartTimeSearch(
+					StartTimeSearch.values()[buffer.getInt()]);
+
+			int typeCount = buffer.getInt();
+			for (int i = 0; i < typeCount; i++) {
+				String name = getString();
+				TimeInterval dailyAvailability = new TimeInterval(
+						LocalTime.ofNanoOfDay(buffer.getLong()),
+						LocalTime.ofNanoOfDay(buffer.getLong()));
+				ResourceType resourceType = ResourceType.builder(name)
+						.addDailyAvailability(dailyAvailability).build(office);
+				resourceTypes.add(resourceType);
+				int resourceCount = buffer.getInt();
+				for (int j = 0; j < resourceCount; j++) {
+					resources.add(resourceType.createResource(getString()));
+				}
+			}
+
+			int developerCount = buffer.getInt();
+			for (int i = 0; i < developerCount; i++) {
+				developers.add(office.getDeveloperExpert().createDeveloper(
+						getString()));
+			}
+
+			int projectCount = buffer.getInt();
+			for (int i = 0; i < projectCount; i++) {
+				Project project = office.getProjectExpert().createProject(
+						getString(), getString(), getTime(), getTime());
+				int taskCount = buffer.getInt();
+				List<Task> projectTasks = new ArrayList<Task>(taskCount);
+				for (int j = 0; j < taskCount; j++) {
+					String description = getString();
+					Duration estimatedDuration = Duration.ofSeconds(
+							buffer.getLong(), buffer.getInt());
+					double acceptableDeviation = buffer.getDouble();
+					int amountOfRequiredDevelopers = buffer.getInt();
+					TaskStatus status = TaskStatus.values()[buffer.getInt()];
+					LocalDateTime startTime = getTime();
+					projectTasks.add(new Task(description, estimatedDuration,
+							acceptableDeviation, amountOfRequiredDevelopers,
+							status, startTime, getTime(), project.getClock()));
+				}
+				project.addRestoredTasks(projectTasks);
+				tasks.addAll(projectTasks);
+			}
+		}
+
+		private void readPlannings(Planner planner) {
+			int planningCount = buffer.getInt();
+			Map<Task, Planning> plannings = new LinkedHashMap<Task, Planning>();
+			for (int i = 0; i < planningCount; i++) {
+				Task task = tasks.get(buffer.getInt());
+				TimeSpan timeSpan = new TimeSpan(getTime(), getTime());
+				Set<Developer> planningDevelopers = new LinkedHashSet<Developer>(
+						getReferences(developers));
+				Set<Resource> planningResources = new LinkedHashSet<Resource>(
+						getReferences(resources));
+				plannings.put(task, new Planning(planner, timeSpan,
+						planningDevelopers, planningResources));
+			}
+			planner.addRestoredPlannings(plannings);
+		}
+
+		private <T> List<T> getReferences(List<T> objects) {
+			int count = buffer.getInt();
+			List<T> references = new ArrayList<T>(count);
+			for (int i = 0; i < count; i++) {
+				references.add(objects.get(buffer.getInt()));
+			}
+			return references;
+		}
+
+		private LocalDateTime getTime() {
+			long seconds = buffer.getLong();
+			if (seconds == NO_TIME) {
+				return null;
+			}
+			return LocalDateTime.ofEpochSecond(seconds, buffer.getInt(),
+					ZoneOffset.UTC);
+		}
+
+		private String getString() {
+			int length = buffer.getInt();
+			if (length == NONE) {
+				return null;
+			}
+			byte[] bytes = new byte[length];
+			buffer.get(bytes);
+			return new String(bytes, StandardCharsets.UTF_8);
+		}
+	}
+}
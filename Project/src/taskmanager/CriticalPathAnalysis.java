@@ -0,0 +1,279 @@
+package taskmanager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import utility.WorkWeek;
+
+/**
+ * The critical path analysis of a project at the current time of the clock.
+ * The tasks of the project are sorted topologically once, after which a
+ * forward pass computes the earliest start and finish of every task and a
+ * backward pass computes the latest start and finish that do not delay the
+ * project. All times are computed as positions in work minutes, so the
+ * durations follow the work week of WorkDay.
+ *
+ * Finished and failed tasks keep their real start and end time. Unfinished
+ * tasks start when the clock and all their dependencies allow it, just like
+ * the estimated finish time of a task. The slack of a task is the work time
+ * it can be delayed without delaying the project; the critical path consists
+ * of the unfinished tasks without slack.
+ *
+ * @author Groep 8
+ */
+public class CriticalPathAnalysis {
+
+	private final List<Task> order;
+	private final Map<Task, Integer> ordinals = new HashMap<Task, Integer>();
+	private final long[] earliestStart;
+	private final long[] earliestFinish;
+	private final long[] latestFinish;
+	private final long projectFinish;
+
+	/**
+	 * Analyses the tasks of the given project at the current time
+	 *
+	 * @param project
+	 *            : the project to analyse
+	 * @param now
+	 *            : the current time
+	 * @throws IllegalArgumentException
+	 *             : thrown when the project has no tasks
+	 */
+	CriticalPathAnalysis(Project project, LocalDateTime now) {
+		Set<Task> tasks = project.getAllTasks();
+		if (tasks.isEmpty()) {
+			throw new IllegalArgumentException(
+					"A project without tasks has no critical path");
+		}
+		this.order = sort(tasks);
+		for (int i = 0; i < order.size(); i++) {
+			ordinals.put(order.get(i), i);
+		}
+		int size = order.size();
+		earliestStart = new long[size];
+		earliestFinish = new long[size];
+		latestFinish = new long[size];
+
+		// forward pass
+		long current = position(now);
+		long finish = Long.MIN_VALUE;
+		for (int i = 0; i < size; i++) {
+			Task task = order.get(i);
+			long ready = current;
+			for (Task dependency : task.getDependencies()) {
+				Integer ordinal = ordinals.get(dependency);
+				long dependencyFinish = ordinal != null ? earliestFinish[ordinal]
+						: position(dependency.getEstimatedFinishTime());
+				ready = Math.max(ready, dependencyFinish);
+			}
+			if (task.getEndTime() != null) {
+				earliestStart[i] = position(task.getStartTime());
+				earliestFinish[i] = position(task.getEndTime());
+			} else {
+				earliestStart[i] = task.getStartTime() != null ? position(task
+						.getStartTime()) : ready;
+				earliestFinish[i] = ready
+						+ task.getEstimatedDuration().toMinutes();
+			}
+			finish = Math.max(finish, earliestFinish[i]);
+		}
+		this.projectFinish = finish;
+
+		// backward pass
+		for (int i = size - 1; i >= 0; i--) {
+			long latest = projectFinish;
+			for (Task dependent : order.get(i).getDependents()) {
+				Integer ordinal = ordinals.get(dependent);
+				if (ordinal != null) {
+					latest = Math.min(latest, latestStart(ordinal));
+				}
+			}
+			latestFinish[i] = latest;
+		}
+	}
+
+	/**
+	 * Sorts the given tasks so that every task comes after its dependencies
+	 */
+	private static List<Task> sort(Set<Task> tasks) {
+		Map<Task, Integer> waiting = new HashMap<Task, Integer>();
+		List<Task> sorted = new ArrayList<Task>(tasks.size());
+		for (Task task : tasks) {
+			int count = 0;
+			for (Task dependency : task.getDependencies()) {
+				if (tasks.contains(dependency)) {
+					count++;
+				}
+			}
+			if (count == 0) {
+				sorted.add(task);
+			} else {
+				waiting.put(task, count);
+			}
+		}
+		for (int i = 0; i < sorted.size(); i++) {
+			for (Task dependent : sorted.get(i).getDependents()) {
+				Integer count = waiting.get(dependent);
+				if (count == null) {
+					continue;
+				}
+				if (count == 1) {
+					waiting.remove(dependent);
+					sorted.add(dependent);
+				} else {
+					waiting.put(dependent, count - 1);
+				}
+			}
+		}
+		if (sorted.size() != tasks.size()) {
+			throw new IllegalStateException(
+					"The dependencies of the project contain a loop");
+		}
+		return sorted;
+	}
+
+	/**
+	 * Returns the position of the given time in work minutes
+	 */
+	private static long position(LocalDateTime time) {
+		return WorkWeek.workMinutesUntil(time.truncatedTo(ChronoUnit.MINUTES));
+	}
+
+	/**
+	 * Returns the time at which the work minute after the given position
+	 * starts
+	 */
+	private static LocalDateTime startAt(long position) {
+		return WorkWeek.timeAtWorkMinutes(position + 1).minusMinutes(1);
+	}
+
+	private long latestStart(int ordinal) {
+		return latestFinish[ordinal]
+				- (earliestFinish[ordinal] - earliestStart[ordinal]);
+	}
+
+	private int ordinal(Task task) {
+		Integer ordinal = ordinals.get(task);
+		if (ordinal == null) {
+			throw new IllegalArgumentException(
+					"The given task is not part of the analysed project");
+		}
+		return ordinal;
+	}
+
+	/**
+	 * Returns the tasks of the project, every task after its dependencies
+	 *
+	 * @return list of tasks in topological order
+	 */
+	public List<Task> getTopologicalOrder() {
+		return Collections.unmodifiableList(order);
+	}
+
+	/**
+	 * Returns the earliest time at which the given task can start
+	 *
+	 * @param task
+	 *            : a task of the analysed project
+	 * @return the earliest start time
+	 */
+	public LocalDateTime getEarliestStart(Task task) {
+		return startAt(earliestStart[ordinal(task)]);
+	}
+
+	/**
+	 * Returns the earliest time at which the given task can finish
+	 *
+	 * @param task
+	 *            : a task of the analysed project
+	 * @return the earliest finish time
+	 */
+	public LocalDateTime getEarliestFinish(Task task) {
+		return WorkWeek.timeAtWorkMinutes(earliestFinish[ordinal(task)]);
+	}
+
+	/**
+	 * Returns the latest time at which the given task can start without
+	 * delaying the project
+	 *
+	 * @param task
+	 *            : a task of the analysed project
+	 * @return the latest start time
+	 */
+	public LocalDateTime getLatestStart(Task task) {
+		return startAt(latestStart(ordinal(task)));
+	}
+
+	/**
+	 * Returns the latest time at which the given task can finish without
+	 * delaying the project
+	 *
+	 * @param task
+	 *            : a task of the analysed project
+	 * @return the latest finish time
+	 */
+	public LocalDateTime getLatestFinish(Task task) {
+		return WorkWeek.timeAtWorkMinutes(latestFinish[ordinal(task)]);
+	}
+
+	/**
+	 * Returns the work time the given task can be delayed without delaying the
+	 * project
+	 *
+	 * @param task
+	 *            : a task of the analysed project
+	 * @return the slack of the task
+	 */
+	public Duration getSlack(Task task) {
+		int ordinal = ordinal(task);
+		return Duration.ofMinutes(latestFinish[ordinal]
+				- earliestFinish[ordinal]);
+	}
+
+	/**
+	 * Checks whether the given task is on the critical path
+	 *
+	 * @param task
+	 *            : a task of the analysed project
+	 * @return true if the task is unfinished and has no slack
+	 */
+	public boolean isCritical(Task task) {
+		int ordinal = ordinal(task);
+		return task.getEndTime() == null
+				&& latestFinish[ordinal] == earliestFinish[ordinal];
+	}
+
+	/**
+	 * Returns the unfinished tasks without slack, every task after its
+	 * dependencies
+	 *
+	 * @return the tasks on the critical path
+	 */
+	public List<Task> getCriticalPath() {
+		List<Task> path = new ArrayList<Task>();
+		for (Task task : order) {
+			if (isCritical(task)) {
+				path.add(task);
+			}
+		}
+		return path;
+	}
+
+	/**
+	 * Returns the earliest time at which all tasks of the project can be
+	 * finished
+	 *
+	 * @return the estimated finish time of the project
+	 */
+	public LocalDateTime getFinishTime() {
+		return WorkWeek.timeAtWorkMinutes(projectFinish);
+	}
+}
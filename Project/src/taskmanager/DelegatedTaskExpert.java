@@ -1,33 +1,49 @@
 package taskmanager;
 
+import java.util.ArrayList;
 import java.util.Collections;
-import java.util.HashSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
-import java.util.HashMap;
 
-import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.LinkedHashMultimap;
 
 /**
  * 
  * The delegated task expert contains all the information of the task that are
- * delegated to the branch office
+ * delegated to the branch office. The delegated tasks of every original office
+ * are kept by the snapshot journal of the expert, so saving, loading and the
+ * simulation branches only copy the delegations of the offices that changed.
  * 
  * @author Group 8
  *
  */
 public class DelegatedTaskExpert {
 
-	private ArrayListMultimap<BranchOffice, Task> delegatedTasks;
-	private HashMap<BranchOffice, Memento> mementos;
+	private final LinkedHashMultimap<BranchOffice, Task> delegatedTasks;
+	// the original office of every delegated task
+	private final Map<Task, BranchOffice> originalOffices;
+	private final Map<BranchOffice, Delegations> entries = new HashMap<BranchOffice, Delegations>();
+	private final SnapshotJournal journal = new SnapshotJournal();
+	private final BranchOffice executingOffice;
+	private final OwnershipRegistry registry;
 
 	/**
 	 * Default constructor of the delegatedTaskExpert. It initializes a new
 	 * empty set for delegated tasks
+	 * 
+	 * @param office
+	 *            : the office the tasks are delegated to
+	 * @param registry
+	 *            : the registry the delegations are added to
 	 */
-	DelegatedTaskExpert() {
-		this.delegatedTasks = ArrayListMultimap.create();
-		this.mementos = new HashMap<BranchOffice, Memento>();
+	DelegatedTaskExpert(BranchOffice office, OwnershipRegistry registry) {
+		this.executingOffice = office;
+		this.registry = registry;
+		this.delegatedTasks = LinkedHashMultimap.create();
+		this.originalOffices = new LinkedHashMap<Task, BranchOffice>();
 	}
 
 	/**
@@ -37,11 +53,23 @@ public class DelegatedTaskExpert {
 	 *            : given task
 	 */
 	void addDelegatedTask(Task task, BranchOffice office) {
+		BranchOffice original = originalOffices.get(task);
+		if (original != null && original != office) {
+			touch(original);
+			delegatedTasks.remove(original, task);
+		}
+		touch(office);
 		this.delegatedTasks.put(office, task);
+		this.originalOffices.put(task, office);
+		registry.addDelegation(task, executingOffice);
 	}
 
 	void removeDelegatedTask(Task task) {
-		delegatedTasks.remove(getOriginalOffice(task), task);
+		BranchOffice office = getOriginalOffice(task);
+		touch(office);
+		delegatedTasks.remove(office, task);
+		originalOffices.remove(task);
+		registry.removeDelegation(task, executingOffice);
 	}
 
 	/**
@@ -52,12 +80,7 @@ public class DelegatedTaskExpert {
 	 * @return : the original office of the task
 	 */
 	public BranchOffice getOriginalOffice(Task delegatedTask) {
-		BranchOffice returnOffice = null;
-		for (BranchOffice office : delegatedTasks.keySet()) {
-			if (delegatedTasks.containsEntry(office, delegatedTask)) {
-				returnOffice = office;
-			}
-		}
+		BranchOffice returnOffice = originalOffices.get(delegatedTask);
 		if (returnOffice != null) {
 			return returnOffice;
 		} else {
@@ -68,37 +91,94 @@ public class DelegatedTaskExpert {
 	}
 
 	/**
-	 * Returns the delegated task set
+	 * Returns the delegated task set. The set is a read only view that
+	 * follows the delegations of the office.
 	 * 
 	 * @return delegatedTasks : set with delegated Tasks
 	 */
 	public Set<Task> getAllDelegatedTasks() {
-		if (!delegatedTasks.isEmpty()) {
-			return Collections.unmodifiableSet(new HashSet<Task>(delegatedTasks
-					.values()));
-		} else {
-			return new HashSet<Task>();
-		}
+		return Collections.unmodifiableSet(originalOffices.keySet());
 	}
 
 	/**
-	 * Saves the current state of the class
+	 * Saves the current state of the class. The delegated tasks of an office
+	 * are only copied when they change after the save.
 	 */
-	void save(BranchOffice office) {
-		this.mementos.put(office, new Memento(office));
+	void save() {
+		journal.save();
 	}
 
 	/**
-	 * Loads the last save state of the class
+	 * Loads the last saved state of the class. Only the delegated tasks of the
+	 * offices that changed since the save are restored.
 	 * 
-	 * @return last state of the class
+	 * @throws IllegalStateException
+	 *             : thrown when there was no save
 	 */
-	void load(BranchOffice office) {
-		if (this.mementos.get(office) == null) {
-			throw new IllegalStateException(
-					"You need to save before you can load");
-		} else {
-			this.mementos.get(office).load();
+	void load() {
+		journal.load();
+	}
+
+	/**
+	 * Saves the delegated tasks of the given original office if they change
+	 * for the first time since the last save or fork
+	 */
+	private void touch(BranchOffice office) {
+		Delegations entry = entries.get(office);
+		if (entry == null) {
+			entry = new Delegations(office);
+			entries.put(office, entry);
+		}
+		journal.touch(entry);
+	}
+
+	/**
+	 * Returns the journal that keeps the saved state of the delegated tasks
+	 * 
+	 * @return journal : the snapshot journal of the delegated task expert
+	 */
+	SnapshotJournal getJournal() {
+		return journal;
+	}
+
+	/**
+	 * The tasks delegated to the expert by one original office
+	 */
+	private class Delegations implements Journaled {
+		private final BranchOffice office;
+
+		private Delegations(BranchOffice office) {
+			this.office = office;
+		}
+
+		/**
+		 * Returns a copy of the tasks delegated by the office
+		 */
+		@Override
+		public Object saveState() {
+			return new Memento(delegatedTasks.get(office));
+		}
+
+		/**
+		 * Sets the tasks delegated by the office to the ones of the memento
+		 * and registers the delegations that changed
+		 */
+		@Override
+		public void loadState(Object memento) {
+			List<Task> saved = ((Memento) memento).delegatedTasks;
+			Set<Task> delegated = delegatedTasks.replaceValues(office, saved);
+			for (Task task : delegated) {
+				originalOffices.remove(task, office);
+			}
+			for (Task task : saved) {
+				originalOffices.put(task, office);
+				registry.addDelegation(task, executingOffice);
+			}
+			for (Task task : delegated) {
+				if (!originalOffices.containsKey(task)) {
+					registry.removeDelegation(task, executingOffice);
+				}
+			}
 		}
 	}
 
@@ -108,29 +188,16 @@ public class DelegatedTaskExpert {
 	 * 
 	 * @author groep 8
 	 */
-	private class Memento {
-		BranchOffice office;
-		private List<Task> delegatedTasks;
+	private static class Memento {
+		private final List<Task> delegatedTasks;
 
 		/**
 		 * Constructor of the memento inner class of delegated task expert.
 		 * Initialize a new list the delegated tasks in the current state
 		 * 
 		 */
-		public Memento(BranchOffice office) {
-			this.office = office;
-
-			this.delegatedTasks = DelegatedTaskExpert.this.delegatedTasks
-					.get(office);
-
-		}
-
-		/**
-		 * loads the memento to restore the state *
-		 */
-		public void load() {
-			DelegatedTaskExpert.this.delegatedTasks.replaceValues(office,
-					this.delegatedTasks);
+		private Memento(Set<Task> delegatedTasks) {
+			this.delegatedTasks = new ArrayList<Task>(delegatedTasks);
 		}
 	}
 
@@ -0,0 +1,172 @@
+package taskmanager;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The dependency index keeps the transitive dependencies of the tasks of one
+ * project. Every task gets a dense ordinal and a bitset with the ordinals of
+ * all the tasks it directly or indirectly depends on, so checking whether a
+ * task depends on an other task is a single bit lookup.
+ *
+ * A task that is added together with its dependencies, as happens when tasks
+ * are built or imported, only needs the union of the bitsets of its
+ * dependencies. Other changes, like removing a dependency or loading an older
+ * state, mark the index as outdated and it is rebuilt from the tasks of the
+ * project the next time it is used.
+ *
+ * Tasks that depend, directly or indirectly, on a task of an other project are
+ * marked as open: the index does not know the dependencies outside its project
+ * and these tasks have to be searched.
+ *
+ * @author Groep 8
+ */
+class DependencyIndex {
+
+	private final Project project;
+	private Map<Task, Integer> ordinals = new HashMap<Task, Integer>();
+	private List<BitSet> closures = new ArrayList<BitSet>();
+	private BitSet open = new BitSet();
+	private boolean outdated = false;
+
+	/**
+	 * Creates an empty dependency index for the given project
+	 *
+	 * @param project
+	 *            : the project of which the tasks are indexed
+	 */
+	DependencyIndex(Project project) {
+		this.project = project;
+	}
+
+	/**
+	 * Adds a task of the project together with its current dependencies
+	 *
+	 * @param task
+	 *            : a task without dependents that was added to the project
+	 */
+	void add(Task task) {
+		if (outdated || ordinals.containsKey(task)) {
+			return;
+		}
+		ordinals.put(task, closures.size());
+		closures.add(new BitSet());
+		for (Task dependency : task.getDependencies()) {
+			include(task, dependency);
+		}
+	}
+
+	/**
+	 * Updates the index after a dependency was added to the given task
+	 *
+	 * @param task
+	 *            : the task that got a new dependency
+	 * @param dependency
+	 *            : the new dependency
+	 */
+	void addDependency(Task task, Task dependency) {
+		if (outdated || !ordinals.containsKey(task)) {
+			return;
+		}
+		for (Task dependent : task.getDependents()) {
+			if (ordinals.containsKey(dependent)) {
+				// the closures of the dependents change as well
+				outdated = true;
+				return;
+			}
+		}
+		include(task, dependency);
+	}
+
+	/**
+	 * Marks the index as outdated, it will be rebuilt when it is used again
+	 */
+	void invalidate() {
+		outdated = true;
+	}
+
+	/**
+	 * Checks whether all the dependencies of the given task are known to the
+	 * index
+	 *
+	 * @param task
+	 *            : the task to check
+	 * @return true if the task belongs to the project and does not depend on
+	 *         tasks of other projects
+	 */
+	boolean isClosed(Task task) {
+		update();
+		Integer ordinal = ordinals.get(task);
+		return ordinal != null && !open.get(ordinal);
+	}
+
+	/**
+	 * Checks whether the given task directly or indirectly depends on the
+	 * given dependency. The task must be closed.
+	 *
+	 * @param task
+	 *            : a closed task of the project
+	 * @param dependency
+	 *            : the possible dependency
+	 * @return true if the task depends on the dependency
+	 */
+	boolean reaches(Task task, Task dependency) {
+		update();
+		Integer ordinal = ordinals.get(dependency);
+		return ordinal != null && closures.get(ordinals.get(task)).get(ordinal);
+	}
+
+	/**
+	 * Adds the given dependency and its closure to the closure of the task
+	 */
+	private void include(Task task, Task dependency) {
+		int ordinal = ordinals.get(task);
+		Integer dependencyOrdinal = ordinals.get(dependency);
+		if (dependencyOrdinal == null) {
+			open.set(ordinal);
+			return;
+		}
+		BitSet closure = closures.get(ordinal);
+		closure.set(dependencyOrdinal);
+		closure.or(closures.get(dependencyOrdinal));
+		if (open.get(dependencyOrdinal)) {
+			open.set(ordinal);
+		}
+	}
+
+	/**
+	 * Rebuilds the index from the tasks of the project if it is outdated. The
+	 * tasks are added in an order in which every task comes after its
+	 * dependencies.
+	 */
+	private void update() {
+		if (!outdated) {
+			return;
+		}
+		outdated = false;
+		ordinals = new HashMap<Task, Integer>();
+		closures = new ArrayList<BitSet>();
+		open = new BitSet();
+		for (Task task : project.getAllTasks()) {
+			addWithDependencies(task);
+		}
+	}
+
+	/**
+	 * Adds the given task after the dependencies of the project it has
+	 */
+	private void addWithDependencies(Task task) {
+		if (ordinals.containsKey(task)) {
+			return;
+		}
+		for (Task dependency : task.getDependencies()) {
+			if (project.getAllTasks().contains(dependency)) {
+				addWithDependencies(dependency);
+			}
+		}
+		add(task);
+	}
+}
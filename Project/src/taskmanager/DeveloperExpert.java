@@ -12,10 +12,10 @@ import edu.umd.cs.findbugs.annotations.NonNull;
  * 
  * @author Groep 8
  */
-public class DeveloperExpert {
+public class DeveloperExpert implements Journaled {
 
 	private Set<Developer> developers;
-	private Memento memento;
+	private final SnapshotJournal journal = new SnapshotJournal();
 
 	/**
 	 * Default constructor of the developer expert. It initializes a new set of
@@ -56,6 +56,7 @@ public class DeveloperExpert {
 			throw new IllegalArgumentException(
 					"The developer expert has already the given developer.");
 		}
+		journal.touch(this);
 		this.developers.add(developer);
 	}
 
@@ -72,7 +73,7 @@ public class DeveloperExpert {
 	 * Saves the current state of the class
 	 */
 	void save() {
-		this.memento = new Memento();
+		journal.save();
 	}
 
 	/**
@@ -81,12 +82,32 @@ public class DeveloperExpert {
 	 * @return last state of the class
 	 */
 	void load() {
-		if (this.memento == null) {
-			throw new IllegalStateException(
-					"You need to save before you can load");
-		} else {
-			this.memento.load();
-		}
+		journal.load();
+	}
+
+	/**
+	 * Returns the journal that keeps the saved state of the developers
+	 * 
+	 * @return journal : the snapshot journal of the developer expert
+	 */
+	SnapshotJournal getJournal() {
+		return journal;
+	}
+
+	/**
+	 * Returns a memento of the current state of the developer expert
+	 */
+	@Override
+	public Object saveState() {
+		return new Memento();
+	}
+
+	/**
+	 * Sets the developer expert to the state of the given memento
+	 */
+	@Override
+	public void loadState(Object memento) {
+		((Memento) memento).load();
 	}
 
 	/**
@@ -117,7 +138,8 @@ public class DeveloperExpert {
 		 *            : developer expert
 		 */
 		public void load() {
-			DeveloperExpert.this.developers = this.developers;
+			DeveloperExpert.this.developers = new LinkedHashSet<Developer>(
+					this.developers);
 		}
 	}
 
@@ -0,0 +1,25 @@
+package taskmanager;
+
+/**
+ * Interface for the objects of which the state is kept by a snapshot journal.
+ * 
+ * @author Groep 8
+ */
+interface Journaled {
+
+	/**
+	 * Returns a memento of the current state of the object
+	 * 
+	 * @return memento of the current state
+	 */
+	Object saveState();
+
+	/**
+	 * Sets the state of the object to the state of the given memento. The
+	 * memento must stay unchanged, so it can be loaded again.
+	 * 
+	 * @param memento
+	 *            : a memento returned by saveState
+	 */
+	void loadState(Object memento);
+}
@@ -0,0 +1,184 @@
+package taskmanager;
+
+import java.time.LocalDateTime;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import utility.TimeSpan;
+import utility.WorkWeek;
+
+/**
+ * The occupancy keeps for every developer or resource a bitset with one bit
+ * for every work hour of the work week defined by WorkDay. A slot starts when
+ * the previous work hour ends, so the free time before a work hour belongs to
+ * its slot and the slots together cover all of time. A bit is set when a
+ * planning of the developer or resource overlaps with the slot.
+ *
+ * When none of the slots overlapping with a time span are set, no planning of
+ * the key overlaps with that time span, and it is known to be free with a few
+ * word operations. Otherwise the key may still be free, because a planning can
+ * overlap a slot without overlapping the time span, and the exact bookings
+ * have to be checked.
+ *
+ * Bits are only cleared for the slots of a removed planning and are set again
+ * for the other plannings in those slots. A planning that became shorter
+ * without being reindexed only leaves bits set, which is always safe.
+ *
+ * @author Groep 8
+ *
+ * @param <K>
+ *            : the type of the booked objects (developers or resources)
+ */
+class Occupancy<K> {
+
+	private static final int MINUTES_PER_SLOT = 60;
+	private static final int SLOTS_BEFORE_ORIGIN = 52 * 40;
+
+	private final long origin;
+	private final BookingIndex<K> bookings;
+	private Map<K, BitSet> slots = new HashMap<K, BitSet>();
+	private Set<K> irregular = new HashSet<K>();
+
+	/**
+	 * Creates an empty occupancy for the given bookings. Slots are counted
+	 * from about a year before the given time.
+	 *
+	 * @param now
+	 *            : the current time
+	 * @param bookings
+	 *            : the exact bookings, used to restore slots of removed
+	 *            plannings
+	 */
+	Occupancy(LocalDateTime now, BookingIndex<K> bookings) {
+		this.origin = slot(now.toLocalDate().atStartOfDay())
+				- SLOTS_BEFORE_ORIGIN;
+		this.bookings = bookings;
+	}
+
+	/**
+	 * Marks the slots of the given planning as occupied for the given key
+	 *
+	 * @param key
+	 *            : the booked developer or resource
+	 * @param planning
+	 *            : the planning the key is booked in
+	 */
+	void add(K key, Planning planning) {
+		TimeSpan timeSpan = planning.getTimeSpan();
+		if (!isRegular(timeSpan)) {
+			irregular.add(key);
+			return;
+		}
+		long from = Math.max(slot(timeSpan.getBegin()) - origin, 0);
+		long to = endSlot(timeSpan.getEnd()) - origin;
+		if (to > Integer.MAX_VALUE) {
+			irregular.add(key);
+			return;
+		}
+		if (to <= from) {
+			return;
+		}
+		BitSet bits = slots.get(key);
+		if (bits == null) {
+			bits = new BitSet();
+			slots.put(key, bits);
+		}
+		bits.set((int) from, (int) to);
+	}
+
+	/**
+	 * Clears the slots of the given planning for the given key and marks them
+	 * again for the other plannings of the key. The planning must already be
+	 * removed from the bookings.
+	 *
+	 * @param key
+	 *            : the booked developer or resource
+	 * @param planning
+	 *            : the removed planning
+	 */
+	void remove(K key, Planning planning) {
+		TimeSpan timeSpan = planning.getTimeSpan();
+		BitSet bits = slots.get(key);
+		if (bits == null || !isRegular(timeSpan)) {
+			return;
+		}
+		long from = Math.max(slot(timeSpan.getBegin()) - origin, 0);
+		long to = Math.min(endSlot(timeSpan.getEnd()) - origin,
+				Integer.MAX_VALUE);
+		if (to <= from) {
+			return;
+		}
+		bits.clear((int) from, (int) to);
+		TimeSpan cleared = new TimeSpan(
+				WorkWeek.timeAtWorkMinutes((from + origin) * MINUTES_PER_SLOT),
+				WorkWeek.timeAtWorkMinutes((to + origin) * MINUTES_PER_SLOT));
+		for (Planning other : bookings.getOverlapping(key, cleared)) {
+			add(key, other);
+		}
+	}
+
+	/**
+	 * Clears all slots
+	 */
+	void clear() {
+		slots.clear();
+		irregular.clear();
+	}
+
+	/**
+	 * Checks whether the key is certainly free during the given time span.
+	 * When this returns false the key may still be free.
+	 *
+	 * @param key
+	 *            : the developer or resource
+	 * @param timeSpan
+	 *            : the time span to check
+	 * @return true if no planning of the key overlaps with the time span
+	 */
+	boolean isFree(K key, TimeSpan timeSpan) {
+		if (irregular.contains(key) || !isRegular(timeSpan)) {
+			return false;
+		}
+		long from = slot(timeSpan.getBegin()) - origin;
+		long to = endSlot(timeSpan.getEnd()) - origin;
+		if (from < 0 || to > Integer.MAX_VALUE) {
+			return false;
+		}
+		BitSet bits = slots.get(key);
+		if (bits == null) {
+			return true;
+		}
+		int next = bits.nextSetBit((int) from);
+		return next < 0 || next >= to;
+	}
+
+	/**
+	 * Checks whether the given time span can be mapped on slots
+	 */
+	private boolean isRegular(TimeSpan timeSpan) {
+		return WorkWeek.isSupported(timeSpan.getBegin())
+				&& WorkWeek.isSupported(timeSpan.getEnd());
+	}
+
+	/**
+	 * Returns the slot containing the given time
+	 */
+	private static long slot(LocalDateTime time) {
+		return Math.floorDiv(WorkWeek.workMinutesUntil(time), MINUTES_PER_SLOT);
+	}
+
+	/**
+	 * Returns the slot after the slot containing the last moment before the
+	 * given time
+	 */
+	private static long endSlot(LocalDateTime time) {
+		long position = WorkWeek.workMinutesUntil(time);
+		if (WorkWeek.followsWorkTime(time)) {
+			position--;
+		}
+		return Math.floorDiv(position, MINUTES_PER_SLOT) + 1;
+	}
+}
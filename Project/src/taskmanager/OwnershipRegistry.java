@@ -0,0 +1,184 @@
+package taskmanager;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The ownership registry of a company knows for every project the branch
+ * office owning it, for every task its project and for every delegated task
+ * the branch office it is delegated to. The experts of the branch offices
+ * register their projects, tasks and delegations when they are made, so the
+ * responsible office of a project or task is found without looking through
+ * the offices. When the state of the offices is loaded, the experts only
+ * forget the projects, tasks and delegations that were added since the save.
+ * When another simulation branch is switched to, the registry is built again
+ * from the offices.
+ *
+ * The branch offices of a company can be built on different threads, so the
+ * registry can be changed concurrently.
+ *
+ * @author Groep 8
+ */
+class OwnershipRegistry {
+
+	private final Map<Project, BranchOffice> projectOwners = new ConcurrentHashMap<Project, BranchOffice>();
+	private final Map<Task, Project> taskProjects = new ConcurrentHashMap<Task, Project>();
+	private final Map<Task, BranchOffice> executors = new ConcurrentHashMap<Task, BranchOffice>();
+
+	/**
+	 * Registers the office owning the given project
+	 *
+	 * @param project
+	 *            : the new project
+	 * @param office
+	 *            : the office owning the project
+	 */
+	void addProject(Project project, BranchOffice office) {
+		projectOwners.put(project, office);
+	}
+
+	/**
+	 * Forgets the given project and its tasks
+	 *
+	 * @param project
+	 *            : the project that is removed
+	 */
+	void removeProject(Project project) {
+		projectOwners.remove(project);
+		for (Task task : project.getAllTasks()) {
+			taskProjects.remove(task, project);
+		}
+	}
+
+	/**
+	 * Registers the project of the given task
+	 *
+	 * @param task
+	 *            : the new task
+	 * @param project
+	 *            : the project of the task
+	 */
+	void addTask(Task task, Project project) {
+		taskProjects.put(task, project);
+	}
+
+	/**
+	 * Forgets that the given task belongs to the given project
+	 *
+	 * @param task
+	 *            : the task that is removed
+	 * @param project
+	 *            : the project of the task
+	 */
+	void removeTask(Task task, Project project) {
+		taskProjects.remove(task, project);
+	}
+
+	/**
+	 * Registers the office the given task is delegated to
+	 *
+	 * @param task
+	 *            : the delegated task
+	 * @param office
+	 *            : the office executing the task
+	 */
+	void addDelegation(Task task, BranchOffice office) {
+		executors.put(task, office);
+	}
+
+	/**
+	 * Forgets the delegation of the given task to the given office
+	 *
+	 * @param task
+	 *            : the delegated task
+	 * @param office
+	 *            : the office the task was delegated to
+	 */
+	void removeDelegation(Task task, BranchOffice office) {
+		executors.remove(task, office);
+	}
+
+	/**
+	 * Checks whether the given task is delegated to some office
+	 *
+	 * @param task
+	 *            : the task
+	 * @return true if the task is delegated
+	 */
+	boolean isDelegated(Task task) {
+		return executors.containsKey(task);
+	}
+
+	/**
+	 * Returns the office owning the given project
+	 *
+	 * @param project
+	 *            : the project
+	 * @return the owning office or null if no office owns the project
+	 */
+	BranchOffice getOwner(Project project) {
+		return projectOwners.get(project);
+	}
+
+	/**
+	 * Returns the project of the given task
+	 *
+	 * @param task
+	 *            : the task
+	 * @return the project of the task or null if the task is not registered
+	 */
+	Project getProject(Task task) {
+		return taskProjects.get(task);
+	}
+
+	/**
+	 * Returns the office owning the project of the given task
+	 *
+	 * @param task
+	 *            : the task
+	 * @return the owning office or null if no office owns the task
+	 */
+	BranchOffice getOwner(Task task) {
+		Project project = taskProjects.get(task);
+		return project == null ? null : projectOwners.get(project);
+	}
+
+	/**
+	 * Returns the office executing the given task: the office it is delegated
+	 * to, or else the office owning it
+	 *
+	 * @param task
+	 *            : the task
+	 * @return the executing office or null if no office owns the task
+	 */
+	BranchOffice getExecutor(Task task) {
+		BranchOffice executor = executors.get(task);
+		return executor != null ? executor : getOwner(task);
+	}
+
+	/**
+	 * Builds the registry again from the projects, tasks and delegations of
+	 * the given offices
+	 *
+	 * @param offices
+	 *            : all offices of the company
+	 */
+	void rebuild(Collection<BranchOffice> offices) {
+		projectOwners.clear();
+		taskProjects.clear();
+		executors.clear();
+		for (BranchOffice office : offices) {
+			for (Project project : office.getProjectExpert().getAllProjects()) {
+				projectOwners.put(project, office);
+				for (Task task : project.getAllTasks()) {
+					taskProjects.put(task, project);
+				}
+			}
+			for (Task task : office.getDelegatedTaskExpert()
+					.getAllDelegatedTasks()) {
+				executors.put(task, office);
+			}
+		}
+	}
+}
@@ -1,20 +1,23 @@
 package taskmanager;
 
-import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
 import com.google.common.collect.HashBiMap;
 
 import taskmanager.Planning.PlanningBuilder;
+import taskmanager.exception.ConflictingPlanningsException;
 import utility.TimeSpan;
 import utility.WorkDay;
-import utility.WorkTime;
 
 /**
  * 
@@ -26,9 +29,18 @@ import utility.WorkTime;
 public class Planner {
 	private static final int TOTAL_POSSIBLE_START_TIMES = 3;
 
-	private HashBiMap<Task, Planning> plannings = HashBiMap.create();
+	private final HashBiMap<Task, Planning> plannings = HashBiMap.create();
+	private final Map<Task, PlanningEntry> entries = new HashMap<Task, PlanningEntry>();
 
-	private Memento memento;
+	private BookingIndex<Developer> developerBookings = new BookingIndex<Developer>();
+	private BookingIndex<Resource> resourceBookings = new BookingIndex<Resource>();
+	private final Occupancy<Developer> developerOccupancy;
+	private final Occupancy<Resource> resourceOccupancy;
+
+	private StartTimeSearch startTimeSearch = StartTimeSearch.HOURLY;
+	private final StartTimeCache startTimeCache = new StartTimeCache();
+
+	private final SnapshotJournal journal = new SnapshotJournal();
 
 	private final ImmutableClock clock;
 
@@ -40,6 +52,10 @@ public class Planner {
 	 */
 	Planner(ImmutableClock clock) {
 		this.clock = clock;
+		this.developerOccupancy = new Occupancy<Developer>(
+				clock.getCurrentTime(), developerBookings);
+		this.resourceOccupancy = new Occupancy<Resource>(
+				clock.getCurrentTime(), resourceBookings);
 	}
 
 	/**
@@ -63,26 +79,72 @@ public class Planner {
 
 	/**
 	 * returns 3 times at which a task could be planned so that all required
-	 * developers and resources are available
+	 * developers and resources are available. The start times are remembered
+	 * until a planning of one of the developers or of a resource the task can
+	 * use changes.
 	 * 
 	 * @return A set of localdateTimes
 	 */
 	Set<LocalDateTime> getPossibleStartTimes(Task task,
 			LocalDateTime startTime, Set<Developer> developers) {
+		Set<LocalDateTime> possibleStartTimes = startTimeCache.get(task,
+				startTime, developers);
+		if (possibleStartTimes == null) {
+			possibleStartTimes = startTimeSearch.search(this, task,
+					startTime, developers, TOTAL_POSSIBLE_START_TIMES);
+			startTimeCache.put(task, startTime, developers,
+					possibleStartTimes);
+		}
+		return new LinkedHashSet<LocalDateTime>(possibleStartTimes);
+	}
 
-		Set<LocalDateTime> possibleStartTimes = new LinkedHashSet<LocalDateTime>();
+	/**
+	 * Forgets the remembered possible start times that depend on the given
+	 * planning. This is done by the planner for the plannings it indexes, and
+	 * by a planning of which the end time changes.
+	 * 
+	 * @param planning
+	 *            : the planning that changes
+	 */
+	void forgetPossibleStartTimes(Planning planning) {
+		startTimeCache.forget(planning);
+	}
 
-		LocalDateTime time = startTime;
+	/**
+	 * Returns the start time cache of the planner
+	 * 
+	 * @return startTimeCache : the remembered possible start times
+	 */
+	StartTimeCache getStartTimeCache() {
+		return startTimeCache;
+	}
 
-		while (possibleStartTimes.size() < TOTAL_POSSIBLE_START_TIMES
-				&& time.isBefore(startTime.plusYears(1))) {
-			TimeSpan timeSpan = new TimeSpan(time, task.getDuration());
-			if (isPlannableForTimeSpan(task, developers, timeSpan)) {
-				possibleStartTimes.add(timeSpan.getBegin());
-			}
-			time = WorkTime.getFinishTime(time, Duration.ofHours(1));
+	/**
+	 * Sets the strategy used to search the possible start times of a task.
+	 * The remembered start times are forgotten when the strategy changes, so
+	 * the next queries are searched with the new strategy.
+	 * 
+	 * @param startTimeSearch
+	 *            : the new search strategy
+	 */
+	public void setStartTimeSearch(StartTimeSearch startTimeSearch) {
+		if (startTimeSearch == null) {
+			throw new IllegalArgumentException(
+					"The start time search can not be null");
 		}
-		return possibleStartTimes;
+		if (startTimeSearch != this.startTimeSearch) {
+			startTimeCache.clear();
+		}
+		this.startTimeSearch = startTimeSearch;
+	}
+
+	/**
+	 * Returns the strategy used to search the possible start times of a task
+	 * 
+	 * @return startTimeSearch : the search strategy
+	 */
+	public StartTimeSearch getStartTimeSearch() {
+		return startTimeSearch;
 	}
 
 	/**
@@ -189,11 +251,18 @@ public class Planner {
 	 * @param planning
 	 */
 	void removePlanning(Planning planning) {
-		plannings.inverse().remove(planning);
+		if (plannings.containsValue(planning)) {
+			touch(plannings.inverse().get(planning));
+			plannings.inverse().remove(planning);
+			unindex(planning);
+		}
 	}
 
 	void removePlanning(Task task) {
-		plannings.remove(task);
+		if (plannings.containsKey(task)) {
+			touch(task);
+			unindex(plannings.remove(task));
+		}
 	}
 
 	/**
@@ -315,19 +384,9 @@ public class Planner {
 	 * @return true if the given resource is not yet in another planning
 	 */
 	boolean isAvailableFor(Resource resource, Task task, TimeSpan timeSpan) {
-		Set<Planning> otherPlannings = new LinkedHashSet<Planning>(
-				this.getAllPlannings());
-		if (this.taskHasPlanning(task)) {
-			otherPlannings.remove(this.plannings.get(task));
-		}
-		for (Planning otherPlanning : otherPlannings) {
-			if (otherPlanning.getResources().contains(resource)) {
-				if (timeSpan.overlaps(otherPlanning.getTimeSpan())) {
-					return false;
-				}
-			}
-		}
-		return true;
+		return resourceOccupancy.isFree(resource, timeSpan)
+				|| !resourceBookings.isBooked(resource, timeSpan,
+						this.plannings.get(task));
 	}
 
 	/**
@@ -367,19 +426,48 @@ public class Planner {
 	 *         during the given time span
 	 */
 	boolean isAvailableFor(Developer developer, Task task, TimeSpan timeSpan) {
-		Set<Planning> otherPlanings = new LinkedHashSet<Planning>(
-				this.getAllPlannings());
-		if (this.taskHasPlanning(task)) {
-			otherPlanings.remove(this.plannings.get(task));
-		}
-		for (Planning otherPlanning : otherPlanings) {
-			if (otherPlanning.getDevelopers().contains(developer)) {
-				if (timeSpan.overlaps(otherPlanning.getTimeSpan())) {
-					return false;
-				}
-			}
-		}
-		return true;
+		return developerOccupancy.isFree(developer, timeSpan)
+				|| !developerBookings.isBooked(developer, timeSpan,
+						this.plannings.get(task));
+	}
+
+	/**
+	 * Returns the time at which the last planning of the developer that
+	 * overlaps with the given time span ends. The planning of the given task
+	 * is not taken into account.
+	 * 
+	 * @param developer
+	 *            : given developer
+	 * @param task
+	 *            : given task
+	 * @param timeSpan
+	 *            : given time span
+	 * @return the end of the last overlapping planning or null if the
+	 *         developer is available
+	 */
+	LocalDateTime getBookingEnd(Developer developer, Task task,
+			TimeSpan timeSpan) {
+		return developerBookings.getLatestEnd(developer, timeSpan,
+				this.plannings.get(task));
+	}
+
+	/**
+	 * Returns the time at which the last planning of the resource that
+	 * overlaps with the given time span ends. The planning of the given task
+	 * is not taken into account.
+	 * 
+	 * @param resource
+	 *            : given resource
+	 * @param task
+	 *            : given task
+	 * @param timeSpan
+	 *            : given time span
+	 * @return the end of the last overlapping planning or null if the
+	 *         resource is available
+	 */
+	LocalDateTime getBookingEnd(Resource resource, Task task, TimeSpan timeSpan) {
+		return resourceBookings.getLatestEnd(resource, timeSpan,
+				this.plannings.get(task));
 	}
 
 	/**
@@ -469,7 +557,248 @@ public class Planner {
 			throw new IllegalArgumentException(
 					"The given planning is already in the planningExpert.");
 		} else {
+			touch(task);
 			this.plannings.put(task, planning);
+			index(planning);
+		}
+	}
+
+	/**
+	 * Adds plannings that are restored from a snapshot and indexes them at
+	 * once
+	 * 
+	 * @param restored
+	 *            : the restored plannings of the tasks
+	 */
+	void addRestoredPlannings(Map<Task, Planning> restored) {
+		for (Task task : restored.keySet()) {
+			touch(task);
+		}
+		this.plannings.putAll(restored);
+		reindex();
+	}
+
+	/**
+	 * Adds the plannings of a batch of builders. All plannings are checked at
+	 * once: the bookings of every developer and resource of the batch are
+	 * sorted on their begin and swept once, comparing every booking only with
+	 * the bookings that have not ended when it begins. A planning of a task of
+	 * the batch that is already planned replaces the old planning.
+	 * 
+	 * @param builders
+	 *            : the builders of the plannings
+	 * @return the plannings, in the order of the builders
+	 * @throws ConflictingPlanningsException
+	 *             : thrown with every conflict of the batch when plannings
+	 *             conflict, no planning is added then
+	 * @throws IllegalArgumentException
+	 *             : thrown when a task is planned twice in the batch
+	 */
+	List<Planning> addPlannings(List<PlanningBuilder> builders) {
+		Map<Task, PlanningBuilder> batch = new LinkedHashMap<Task, PlanningBuilder>();
+		Map<Developer, List<Booking>> developers = new LinkedHashMap<Developer, List<Booking>>();
+		Map<Resource, List<Booking>> resources = new LinkedHashMap<Resource, List<Booking>>();
+		for (PlanningBuilder builder : builders) {
+			if (batch.put(builder.getTask(), builder) != null) {
+				throw new IllegalArgumentException(
+						"A task can only be planned once in a batch");
+			}
+			Booking booking = new Booking(builder.getTask(),
+					builder.getTimeSpan(), true);
+			for (Developer developer : builder.getDevelopers()) {
+				addBooking(developers, developer, booking);
+			}
+			for (Resource resource : builder.getResources()) {
+				addBooking(resources, resource, booking);
+			}
+		}
+
+		Map<Task, Set<Task>> conflicts = new LinkedHashMap<Task, Set<Task>>();
+		sweep(developers, developerBookings, batch, conflicts);
+		sweep(resources, resourceBookings, batch, conflicts);
+		if (!conflicts.isEmpty()) {
+			throw new ConflictingPlanningsException(conflicts);
+		}
+
+		List<Planning> added = new ArrayList<Planning>();
+		for (Map.Entry<Task, PlanningBuilder> entry : batch.entrySet()) {
+			touch(entry.getKey());
+			if (taskHasPlanning(entry.getKey())) {
+				removePlanning(entry.getKey());
+			}
+			Planning planning = new Planning(entry.getValue());
+			this.plannings.put(entry.getKey(), planning);
+			index(planning);
+			added.add(planning);
+		}
+		for (Task task : batch.keySet()) {
+			updateStatus(task);
+		}
+		return added;
+	}
+
+	private static <K> void addBooking(Map<K, List<Booking>> bookings, K key,
+			Booking booking) {
+		List<Booking> bookingsOfKey = bookings.get(key);
+		if (bookingsOfKey == null) {
+			bookingsOfKey = new ArrayList<Booking>();
+			bookings.put(key, bookingsOfKey);
+		}
+		bookingsOfKey.add(booking);
+	}
+
+	/**
+	 * Finds the conflicts of the batch bookings of every key with each other
+	 * and with the plannings of the key in the index. The plannings of tasks
+	 * of the batch are left out, they are replaced.
+	 */
+	private <K> void sweep(Map<K, List<Booking>> batchBookings,
+			BookingIndex<K> index, Map<Task, PlanningBuilder> batch,
+			Map<Task, Set<Task>> conflicts) {
+		for (Map.Entry<K, List<Booking>> entry : batchBookings.entrySet()) {
+			List<Booking> bookings = new ArrayList<Booking>(entry.getValue());
+			LocalDateTime begin = null;
+			LocalDateTime end = null;
+			for (Booking booking : bookings) {
+				if (begin == null || booking.timeSpan.getBegin().isBefore(begin)) {
+					begin = booking.timeSpan.getBegin();
+				}
+				if (end == null || booking.timeSpan.getEnd().isAfter(end)) {
+					end = booking.timeSpan.getEnd();
+				}
+			}
+			for (Planning planning : index.getOverlapping(entry.getKey(),
+					new TimeSpan(begin, end))) {
+				Task task = getTask(planning);
+				if (!batch.containsKey(task)) {
+					bookings.add(new Booking(task, planning.getTimeSpan(), false));
+				}
+			}
+
+			Collections.sort(bookings);
+			List<Booking> active = new ArrayList<Booking>();
+			for (Booking booking : bookings) {
+				Iterator<Booking> iterator = active.iterator();
+				while (iterator.hasNext()) {
+					Booking other = iterator.next();
+					if (!other.timeSpan.getEnd().isAfter(
+							booking.timeSpan.getBegin())) {
+						iterator.remove();
+					} else if ((booking.inBatch || other.inBatch)
+							&& booking.timeSpan.overlaps(other.timeSpan)) {
+						addConflict(conflicts, booking, other);
+						addConflict(conflicts, other, booking);
+					}
+				}
+				active.add(booking);
+			}
+		}
+	}
+
+	private static void addConflict(Map<Task, Set<Task>> conflicts,
+			Booking booking, Booking other) {
+		if (booking.inBatch) {
+			Set<Task> conflicting = conflicts.get(booking.task);
+			if (conflicting == null) {
+				conflicting = new LinkedHashSet<Task>();
+				conflicts.put(booking.task, conflicting);
+			}
+			conflicting.add(other.task);
+		}
+	}
+
+	/**
+	 * A booking of a developer or resource by a task, which is either a
+	 * planning of the batch or a planning of the planner
+	 */
+	private static class Booking implements Comparable<Booking> {
+		private final Task task;
+		private final TimeSpan timeSpan;
+		private final boolean inBatch;
+
+		private Booking(Task task, TimeSpan timeSpan, boolean inBatch) {
+			this.task = task;
+			this.timeSpan = timeSpan;
+			this.inBatch = inBatch;
+		}
+
+		@Override
+		public int compareTo(Booking other) {
+			return timeSpan.getBegin().compareTo(other.timeSpan.getBegin());
+		}
+	}
+
+	/**
+	 * Adds the developers and resources of the given planning to the booking
+	 * indexes. The possible start times that depend on the planning are
+	 * forgotten.
+	 * 
+	 * @param planning
+	 *            : planning of this planner
+	 */
+	private void index(Planning planning) {
+		startTimeCache.forget(planning);
+		for (Developer developer : planning.getDevelopers()) {
+			developerBookings.add(developer, planning);
+			developerOccupancy.add(developer, planning);
+		}
+		for (Resource resource : planning.getResources()) {
+			resourceBookings.add(resource, planning);
+			resourceOccupancy.add(resource, planning);
+		}
+	}
+
+	/**
+	 * Removes the developers and resources of the given planning from the
+	 * booking indexes. The possible start times that depend on the planning are
+	 * forgotten.
+	 * 
+	 * @param planning
+	 *            : planning of this planner
+	 */
+	private void unindex(Planning planning) {
+		startTimeCache.forget(planning);
+		for (Developer developer : planning.getDevelopers()) {
+			developerBookings.remove(developer, planning);
+			developerOccupancy.remove(developer, planning);
+		}
+		for (Resource resource : planning.getResources()) {
+			resourceBookings.remove(resource, planning);
+			resourceOccupancy.remove(resource, planning);
+		}
+	}
+
+	/**
+	 * Rebuilds the booking indexes from the current plannings
+	 */
+	void reindex() {
+		startTimeCache.clear();
+		developerBookings.clear();
+		resourceBookings.clear();
+		developerOccupancy.clear();
+		resourceOccupancy.clear();
+		for (Planning planning : this.plannings.values()) {
+			index(planning);
+		}
+	}
+
+	/**
+	 * Replaces the time span of a planning of this planner and keeps the
+	 * booking indexes up to date
+	 * 
+	 * @param planning
+	 *            : planning of which the time span changes
+	 * @param timeSpan
+	 *            : the new time span
+	 */
+	void updateTimeSpan(Planning planning, TimeSpan timeSpan) {
+		boolean planned = this.plannings.containsValue(planning);
+		if (planned) {
+			unindex(planning);
+		}
+		planning.replaceTimeSpan(timeSpan);
+		if (planned) {
+			index(planning);
 		}
 	}
 
@@ -498,6 +827,35 @@ public class Planner {
 		return (!getAllPlannings().contains(planning) && planning != null);
 	}
 
+	/**
+	 * Returns the tasks with a planning that shares a developer or resource
+	 * with the planning of the given task. Only the status of these tasks can
+	 * change when the planning of the given task changes.
+	 * 
+	 * @param task
+	 *            : the task of which the planning changed
+	 * @return set of tasks booking the same developers or resources
+	 */
+	Set<Task> getTasksSharingBookings(Task task) {
+		Set<Task> tasks = new LinkedHashSet<Task>();
+		Planning planning = getPlanning(task);
+		if (planning == null) {
+			return tasks;
+		}
+		for (Developer developer : planning.getDevelopers()) {
+			for (Planning other : developerBookings.getBookings(developer)) {
+				tasks.add(getTask(other));
+			}
+		}
+		for (Resource resource : planning.getResources()) {
+			for (Planning other : resourceBookings.getBookings(resource)) {
+				tasks.add(getTask(other));
+			}
+		}
+		tasks.remove(task);
+		return tasks;
+	}
+
 	void updateStatus(Task task) {
 		if (task.getStatus() == TaskStatus.EXECUTING
 				|| task.getStatus() == TaskStatus.FINISHED
@@ -516,28 +874,71 @@ public class Planner {
 	}
 
 	/**
-	 * saves the current state of the memento
+	 * saves the current state of the planner and its plannings
 	 */
 	void save() {
-		this.memento = new Memento();
-		for (Planning planning : this.plannings.values()) {
-			planning.save();
-		}
+		journal.save();
 	}
 
 	/**
-	 * Loads the set of plannings to last saved state
+	 * Loads the set of plannings to last saved state. Only the plannings of
+	 * the tasks that were planned, replanned or unplanned since the save and
+	 * the plannings that changed since the save are restored and indexed
+	 * again.
 	 */
 	void load() {
-		if (this.memento == null) {
-			throw new IllegalStateException(
-					"You need to save before you can load");
-		} else {
-			this.memento.load();
-			for (Planning planning : this.plannings.values()) {
-				planning.load();
+		Set<Planning> changed = getChangedPlannings();
+		for (Planning planning : changed) {
+			unindex(planning);
+		}
+		journal.load();
+		for (Planning planning : getChangedPlannings()) {
+			index(planning);
+		}
+	}
+
+	/**
+	 * Returns the plannings of this planner that changed since the save, and
+	 * the current plannings of the tasks of which the planning was added,
+	 * replaced or removed since the save
+	 */
+	private Set<Planning> getChangedPlannings() {
+		Set<Planning> changed = new HashSet<Planning>();
+		for (Journaled touched : journal.getTouched()) {
+			if (touched instanceof PlanningEntry) {
+				Planning planning = this.plannings
+						.get(((PlanningEntry) touched).task);
+				if (planning != null) {
+					changed.add(planning);
+				}
+			} else if (touched instanceof Planning
+					&& this.plannings.containsValue(touched)) {
+				changed.add((Planning) touched);
 			}
 		}
+		return changed;
+	}
+
+	/**
+	 * Tells the journal that the planning of the given task is about to be
+	 * added, replaced or removed
+	 */
+	private void touch(Task task) {
+		PlanningEntry entry = entries.get(task);
+		if (entry == null) {
+			entry = new PlanningEntry(task);
+			entries.put(task, entry);
+		}
+		journal.touch(entry);
+	}
+
+	/**
+	 * Returns the journal that keeps the saved state of the plannings
+	 * 
+	 * @return journal : the snapshot journal of the planner
+	 */
+	SnapshotJournal getJournal() {
+		return journal;
 	}
 
 	/**
@@ -567,34 +968,52 @@ public class Planner {
 	}
 
 	/**
-	 * Memento inner class of the planner
+	 * The planning of one task of the planner. The journal keeps the entries
+	 * of the tasks instead of the whole set of plannings, so saving costs
+	 * nothing and loading only costs time for the tasks of which the planning
+	 * was added, replaced or removed since the save.
 	 * 
 	 * @author groep 8
 	 *
 	 */
-	private class Memento {
-		HashBiMap<Task, Planning> plannings;
+	private class PlanningEntry implements Journaled {
+		private final Task task;
+
+		private PlanningEntry(Task task) {
+			this.task = task;
+		}
 
 		/**
-		 * Constructor of the memento. It initializes the set of plannings in
-		 * the memento to the current set of planning of the given planner
-		 * 
-		 * 
-		 * @param pe
-		 *            : planner
+		 * Returns a memento of the current planning of the task
 		 */
-		public Memento() {
-			this.plannings = HashBiMap.create(Planner.this.plannings);
+		@Override
+		public Object saveState() {
+			return new Memento(plannings.get(task));
 		}
 
 		/**
-		 * Sets all the set of plannings back to saved state in the memento
-		 * 
-		 * @param pe
-		 *            : given planner
+		 * Sets the planning of the task back to the planning of the memento
 		 */
-		public void load() {
-			Planner.this.plannings = this.plannings;
+		@Override
+		public void loadState(Object memento) {
+			Planning planning = ((Memento) memento).planning;
+			if (planning == null) {
+				plannings.remove(task);
+			} else {
+				plannings.forcePut(task, planning);
+			}
+		}
+	}
+
+	/**
+	 * Memento of the planning of a task, the planning is null when the task
+	 * was not planned
+	 */
+	private static class Memento {
+		private final Planning planning;
+
+		private Memento(Planning planning) {
+			this.planning = planning;
 		}
 	}
 }
@@ -18,9 +18,9 @@ import utility.TimeSpan;
  * @author Groep 8
  *
  */
-public class Planning implements Visitable {
+public class Planning implements Visitable, Journaled {
 
-	private Memento memento;
+	private final Planner planner;
 	private TimeSpan timeSpan;
 	private Set<Developer> developers = new LinkedHashSet<Developer>();
 	private Set<Resource> resources = new HashSet<Resource>();
@@ -34,11 +34,24 @@ public class Planning implements Visitable {
 	 *            : planning builder with parameters
 	 */
 	Planning(PlanningBuilder planningBuilder) {
+		this.planner = planningBuilder.planner;
 		setDevelopers(planningBuilder.developers);
-		setTimeSpan(planningBuilder.timeSpan);
+		this.timeSpan = planningBuilder.timeSpan;
 		setResources(planningBuilder.resources);
 	}
 
+	/**
+	 * Constructor of a planning that is restored from a snapshot. The
+	 * availability of the developers and resources is not checked.
+	 */
+	Planning(Planner planner, TimeSpan timeSpan, Set<Developer> developers,
+			Set<Resource> resources) {
+		this.planner = planner;
+		this.timeSpan = timeSpan;
+		setDevelopers(developers);
+		setResources(resources);
+	}
+
 	/**
 	 * 
 	 * Returns a new planning builder to add extra parameters such as resources
@@ -114,6 +127,17 @@ public class Planning implements Visitable {
 	 *            the new timespan of the planning
 	 */
 	public void setTimeSpan(TimeSpan timeSpan) {
+		planner.updateTimeSpan(this, timeSpan);
+	}
+
+	/**
+	 * replaces the timespan of the planning without notifying the planner
+	 * 
+	 * @param timeSpan
+	 *            the new timespan of the planning
+	 */
+	void replaceTimeSpan(TimeSpan timeSpan) {
+		planner.getJournal().touch(this);
 		this.timeSpan = timeSpan;
 	}
 
@@ -129,28 +153,27 @@ public class Planning implements Visitable {
 					"given end time is before the start time");
 		}
 		if (endTime.isBefore(this.getTimeSpan().getEnd())) {
+			planner.getJournal().touch(this);
+			planner.forgetPossibleStartTimes(this);
 			this.getTimeSpan().setEnd(endTime);
 		}
 
 	}
 
 	/**
-	 * saves the current state of planning in the memento
+	 * Returns a memento of the current state of the planning
 	 */
-	void save() {
-		this.memento = new Memento();
+	@Override
+	public Object saveState() {
+		return new Memento();
 	}
 
 	/**
-	 * loads the last saved state of the planning from the memento
+	 * Sets the planning to the state of the given memento
 	 */
-	void load() {
-		if (this.memento == null) {
-			throw new IllegalStateException(
-					"You need to save before you can load");
-		} else {
-			this.memento.load();
-		}
+	@Override
+	public void loadState(Object memento) {
+		((Memento) memento).load();
 	}
 
 	/**
@@ -171,7 +194,8 @@ public class Planning implements Visitable {
 		 * @param planning
 		 */
 		public Memento() {
-			this.timeSpan = Planning.this.timeSpan;
+			this.timeSpan = new TimeSpan(Planning.this.timeSpan.getBegin(),
+					Planning.this.timeSpan.getEnd());
 			this.developers = new LinkedHashSet<Developer>(
 					Planning.this.developers);
 			this.resources = new LinkedHashSet<Resource>(
@@ -185,9 +209,11 @@ public class Planning implements Visitable {
 		 * @param planning
 		 */
 		public void load() {
-			Planning.this.timeSpan = this.timeSpan;
-			Planning.this.developers = this.developers;
-			Planning.this.resources = this.resources;
+			Planning.this.timeSpan = new TimeSpan(this.timeSpan.getBegin(),
+					this.timeSpan.getEnd());
+			Planning.this.developers = new LinkedHashSet<Developer>(
+					this.developers);
+			Planning.this.resources = new LinkedHashSet<Resource>(this.resources);
 		}
 	}
 
@@ -204,6 +230,7 @@ public class Planning implements Visitable {
 		private Task task;
 		private Set<Developer> developers;
 		private Set<Resource> resources;
+		private final boolean checked;
 
 		/**
 		 * Creates a PlanningBuilder with the required information for the
@@ -221,8 +248,20 @@ public class Planning implements Visitable {
 		 */
 		public PlanningBuilder(LocalDateTime startTime, Task task,
 				Developer developer, Planner planner) {
-			this.timeSpan = new TimeSpan(startTime, startTime.plus(task
-					.getDuration()));
+			this(new TimeSpan(startTime, startTime.plus(task.getDuration())),
+					task, developer, planner, true);
+		}
+
+		/**
+		 * Creates a PlanningBuilder for the given time span. The developers
+		 * and resources are only checked when they are added if checked is
+		 * true. A builder that is not checked is built by the planner with a
+		 * batch of plannings.
+		 */
+		PlanningBuilder(TimeSpan timeSpan, Task task, Developer developer,
+				Planner planner, boolean checked) {
+			this.checked = checked;
+			this.timeSpan = timeSpan;
 			this.task = task;
 			this.resources = new HashSet<Resource>();
 			this.planner = planner;
@@ -237,7 +276,7 @@ public class Planning implements Visitable {
 		 */
 		public PlanningBuilder addResources(Resource resource) {
 			this.resources.add(resource);
-			if (!planner.isAvailableFor(resource, task, timeSpan)) {
+			if (checked && !planner.isAvailableFor(resource, task, timeSpan)) {
 				Set<Task> conflictingPlannings = planner
 						.getConflictingTasksForBuilder(this);
 				throw new ConlictingPlanningException(conflictingPlannings,
@@ -265,7 +304,8 @@ public class Planning implements Visitable {
 		 */
 		public PlanningBuilder addDeveloper(Developer developer) {
 			this.developers.add(developer);
-			if (!planner.isAvailableFor(developer, task, timeSpan)) {
+			if (checked
+					&& !planner.isAvailableFor(developer, task, timeSpan)) {
 				Set<Task> conflictingPlannings = planner
 						.getConflictingTasksForBuilder(this);
 				throw new ConlictingPlanningException(conflictingPlannings,
@@ -301,10 +341,26 @@ public class Planning implements Visitable {
 			return this.developers;
 		}
 
+		/**
+		 * Returns the task that is being planned
+		 * 
+		 * @return task
+		 */
+		Task getTask() {
+			return this.task;
+		}
+
 		/**
 		 * Build a Planning after all the optional values have been set.
+		 * 
+		 * @throws IllegalStateException
+		 *             : thrown when the builder belongs to a batch
 		 */
 		public Planning build() {
+			if (!checked) {
+				throw new IllegalStateException(
+						"The planning is built by its batch");
+			}
 			if (planner.isAvailableForDevelopers(developers, task, timeSpan)
 					&& planner.isAvailableForResources(resources, task,
 							timeSpan)) {
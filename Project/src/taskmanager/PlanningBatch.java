@@ -0,0 +1,97 @@
+package taskmanager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import taskmanager.Planning.PlanningBuilder;
+import taskmanager.exception.ConflictingPlanningsException;
+import utility.TimeSpan;
+
+/**
+ * A planning batch collects the plannings of many tasks and builds them at
+ * once. The developers and resources of the plannings are not checked while
+ * they are added, all the plannings are checked together when the batch is
+ * built. Either all plannings of the batch are added to the planner or none.
+ *
+ * @author Groep 8
+ */
+public class PlanningBatch {
+
+	private final Planner planner;
+	private final List<PlanningBuilder> builders = new ArrayList<PlanningBuilder>();
+
+	/**
+	 * Creates an empty batch of plannings for the given planner
+	 *
+	 * @param planner
+	 *            : the planner the plannings are added to
+	 */
+	PlanningBatch(Planner planner) {
+		this.planner = planner;
+	}
+
+	/**
+	 * Starts a planning of the batch. The returned builder is used to add the
+	 * other developers and resources, it can not be built on its own.
+	 *
+	 * @param startTime
+	 *            : planned start time
+	 * @param task
+	 *            : task that is being planned
+	 * @param developer
+	 *            : assigned developer
+	 * @return the builder of the planning
+	 */
+	public PlanningBuilder add(LocalDateTime startTime, Task task,
+			Developer developer) {
+		return add(new TimeSpan(startTime, startTime.plus(task.getDuration())),
+				task, developer);
+	}
+
+	/**
+	 * Starts a planning of the batch for the given time span, like the time
+	 * span of a task that has already been executed
+	 *
+	 * @param timeSpan
+	 *            : planned time span
+	 * @param task
+	 *            : task that is being planned
+	 * @param developer
+	 *            : assigned developer
+	 * @return the builder of the planning
+	 */
+	public PlanningBuilder add(TimeSpan timeSpan, Task task,
+			Developer developer) {
+		PlanningBuilder builder = new PlanningBuilder(timeSpan, task,
+				developer, planner, false);
+		builders.add(builder);
+		return builder;
+	}
+
+	/**
+	 * Returns the amount of plannings in the batch
+	 *
+	 * @return size : the amount of plannings
+	 */
+	public int size() {
+		return builders.size();
+	}
+
+	/**
+	 * Builds all plannings of the batch and empties the batch
+	 *
+	 * @return the plannings, in the order they were added
+	 * @throws ConflictingPlanningsException
+	 *             : thrown when plannings of the batch conflict with each
+	 *             other or with the plannings of the planner, nothing is
+	 *             added then
+	 * @throws IllegalArgumentException
+	 *             : thrown when a task is planned twice in the batch
+	 */
+	public List<Planning> build() {
+		List<Planning> plannings = planner.addPlannings(builders);
+		builders.clear();
+		return plannings;
+	}
+}
@@ -5,6 +5,7 @@ import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Set;
 
 import edu.umd.cs.findbugs.annotations.NonNull;
@@ -30,7 +31,7 @@ import utility.WorkTime;
  * 
  */
 
-public class Project implements Visitable {
+public class Project implements Visitable, Journaled {
 
 	private Set<Task> tasks;
 	private String name;
@@ -38,8 +39,10 @@ public class Project implements Visitable {
 	private final LocalDateTime creationTime;
 	private LocalDateTime dueTime;
 	private final ImmutableClock clock;
+	private final DependencyIndex dependencyIndex = new DependencyIndex(this);
 
-	private Memento memento;
+	private SnapshotJournal journal;
+	private OwnershipRegistry registry;
 
 	/**
 	 * Constructor of the Project class: Sets a new list of tasks
@@ -77,8 +80,36 @@ public class Project implements Visitable {
 			throw new IllegalArgumentException(
 					"The given task is already in this project.");
 		} else {
+			if (journal != null) {
+				journal.touch(this);
+			}
+			this.tasks.add(task);
+			task.setJournal(journal);
+			task.setDependencyIndex(dependencyIndex);
+			dependencyIndex.add(task);
+			if (registry != null) {
+				registry.addTask(task, this);
+			}
+		}
+	}
+
+	/**
+	 * Adds tasks that are restored from a snapshot to the project. The
+	 * dependency index is built when it is used.
+	 * 
+	 * @param tasks
+	 *            : the restored tasks of the project
+	 */
+	void addRestoredTasks(List<Task> tasks) {
+		for (Task task : tasks) {
 			this.tasks.add(task);
+			task.setJournal(journal);
+			task.setDependencyIndex(dependencyIndex);
+			if (registry != null) {
+				registry.addTask(task, this);
+			}
 		}
+		dependencyIndex.invalidate();
 	}
 
 	/**
@@ -89,8 +120,12 @@ public class Project implements Visitable {
 	 * @param originalTask
 	 */
 	void updateDependencies(Task alternativeTask, Task originalTask) {
-		for (Task task : getAllTasks()) {
-			if (task.getDependencies().contains(originalTask)) {
+		if (originalTask == null) {
+			return;
+		}
+		// only the dependents of the original task depend on it
+		for (Task task : new ArrayList<Task>(originalTask.getDependents())) {
+			if (tasks.contains(task)) {
 				task.addDependency(alternativeTask);
 				task.removeDependency(originalTask);
 			}
@@ -173,7 +208,7 @@ public class Project implements Visitable {
 		for (Task task : getAllTasks()) {
 			LocalDateTime taskFinishTime = task.getEstimatedFinishTime();
 			if (taskFinishTime.isAfter(estimatedFinishTime)) {
-				estimatedFinishTime = task.getEstimatedFinishTime();
+				estimatedFinishTime = taskFinishTime;
 			}
 		}
 		if (this.getStatus() != ProjectStatus.FINISHED
@@ -183,6 +218,19 @@ public class Project implements Visitable {
 		return estimatedFinishTime;
 	}
 
+	/**
+	 * Analyses the dependencies of the tasks of the project at the current
+	 * time, giving the earliest and latest start, the slack and the critical
+	 * path of the tasks
+	 * 
+	 * @return the critical path analysis of the project
+	 * @throws IllegalArgumentException
+	 *             : thrown when the project has no tasks
+	 */
+	public CriticalPathAnalysis getCriticalPathAnalysis() {
+		return new CriticalPathAnalysis(this, this.clock.getCurrentTime());
+	}
+
 	/**
 	 * Returns the currently expected delay of the project
 	 * 
@@ -200,18 +248,16 @@ public class Project implements Visitable {
 			throw new IllegalStateException(
 					"Can not ask the current delay of a task which is expected to finish on time");
 
-		// Get any Task
-		Task latestFinishingTask = new ArrayList<Task>(getAllTasks()).get(0);
-
+		LocalDateTime latestFinishTime = null;
 		for (Task task : getAllTasks()) {
-			if (task.getEstimatedFinishTime().isAfter(
-					latestFinishingTask.getEstimatedFinishTime())) {
-				latestFinishingTask = task;
+			LocalDateTime taskFinishTime = task.getEstimatedFinishTime();
+			if (latestFinishTime == null
+					|| taskFinishTime.isAfter(latestFinishTime)) {
+				latestFinishTime = taskFinishTime;
 			}
 		}
 
-		return WorkTime.durationBetween(dueTime,
-				latestFinishingTask.getEstimatedFinishTime());
+		return WorkTime.durationBetween(dueTime, latestFinishTime);
 	}
 
 	/**
@@ -304,29 +350,39 @@ public class Project implements Visitable {
 	}
 
 	/**
-	 * Saves the current state of the project
+	 * Sets the journal that keeps the saved state of the project and its tasks
+	 * 
+	 * @param journal
+	 *            : the journal of the project expert
 	 */
-	public void save() {
-		this.memento = new Memento();
-		for (Task task : this.tasks) {
-			task.save();
-		}
+	void setJournal(SnapshotJournal journal) {
+		this.journal = journal;
 	}
 
 	/**
-	 * loads the last saved state of the project
+	 * Sets the registry the tasks of the project are added to
 	 * 
+	 * @param registry
+	 *            : the ownership registry of the company
 	 */
-	void load() {
-		if (this.memento == null) {
-			throw new IllegalStateException(
-					"You need to save before you can load");
-		} else {
-			this.memento.load();
-			for (Task task : this.tasks) {
-				task.load();
-			}
-		}
+	void setOwnershipRegistry(OwnershipRegistry registry) {
+		this.registry = registry;
+	}
+
+	/**
+	 * Returns a memento of the current state of the project
+	 */
+	@Override
+	public Object saveState() {
+		return new Memento();
+	}
+
+	/**
+	 * Sets the project to the state of the given memento
+	 */
+	@Override
+	public void loadState(Object memento) {
+		((Memento) memento).load();
 	}
 
 	/**
@@ -363,10 +419,18 @@ public class Project implements Visitable {
 		 * @param project
 		 */
 		public void load() {
-			Project.this.tasks = this.tasks;
+			if (registry != null) {
+				for (Task task : Project.this.tasks) {
+					if (!this.tasks.contains(task)) {
+						registry.removeTask(task, Project.this);
+					}
+				}
+			}
+			Project.this.tasks = new LinkedHashSet<Task>(this.tasks);
 			Project.this.name = this.name;
 			Project.this.description = this.description;
 			Project.this.dueTime = this.dueTime;
+			Project.this.dependencyIndex.invalidate();
 		}
 	}
 
@@ -16,22 +16,32 @@ import edu.umd.cs.findbugs.annotations.NonNull;
  * @author Groep 8
  */
 
-public class ProjectExpert {
+public class ProjectExpert implements Journaled {
 
 	private Set<Project> projects;
 
-	private Memento memento;
+	private final SnapshotJournal journal = new SnapshotJournal();
 	
 	private final ImmutableClock clock;
 
+	private final BranchOffice office;
+	private final OwnershipRegistry registry;
+
 	/**
 	 * The constructor of the projectController needs a date time.
 	 * 
 	 * @param now
 	 *            : the time at which the ProjectController is created
+	 * @param office
+	 *            : the office owning the projects
+	 * @param registry
+	 *            : the registry the projects and their tasks are added to
 	 */
-	ProjectExpert(ImmutableClock clock) {
+	ProjectExpert(ImmutableClock clock, BranchOffice office,
+			OwnershipRegistry registry) {
 		this.clock = clock;
+		this.office = office;
+		this.registry = registry;
 		projects = new LinkedHashSet<>();
 
 	}
@@ -71,7 +81,11 @@ public class ProjectExpert {
 			throw new IllegalArgumentException(
 					"The given project is already in this project.");
 		} else {
+			journal.touch(this);
 			projects.add(project);
+			project.setJournal(journal);
+			project.setOwnershipRegistry(registry);
+			registry.addProject(project, office);
 		}
 	}
 
@@ -101,27 +115,40 @@ public class ProjectExpert {
 	 * Saves the current state of the project expert
 	 */
 	void save() {
-		this.memento = new Memento();
-		for (Project project : this.projects) {
-			project.save();
-		}
+		journal.save();
 	}
 
 	/**
-	 * Loads the last saved state
-	 * 
-	 * @return last state of project expert
+	 * Loads the last saved state of the project expert and of the projects and
+	 * tasks that changed since the save
 	 */
 	void load() {
-		if (this.memento == null) {
-			throw new IllegalStateException(
-					"You need to save before you can load");
-		} else {
-			this.memento.load();
-			for (Project project : this.projects) {
-				project.load();
-			}
-		}
+		journal.load();
+	}
+
+	/**
+	 * Returns the journal that keeps the saved state of the projects
+	 * 
+	 * @return journal : the snapshot journal of the project expert
+	 */
+	SnapshotJournal getJournal() {
+		return journal;
+	}
+
+	/**
+	 * Returns a memento of the current state of the project expert
+	 */
+	@Override
+	public Object saveState() {
+		return new Memento();
+	}
+
+	/**
+	 * Sets the project expert to the state of the given memento
+	 */
+	@Override
+	public void loadState(Object memento) {
+		((Memento) memento).load();
 	}
 
 	/**
@@ -154,7 +181,13 @@ public class ProjectExpert {
 		 *            : projectExpert
 		 */
 		public void load() {
-			ProjectExpert.this.projects = this.projects;
+			for (Project project : ProjectExpert.this.projects) {
+				if (!this.projects.contains(project)) {
+					registry.removeProject(project);
+				}
+			}
+			ProjectExpert.this.projects = new LinkedHashSet<Project>(
+					this.projects);
 		}
 	}
 
@@ -0,0 +1,298 @@
+package taskmanager;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The resource constraints are the compiled required and conflicting relations
+ * between the resource types of one resource expert. Every resource type gets
+ * a dense id and bitsets with the ids of its directly required and conflicting
+ * types and of all the types it requires or conflicts with transitively. The
+ * constraints of a set of resource types can then be checked with a few
+ * bitwise operations instead of scanning the relations of every type.
+ *
+ * A resource type added with its relations, as the builder does, only needs
+ * the union of the closures of the types it refers to. Other changes mark the
+ * table as outdated and it is compiled again the next time it is used.
+ *
+ * Resource types with a relation, direct or transitive, to a type of an other
+ * resource expert are open: the table does not know all their relations and
+ * they have to be checked by following the relations.
+ *
+ * @author Groep 8
+ */
+class ResourceConstraints {
+
+	private final ResourceExpert resourceExpert;
+	private Map<ResourceType, Integer> ids = new HashMap<ResourceType, Integer>();
+	private List<BitSet> required = new ArrayList<BitSet>();
+	private List<BitSet> conflicted = new ArrayList<BitSet>();
+	private List<BitSet> requiredClosures = new ArrayList<BitSet>();
+	private List<BitSet> conflictedClosures = new ArrayList<BitSet>();
+	private BitSet open = new BitSet();
+	private boolean outdated = false;
+
+	/**
+	 * Creates the constraint table of the given resource expert
+	 *
+	 * @param resourceExpert
+	 *            : the resource expert of which the types are compiled
+	 */
+	ResourceConstraints(ResourceExpert resourceExpert) {
+		this.resourceExpert = resourceExpert;
+	}
+
+	/**
+	 * Adds a resource type together with its current relations
+	 *
+	 * @param resourceType
+	 *            : a new type of the resource expert that no other type refers
+	 *            to
+	 */
+	void add(ResourceType resourceType) {
+		if (outdated || ids.containsKey(resourceType)) {
+			return;
+		}
+		int id = ids.size();
+		ids.put(resourceType, id);
+		required.add(new BitSet());
+		conflicted.add(new BitSet());
+		requiredClosures.add(new BitSet());
+		conflictedClosures.add(new BitSet());
+		for (ResourceType other : resourceType.getRequiredResourceTypes()) {
+			include(id, other, required, requiredClosures);
+		}
+		for (ResourceType other : resourceType.getConflictedResourceTypes()) {
+			include(id, other, conflicted, conflictedClosures);
+		}
+	}
+
+	/**
+	 * Marks the table as outdated, it will be compiled again when it is used
+	 */
+	void invalidate() {
+		outdated = true;
+	}
+
+	/**
+	 * Checks whether all relations of the given resource type are known to the
+	 * table
+	 *
+	 * @param resourceType
+	 *            : the resource type to check
+	 * @return true if the type belongs to the resource expert and is not open
+	 */
+	boolean isClosed(ResourceType resourceType) {
+		update();
+		Integer id = ids.get(resourceType);
+		return id != null && !open.get(id);
+	}
+
+	/**
+	 * Checks whether all the given resource types are closed
+	 *
+	 * @param resourceTypes
+	 *            : the resource types to check
+	 * @return true if the table knows all relations of the types
+	 */
+	boolean isClosed(Collection<ResourceType> resourceTypes) {
+		for (ResourceType resourceType : resourceTypes) {
+			if (!isClosed(resourceType)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Checks whether the given closed resource type transitively requires the
+	 * other resource type
+	 *
+	 * @param resourceType
+	 *            : a closed resource type
+	 * @param other
+	 *            : the possibly required resource type
+	 * @return true if the type requires the other type
+	 */
+	boolean requires(ResourceType resourceType, ResourceType other) {
+		return reaches(true, resourceType, other);
+	}
+
+	/**
+	 * Checks whether the given closed resource type transitively conflicts
+	 * with the other resource type
+	 *
+	 * @param resourceType
+	 *            : a closed resource type
+	 * @param other
+	 *            : the possibly conflicting resource type
+	 * @return true if the type conflicts with the other type
+	 */
+	boolean conflicts(ResourceType resourceType, ResourceType other) {
+		return reaches(false, resourceType, other);
+	}
+
+	/**
+	 * Returns the first of the given closed resource types that directly
+	 * requires a type that is not one of the given types
+	 *
+	 * @param resourceTypes
+	 *            : closed resource types
+	 * @return the first type with a missing required type, or null
+	 */
+	ResourceType findMissingRequired(Collection<ResourceType> resourceTypes) {
+		BitSet present = idsOf(resourceTypes);
+		for (ResourceType resourceType : resourceTypes) {
+			BitSet missing = (BitSet) required.get(ids.get(resourceType))
+					.clone();
+			missing.andNot(present);
+			if (!missing.isEmpty()) {
+				return resourceType;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Returns the first of the given closed resource types that directly
+	 * conflicts with one of the given types
+	 *
+	 * @param resourceTypes
+	 *            : closed resource types
+	 * @return the first type with a conflicting type, or null
+	 */
+	ResourceType findConflicting(Collection<ResourceType> resourceTypes) {
+		BitSet present = idsOf(resourceTypes);
+		for (ResourceType resourceType : resourceTypes) {
+			if (conflicted.get(ids.get(resourceType)).intersects(present)) {
+				return resourceType;
+			}
+		}
+		return null;
+	}
+
+	private BitSet idsOf(Collection<ResourceType> resourceTypes) {
+		update();
+		BitSet present = new BitSet(ids.size());
+		for (ResourceType resourceType : resourceTypes) {
+			present.set(ids.get(resourceType));
+		}
+		return present;
+	}
+
+	private boolean reaches(boolean requiredRelation,
+			ResourceType resourceType, ResourceType other) {
+		update();
+		List<BitSet> closures = requiredRelation ? requiredClosures
+				: conflictedClosures;
+		Integer otherId = ids.get(other);
+		return otherId != null
+				&& closures.get(ids.get(resourceType)).get(otherId);
+	}
+
+	/**
+	 * Adds a relation of the type with the given id to the other type
+	 */
+	private void include(int id, ResourceType other, List<BitSet> direct,
+			List<BitSet> closures) {
+		Integer otherId = ids.get(other);
+		if (otherId == null) {
+			open.set(id);
+			return;
+		}
+		direct.get(id).set(otherId);
+		closures.get(id).set(otherId);
+		closures.get(id).or(closures.get(otherId));
+		if (open.get(otherId)) {
+			open.set(id);
+		}
+	}
+
+	/**
+	 * Compiles the table again from the resource types of the resource expert
+	 * if it is outdated. The closures of both relations are computed
+	 * separately, because a type can require a type that conflicts with it.
+	 */
+	private void update() {
+		if (!outdated) {
+			return;
+		}
+		outdated = false;
+		ids = new HashMap<ResourceType, Integer>();
+		List<ResourceType> types = new ArrayList<ResourceType>(
+				resourceExpert.getAllResourceTypes());
+		for (ResourceType resourceType : types) {
+			ids.put(resourceType, ids.size());
+		}
+		open = new BitSet();
+		required = direct(types, true);
+		conflicted = direct(types, false);
+		requiredClosures = closures(required);
+		conflictedClosures = closures(conflicted);
+		BitSet directlyOpen = (BitSet) open.clone();
+		for (int id = 0; id < types.size(); id++) {
+			if (requiredClosures.get(id).intersects(directlyOpen)
+					|| conflictedClosures.get(id).intersects(directlyOpen)) {
+				open.set(id);
+			}
+		}
+	}
+
+	/**
+	 * Returns the direct required or conflicting relations of the given types
+	 * and marks types with a relation to an unknown type as open
+	 */
+	private List<BitSet> direct(List<ResourceType> types, boolean requiredTypes) {
+		List<BitSet> relations = new ArrayList<BitSet>(types.size());
+		for (ResourceType resourceType : types) {
+			BitSet relation = new BitSet();
+			for (ResourceType other : requiredTypes ? resourceType
+					.getRequiredResourceTypes() : resourceType
+					.getConflictedResourceTypes()) {
+				Integer otherId = ids.get(other);
+				if (otherId == null) {
+					open.set(ids.get(resourceType));
+				} else {
+					relation.set(otherId);
+				}
+			}
+			relations.add(relation);
+		}
+		return relations;
+	}
+
+	/**
+	 * Returns the transitive closures of the given direct relations
+	 */
+	private static List<BitSet> closures(List<BitSet> relations) {
+		List<BitSet> closures = new ArrayList<BitSet>(relations.size());
+		for (int id = 0; id < relations.size(); id++) {
+			closures.add(null);
+		}
+		for (int id = 0; id < relations.size(); id++) {
+			closure(id, relations, closures);
+		}
+		return closures;
+	}
+
+	private static BitSet closure(int id, List<BitSet> relations,
+			List<BitSet> closures) {
+		if (closures.get(id) != null) {
+			return closures.get(id);
+		}
+		BitSet closure = new BitSet();
+		// marks the type as visited, the relations contain no loops
+		closures.set(id, closure);
+		BitSet relation = relations.get(id);
+		for (int other = relation.nextSetBit(0); other >= 0; other = relation
+				.nextSetBit(other + 1)) {
+			closure.set(other);
+			closure.or(closure(other, relations, closures));
+		}
+		return closure;
+	}
+}
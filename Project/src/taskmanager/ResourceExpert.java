@@ -12,10 +12,12 @@ import edu.umd.cs.findbugs.annotations.NonNull;
  * 
  * @author groep 8
  */
-public class ResourceExpert {
+public class ResourceExpert implements Journaled {
 
 	private Set<ResourceType> resourcetypes;
-	private Memento memento;
+	private final ResourceConstraints constraints = new ResourceConstraints(
+			this);
+	private final SnapshotJournal journal = new SnapshotJournal();
 
 	/**
 	 * Default constructor of the resource expert. It initializes a new set of
@@ -39,7 +41,10 @@ public class ResourceExpert {
 			throw new IllegalArgumentException(
 					"The resource expert has already the given resource type.");
 		}
+		journal.touch(this);
 		this.resourcetypes.add(resourcetype);
+		resourcetype.setResourceExpert(this);
+		constraints.add(resourcetype);
 	}
 
 	/**
@@ -51,31 +56,59 @@ public class ResourceExpert {
 		return resourcetypes;
 	}
 
+	/**
+	 * Returns the compiled required and conflicting relations of the resource
+	 * types
+	 * 
+	 * @return constraints : constraint table of the resource types
+	 */
+	ResourceConstraints getConstraints() {
+		return constraints;
+	}
+
 	/**
 	 * Saves the current state of the class
 	 */
 	void save() {
-		this.memento = new Memento();
-		for (ResourceType rt : this.resourcetypes) {
-			rt.save();
-		}
+		journal.save();
 	}
 
 	/**
-	 * Loads the last save state of the class
+	 * Loads the last save state of the class and of the resource types that
+	 * changed since the save
 	 */
 	void load() {
-		if (this.memento == null) {
-			throw new IllegalStateException(
-					"You need to save before you can load");
-		} else {
-			this.memento.load();
-			for (ResourceType rt : this.resourcetypes) {
-				rt.load();
-			}
+		journal.load();
+		if (!journal.getTouched().isEmpty()) {
+			constraints.invalidate();
 		}
 	}
 
+	/**
+	 * Returns the journal that keeps the saved state of the resource types
+	 * 
+	 * @return journal : the snapshot journal of the resource expert
+	 */
+	SnapshotJournal getJournal() {
+		return journal;
+	}
+
+	/**
+	 * Returns a memento of the current state of the resource expert
+	 */
+	@Override
+	public Object saveState() {
+		return new Memento();
+	}
+
+	/**
+	 * Sets the resource expert to the state of the given memento
+	 */
+	@Override
+	public void loadState(Object memento) {
+		((Memento) memento).load();
+	}
+
 	/**
 	 * 
 	 * Inner momento class of resource expert
@@ -105,7 +138,8 @@ public class ResourceExpert {
 		 *            : resourcetype expert
 		 */
 		public void load() {
-			ResourceExpert.this.resourcetypes = this.resourcetypes;
+			ResourceExpert.this.resourcetypes = new LinkedHashSet<ResourceType>(
+					this.resourcetypes);
 		}
 	}
 }
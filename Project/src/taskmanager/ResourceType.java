@@ -2,6 +2,7 @@ package taskmanager;
 
 import java.util.Collections;
 import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Set;
 
 import edu.umd.cs.findbugs.annotations.NonNull;
@@ -19,15 +20,15 @@ import utility.WorkDay;
  * @author Groep 8
  * 
  */
-public class ResourceType implements Visitable {
+public class ResourceType implements Visitable, Journaled {
 
 	private String name;
 	private Set<ResourceType> requiredResourceTypes = new LinkedHashSet<ResourceType>();
 	private Set<ResourceType> conflictedResourceTypes = new LinkedHashSet<ResourceType>();;
 	private Set<Resource> resources = new LinkedHashSet<Resource>();
 	private TimeInterval dailyAvailability;
+	private ResourceExpert resourceExpert;
 
-	private Memento memento;
 
 	/**
 	 * Constructor of resourceType that uses a builder to make a new
@@ -86,6 +87,7 @@ public class ResourceType implements Visitable {
 			throw new IllegalArgumentException(
 					"The resource type has already the given resource.");
 		}
+		touch();
 		this.resources.add(resource);
 	}
 
@@ -122,7 +124,9 @@ public class ResourceType implements Visitable {
 			throw new IllegalArgumentException(
 					"The given resource type is already required or conflicted on this resource type");
 		} else {
+			touch();
 			requiredResourceTypes.add(requiredResourceType);
+			invalidateConstraints();
 		}
 	}
 
@@ -135,6 +139,8 @@ public class ResourceType implements Visitable {
 	 *         resource
 	 */
 	boolean hasRequiredResourceType(ResourceType resourceType) {
+		if (hasClosedConstraints())
+			return resourceExpert.getConstraints().requires(this, resourceType);
 		if (getRequiredResourceTypes().contains(resourceType))
 			return true;
 		for (ResourceType requiredResourceType : getRequiredResourceTypes())
@@ -185,7 +191,9 @@ public class ResourceType implements Visitable {
 			throw new IllegalArgumentException(
 					"The given resource type is already required on this resource type");
 		} else {
+			touch();
 			conflictedResourceTypes.add(conflictedResourceType);
+			invalidateConstraints();
 		}
 	}
 
@@ -198,6 +206,8 @@ public class ResourceType implements Visitable {
 	 *         conflicted resource
 	 */
 	boolean hasConflictedResourceType(ResourceType resourceType) {
+		if (hasClosedConstraints())
+			return resourceExpert.getConstraints().conflicts(this, resourceType);
 		if (getConflictedResourceTypes().contains(resourceType))
 			return true;
 		for (ResourceType conflictedResourceType : getConflictedResourceTypes())
@@ -219,6 +229,70 @@ public class ResourceType implements Visitable {
 				.getRequiredResourceTypes().contains(resourceType));
 	}
 
+	/**
+	 * Checks whether the constraint table of the resource expert knows all
+	 * relations of this resource type
+	 */
+	private boolean hasClosedConstraints() {
+		return resourceExpert != null
+				&& resourceExpert.getConstraints().isClosed(this);
+	}
+
+	/**
+	 * Lets the journal of the resource expert save the state of the resource
+	 * type before it changes
+	 */
+	private void touch() {
+		if (resourceExpert != null) {
+			resourceExpert.getJournal().touch(this);
+		}
+	}
+
+	/**
+	 * Marks the constraint table of the resource expert as outdated after a
+	 * relation of this resource type changed
+	 */
+	private void invalidateConstraints() {
+		if (resourceExpert != null) {
+			resourceExpert.getConstraints().invalidate();
+		}
+	}
+
+	/**
+	 * Restores the relations of a resource type that is restored from a
+	 * snapshot, without checking them
+	 * 
+	 * @param required
+	 *            : the required resource types
+	 * @param conflicted
+	 *            : the conflicting resource types
+	 */
+	void restoreRelations(List<ResourceType> required,
+			List<ResourceType> conflicted) {
+		this.requiredResourceTypes.addAll(required);
+		this.conflictedResourceTypes.addAll(conflicted);
+		invalidateConstraints();
+	}
+
+	/**
+	 * Sets the resource expert the resource type belongs to
+	 * 
+	 * @param resourceExpert
+	 *            : the resource expert of the branch office
+	 */
+	void setResourceExpert(ResourceExpert resourceExpert) {
+		this.resourceExpert = resourceExpert;
+	}
+
+	/**
+	 * Returns the resource expert the resource type belongs to
+	 * 
+	 * @return resourceExpert : the resource expert or null
+	 */
+	ResourceExpert getResourceExpert() {
+		return resourceExpert;
+	}
+
 	/**
 	 * Sets the resource type name
 	 * 
@@ -293,24 +367,19 @@ public class ResourceType implements Visitable {
 	}
 
 	/**
-	 * Saves the current state of the class
+	 * Returns a memento of the current state of the resource type
 	 */
-	void save() {
-		this.memento = new Memento(this);
+	@Override
+	public Object saveState() {
+		return new Memento(this);
 	}
 
 	/**
-	 * Loads the last save state of the class
-	 * 
-	 * @return last state of the class
+	 * Sets the resource type to the state of the given memento
 	 */
-	void load() {
-		if (this.memento == null) {
-			throw new IllegalStateException(
-					"You need to save before you can load");
-		} else {
-			this.memento.load(this);
-		}
+	@Override
+	public void loadState(Object memento) {
+		((Memento) memento).load(this);
 	}
 
 	/**
@@ -353,9 +422,11 @@ public class ResourceType implements Visitable {
 		 */
 		public void load(ResourceType rt) {
 			rt.name = this.name;
-			rt.conflictedResourceTypes = this.conflictedResourceTypes;
-			rt.requiredResourceTypes = this.requiredResourceTypes;
-			rt.resources = this.resources;
+			rt.conflictedResourceTypes = new LinkedHashSet<ResourceType>(
+					this.conflictedResourceTypes);
+			rt.requiredResourceTypes = new LinkedHashSet<ResourceType>(
+					this.requiredResourceTypes);
+			rt.resources = new LinkedHashSet<Resource>(this.resources);
 			rt.dailyAvailability = this.dailyAvailability;
 		}
 	}
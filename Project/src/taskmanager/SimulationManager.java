@@ -0,0 +1,199 @@
+package taskmanager;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The simulation manager keeps several named what-if branches of the state of
+ * the company. There is always one active branch, the state of the other
+ * branches is kept as the changes they made since the fork of the journals of
+ * the branch offices. The state that no branch changed is shared by all
+ * branches, so forking a branch only takes the changes of the active branch
+ * and switching only undoes the changes of one branch and applies those of an
+ * other.
+ *
+ * The branch offices themselves, the clock and the logged in user are shared
+ * by all branches. Switching to an other branch forgets the last save of the
+ * system.
+ *
+ * @author Groep 8
+ */
+public class SimulationManager {
+
+	/**
+	 * The name of the branch that is active before anything was forked
+	 */
+	public static final String MAIN = "main";
+
+	private final Company company;
+	private final Map<String, Map<SnapshotJournal, Map<Journaled, Object>>> branches = new LinkedHashMap<String, Map<SnapshotJournal, Map<Journaled, Object>>>();
+	private String activeBranch = MAIN;
+	private boolean forked = false;
+
+	/**
+	 * Creates a simulation manager for the given company with only the main
+	 * branch
+	 *
+	 * @param company
+	 *            : the company of which the state is branched
+	 */
+	SimulationManager(Company company) {
+		this.company = company;
+		this.branches.put(MAIN, noChanges());
+	}
+
+	/**
+	 * Creates a new branch with the current state of the active branch and
+	 * makes it the active branch
+	 *
+	 * @param name
+	 *            : the name of the new branch
+	 * @throws IllegalArgumentException
+	 *             : thrown when there already is a branch with the given name
+	 */
+	public void fork(String name) {
+		if (name == null || branches.containsKey(name)) {
+			throw new IllegalArgumentException(
+					"There already is a simulation branch with the given name");
+		}
+		if (!forked) {
+			forked = true;
+			for (SnapshotJournal journal : getJournals()) {
+				journal.fork();
+			}
+			branches.put(name, noChanges());
+		} else {
+			// both branches share the states of the changes
+			Map<SnapshotJournal, Map<Journaled, Object>> changes = getChanges();
+			branches.put(activeBranch, changes);
+			branches.put(name, changes);
+		}
+		activeBranch = name;
+	}
+
+	/**
+	 * Makes the branch with the given name the active branch
+	 *
+	 * @param name
+	 *            : the name of the branch
+	 * @throws IllegalArgumentException
+	 *             : thrown when there is no branch with the given name
+	 */
+	public void switchTo(String name) {
+		if (!branches.containsKey(name)) {
+			throw new IllegalArgumentException(
+					"There is no simulation branch with the given name");
+		}
+		if (name.equals(activeBranch)) {
+			return;
+		}
+		branches.put(activeBranch, getChanges());
+		List<SnapshotJournal> journals = getJournals();
+		for (SnapshotJournal journal : journals) {
+			journal.revertToFork();
+		}
+		for (Map.Entry<SnapshotJournal, Map<Journaled, Object>> entry : branches
+				.get(name).entrySet()) {
+			entry.getKey().applyChanges(entry.getValue());
+		}
+		for (BranchOffice office : company.getAllBranchOffices()) {
+			office.rebuildIndexes();
+		}
+		company.rebuildOwnershipRegistry();
+		activeBranch = name;
+	}
+
+	/**
+	 * Discards the branch with the given name. When only the active branch is
+	 * left, its state becomes the new fork.
+	 *
+	 * @param name
+	 *            : the name of the branch
+	 * @throws IllegalArgumentException
+	 *             : thrown when there is no branch with the given name
+	 * @throws IllegalStateException
+	 *             : thrown when the branch is the active branch
+	 */
+	public void discard(String name) {
+		if (!branches.containsKey(name)) {
+			throw new IllegalArgumentException(
+					"There is no simulation branch with the given name");
+		}
+		if (name.equals(activeBranch)) {
+			throw new IllegalStateException(
+					"The active simulation branch can not be discarded");
+		}
+		branches.remove(name);
+		if (branches.size() == 1) {
+			for (SnapshotJournal journal : getJournals()) {
+				journal.fork();
+			}
+			branches.put(activeBranch, noChanges());
+		}
+	}
+
+	/**
+	 * Returns the name of the active branch
+	 *
+	 * @return activeBranch : name of the active branch
+	 */
+	public String getActiveBranch() {
+		return activeBranch;
+	}
+
+	/**
+	 * Returns the names of all branches
+	 *
+	 * @return set of branch names
+	 */
+	public Set<String> getBranchNames() {
+		return Collections.unmodifiableSet(branches.keySet());
+	}
+
+	/**
+	 * Starts keeping the state of a branch office that was created after the
+	 * first fork
+	 *
+	 * @param office
+	 *            : the new branch office
+	 */
+	void addBranchOffice(BranchOffice office) {
+		if (forked) {
+			for (SnapshotJournal journal : office.getJournals()) {
+				journal.fork();
+			}
+		}
+	}
+
+	/**
+	 * Returns the changes of the active branch since the fork
+	 */
+	private Map<SnapshotJournal, Map<Journaled, Object>> getChanges() {
+		Map<SnapshotJournal, Map<Journaled, Object>> changes = noChanges();
+		for (SnapshotJournal journal : getJournals()) {
+			Map<Journaled, Object> journalChanges = journal
+					.getChangesSinceFork();
+			if (!journalChanges.isEmpty()) {
+				changes.put(journal, journalChanges);
+			}
+		}
+		return changes;
+	}
+
+	private List<SnapshotJournal> getJournals() {
+		List<SnapshotJournal> journals = new ArrayList<SnapshotJournal>();
+		for (BranchOffice office : company.getAllBranchOffices()) {
+			journals.addAll(office.getJournals());
+		}
+		return journals;
+	}
+
+	private static Map<SnapshotJournal, Map<Journaled, Object>> noChanges() {
+		return new IdentityHashMap<SnapshotJournal, Map<Journaled, Object>>();
+	}
+}
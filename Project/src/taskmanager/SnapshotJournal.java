@@ -0,0 +1,150 @@
+package taskmanager;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The snapshot journal remembers the state of a group of objects at the last
+ * save without copying them when saving. Every object of the group touches
+ * the journal before it changes, and the journal saves the state of the
+ * object the first time it is touched after a save. Objects that did not
+ * change since the save share their state with the save.
+ * 
+ * Saving only starts a new journal, and loading only restores the objects that
+ * were touched since the save. The saved states are kept after a load, so the
+ * same save can be loaded again.
+ * 
+ * Independently of the save, the journal can remember the state of the
+ * objects at a fork. The changes since the fork can then be taken out and put
+ * back later, which is how the simulation branches switch between each other.
+ * 
+ * @author Groep 8
+ */
+class SnapshotJournal {
+
+	private Map<Journaled, Object> savedStates;
+	private Map<Journaled, Object> forkStates;
+
+	/**
+	 * Starts remembering the state of the objects at this moment
+	 */
+	void save() {
+		this.savedStates = new IdentityHashMap<Journaled, Object>();
+	}
+
+	/**
+	 * Saves the state of the given object if this is the first time it changes
+	 * since the last save. Must be called before the object changes.
+	 * 
+	 * @param object
+	 *            : the object that is about to change
+	 */
+	void touch(Journaled object) {
+		Object state = null;
+		if (this.savedStates != null && !this.savedStates.containsKey(object)) {
+			state = object.saveState();
+			this.savedStates.put(object, state);
+		}
+		if (this.forkStates != null && !this.forkStates.containsKey(object)) {
+			if (state == null) {
+				state = object.saveState();
+			}
+			this.forkStates.put(object, state);
+		}
+	}
+
+	/**
+	 * Sets the objects that changed since the last save back to their saved
+	 * state
+	 * 
+	 * @throws IllegalStateException
+	 *             : thrown when there was no save
+	 */
+	void load() {
+		if (this.savedStates == null) {
+			throw new IllegalStateException(
+					"You need to save before you can load");
+		}
+		for (Map.Entry<Journaled, Object> entry : this.savedStates.entrySet()) {
+			entry.getKey().loadState(entry.getValue());
+		}
+	}
+
+	/**
+	 * Returns the objects that changed since the last save
+	 * 
+	 * @return set of changed objects
+	 */
+	Set<Journaled> getTouched() {
+		if (this.savedStates == null) {
+			return Collections.emptySet();
+		}
+		return Collections.unmodifiableSet(this.savedStates.keySet());
+	}
+
+	/**
+	 * Starts remembering the state of the objects at this moment as the fork
+	 */
+	void fork() {
+		this.forkStates = new IdentityHashMap<Journaled, Object>();
+	}
+
+	/**
+	 * Checks whether the journal remembers the state at a fork
+	 * 
+	 * @return true if the journal was forked
+	 */
+	boolean isForked() {
+		return this.forkStates != null;
+	}
+
+	/**
+	 * Returns the current state of the objects that changed since the fork
+	 * 
+	 * @return the changed objects with their current state
+	 */
+	Map<Journaled, Object> getChangesSinceFork() {
+		Map<Journaled, Object> changes = new IdentityHashMap<Journaled, Object>();
+		if (this.forkStates != null) {
+			for (Journaled object : this.forkStates.keySet()) {
+				changes.put(object, object.saveState());
+			}
+		}
+		return changes;
+	}
+
+	/**
+	 * Sets the objects that changed since the fork back to their state at the
+	 * fork. The last save belongs to the changes that are undone and is
+	 * forgotten.
+	 * 
+	 * @throws IllegalStateException
+	 *             : thrown when the journal was not forked
+	 */
+	void revertToFork() {
+		if (this.forkStates == null) {
+			throw new IllegalStateException("The journal was not forked");
+		}
+		for (Map.Entry<Journaled, Object> entry : this.forkStates.entrySet()) {
+			entry.getKey().loadState(entry.getValue());
+		}
+		this.forkStates = new IdentityHashMap<Journaled, Object>();
+		this.savedStates = null;
+	}
+
+	/**
+	 * Applies changes that were taken since the fork, the state of the fork of
+	 * the changed objects is kept
+	 * 
+	 * @param changes
+	 *            : changed objects with their state
+	 */
+	void applyChanges(Map<Journaled, Object> changes) {
+		for (Map.Entry<Journaled, Object> entry : changes.entrySet()) {
+			touch(entry.getKey());
+			entry.getKey().loadState(entry.getValue());
+		}
+	}
+}
@@ -0,0 +1,172 @@
+package taskmanager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * The start time cache remembers the possible start times the planner found
+ * for a task, a first start time and a set of developers. The duration of the
+ * task, the amounts of developers and resources it requires and the resources
+ * it can use are part of the key, so a task or resource type that changes is
+ * never answered from the cache.
+ *
+ * The possible start times only depend on the plannings of the developers and
+ * resources the task can use. When a planning is added, removed or changed,
+ * only the start times of the queries that share a developer or resource with
+ * that planning are forgotten. The cache only keeps the queries of one first
+ * start time: a query with another first start time empties it, so the cache
+ * does not grow when the time of the system moves on.
+ *
+ * @author Groep 8
+ */
+class StartTimeCache {
+
+	private LocalDateTime startTime;
+	private final Map<Query, Set<LocalDateTime>> startTimes = new HashMap<Query, Set<LocalDateTime>>();
+
+	/**
+	 * Returns the remembered start times of the given query
+	 *
+	 * @param task
+	 *            : the task to plan
+	 * @param startTime
+	 *            : the first start time that was tried
+	 * @param developers
+	 *            : the developers that can be assigned
+	 * @return the start times or null if they are not remembered
+	 */
+	Set<LocalDateTime> get(Task task, LocalDateTime startTime,
+			Set<Developer> developers) {
+		if (!startTime.equals(this.startTime)) {
+			return null;
+		}
+		return startTimes.get(new Query(task, startTime, developers));
+	}
+
+	/**
+	 * Remembers the start times of the given query
+	 *
+	 * @param task
+	 *            : the task to plan
+	 * @param startTime
+	 *            : the first start time that was tried
+	 * @param developers
+	 *            : the developers that can be assigned
+	 * @param possibleStartTimes
+	 *            : the start times that were found
+	 */
+	void put(Task task, LocalDateTime startTime, Set<Developer> developers,
+			Set<LocalDateTime> possibleStartTimes) {
+		if (!startTime.equals(this.startTime)) {
+			startTimes.clear();
+			this.startTime = startTime;
+		}
+		startTimes.put(new Query(task, startTime, developers),
+				Collections.unmodifiableSet(new LinkedHashSet<LocalDateTime>(
+						possibleStartTimes)));
+	}
+
+	/**
+	 * Forgets the start times of the queries that share a developer or
+	 * resource with the given planning
+	 *
+	 * @param planning
+	 *            : the planning that is added, removed or changed
+	 */
+	void forget(Planning planning) {
+		Iterator<Query> queries = startTimes.keySet().iterator();
+		while (queries.hasNext()) {
+			if (queries.next().uses(planning)) {
+				queries.remove();
+			}
+		}
+	}
+
+	/**
+	 * Forgets all start times
+	 */
+	void clear() {
+		startTimes.clear();
+	}
+
+	/**
+	 * Returns the amount of remembered queries
+	 */
+	int size() {
+		return startTimes.size();
+	}
+
+	/**
+	 * A query of the possible start times of a task
+	 */
+	private static class Query {
+		private final Task task;
+		private final LocalDateTime startTime;
+		private final Set<Developer> developers;
+		private final Duration duration;
+		private final int requiredDevelopers;
+		private final Map<ResourceType, Integer> requiredResources;
+		private final Map<ResourceType, Set<Resource>> resources = new LinkedHashMap<ResourceType, Set<Resource>>();
+
+		private Query(Task task, LocalDateTime startTime,
+				Set<Developer> developers) {
+			this.task = task;
+			this.startTime = startTime;
+			this.developers = new LinkedHashSet<Developer>(developers);
+			this.duration = task.getDuration();
+			this.requiredDevelopers = task.getAmountOfRequiredDevelopers();
+			this.requiredResources = new LinkedHashMap<ResourceType, Integer>(
+					task.getRequiredResourceTypes());
+			for (ResourceType type : requiredResources.keySet()) {
+				resources.put(type,
+						new LinkedHashSet<Resource>(type.getAllResources()));
+			}
+		}
+
+		/**
+		 * Checks whether the given planning books a developer or resource
+		 * the task of this query can use
+		 */
+		private boolean uses(Planning planning) {
+			if (!Collections.disjoint(developers, planning.getDevelopers())) {
+				return true;
+			}
+			for (Resource resource : planning.getResources()) {
+				for (Set<Resource> resourcesOfType : resources.values()) {
+					if (resourcesOfType.contains(resource)) {
+						return true;
+					}
+				}
+			}
+			return false;
+		}
+
+		@Override
+		public boolean equals(Object other) {
+			if (!(other instanceof Query)) {
+				return false;
+			}
+			Query query = (Query) other;
+			return task == query.task && startTime.equals(query.startTime)
+					&& duration.equals(query.duration)
+					&& requiredDevelopers == query.requiredDevelopers
+					&& developers.equals(query.developers)
+					&& requiredResources.equals(query.requiredResources)
+					&& resources.equals(query.resources);
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(System.identityHashCode(task), startTime,
+					developers, requiredDevelopers);
+		}
+	}
+}
@@ -0,0 +1,266 @@
+package taskmanager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+
+import utility.TimeSpan;
+import utility.WorkTime;
+
+/**
+ * The StartTimeSearch enumerator lists the strategies the planner can use to
+ * find the possible start times of a task. All strategies try start times
+ * that are a whole number of work hours after the first start time and return
+ * the same start times.
+ *
+ * @author Groep 8
+ */
+public enum StartTimeSearch {
+
+	/**
+	 * Tries every work hour after a rejected start time
+	 */
+	HOURLY {
+		@Override
+		LocalDateTime nextCandidate(Planner planner, Task task,
+				Set<Developer> developers, TimeSpan rejected) {
+			return nextHour(rejected.getBegin());
+		}
+	},
+
+	/**
+	 * Skips all work hours before the first moment at which enough of the
+	 * developers and resources that block a rejected start time have finished
+	 * their plannings. A developer or resource that is booked during the
+	 * rejected time span stays booked for every later start time until that
+	 * booking ends, so none of the skipped start times can be possible.
+	 */
+	EVENT_DRIVEN {
+		@Override
+		LocalDateTime nextCandidate(Planner planner, Task task,
+				Set<Developer> developers, TimeSpan rejected) {
+			LocalDateTime release = rejected.getBegin();
+
+			Set<Developer> available = planner.developersAvailableFor(
+					developers, task, rejected);
+			int missingDevelopers = task.getAmountOfRequiredDevelopers()
+					- available.size();
+			if (missingDevelopers > 0) {
+				List<LocalDateTime> ends = new ArrayList<LocalDateTime>();
+				for (Developer developer : developers) {
+					if (!available.contains(developer)) {
+						ends.add(planner.getBookingEnd(developer, task,
+								rejected));
+					}
+				}
+				release = latest(release, ends, missingDevelopers);
+			}
+
+			Map<ResourceType, Set<Resource>> availableResources = planner
+					.resourcesAvailableFor(task, rejected);
+			for (ResourceType type : task.getRequiredResourceTypes().keySet()) {
+				int missingResources = task.getRequiredResourceTypes()
+						.get(type) - availableResources.get(type).size();
+				if (missingResources > 0) {
+					List<LocalDateTime> ends = new ArrayList<LocalDateTime>();
+					for (Resource resource : type.getAllResources()) {
+						if (!availableResources.get(type).contains(resource)) {
+							ends.add(planner.getBookingEnd(resource, task,
+									rejected));
+						}
+					}
+					release = latest(release, ends, missingResources);
+				}
+			}
+
+			if (!release.isAfter(rejected.getBegin())) {
+				return nextHour(rejected.getBegin());
+			}
+			return WorkTime.getFinishTime(rejected.getBegin(),
+					WorkTime.durationBetween(rejected.getBegin(), release));
+		}
+
+		/**
+		 * Returns the latest of the given time and the moment at which the
+		 * given amount of bookings have ended
+		 */
+		private LocalDateTime latest(LocalDateTime time,
+				List<LocalDateTime> ends, int amount) {
+			if (ends.size() < amount) {
+				return time;
+			}
+			Collections.sort(ends);
+			LocalDateTime end = ends.get(amount - 1);
+			return end.isAfter(time) ? end : time;
+		}
+	},
+
+	/**
+	 * Splits the year after the first start time in chunks of a work week and
+	 * searches the chunks at the same time in the common fork join pool, each
+	 * with the event driven search. The chunks are started in waves of one
+	 * chunk per thread of the pool, and no new wave is started once the
+	 * chunks that are done in order hold enough start times. The start times
+	 * of the chunks are merged in order.
+	 *
+	 * The planner is only read while the chunks are searched, and the thread
+	 * asking for the start times waits until they are found. Because the
+	 * plannings of an office are only changed by the thread holding its lock,
+	 * or by the one thread of the controller, they stay the same during the
+	 * search.
+	 */
+	PARALLEL {
+		@Override
+		LocalDateTime nextCandidate(Planner planner, Task task,
+				Set<Developer> developers, TimeSpan rejected) {
+			return EVENT_DRIVEN.nextCandidate(planner, task, developers,
+					rejected);
+		}
+
+		@Override
+		Set<LocalDateTime> search(Planner planner, Task task,
+				LocalDateTime startTime, Set<Developer> developers, int amount) {
+			ForkJoinPool pool = ForkJoinPool.commonPool();
+			LocalDateTime last = startTime.plusYears(1);
+			Set<LocalDateTime> startTimes = new LinkedHashSet<LocalDateTime>();
+			long chunk = 0;
+			LocalDateTime begin = startTime;
+			while (startTimes.size() < amount && begin.isBefore(last)) {
+				List<ForkJoinTask<List<LocalDateTime>>> wave = new ArrayList<ForkJoinTask<List<LocalDateTime>>>();
+				for (int i = 0; i < pool.getParallelism() && begin.isBefore(last); i++) {
+					chunk++;
+					LocalDateTime end = WorkTime.getFinishTime(startTime,
+							Duration.ofHours(chunk * CHUNK_HOURS));
+					if (end.isAfter(last)) {
+						end = last;
+					}
+					wave.add(pool.submit(new ChunkSearch(planner, task,
+							developers, begin, end, amount)));
+					begin = end;
+				}
+				for (ForkJoinTask<List<LocalDateTime>> search : wave) {
+					for (LocalDateTime time : search.join()) {
+						if (startTimes.size() < amount) {
+							startTimes.add(time);
+						}
+					}
+				}
+			}
+			return startTimes;
+		}
+	};
+
+	/**
+	 * The amount of work hours of a chunk of the parallel search
+	 */
+	private static final int CHUNK_HOURS = 40;
+
+	/**
+	 * Returns the first start times at which the task can be planned, trying
+	 * start times until a year after the first start time
+	 *
+	 * @param planner
+	 *            : the planner that searches
+	 * @param task
+	 *            : the task to plan
+	 * @param startTime
+	 *            : the first start time to try
+	 * @param developers
+	 *            : the developers that can be assigned
+	 * @param amount
+	 *            : the amount of start times to find
+	 * @return the start times, in order
+	 */
+	Set<LocalDateTime> search(Planner planner, Task task,
+			LocalDateTime startTime, Set<Developer> developers, int amount) {
+		return search(planner, task, developers, startTime,
+				startTime.plusYears(1), amount);
+	}
+
+	/**
+	 * Returns the first start times before the given end at which the task
+	 * can be planned
+	 */
+	Set<LocalDateTime> search(Planner planner, Task task,
+			Set<Developer> developers, LocalDateTime begin, LocalDateTime end,
+			int amount) {
+		Set<LocalDateTime> possibleStartTimes = new LinkedHashSet<LocalDateTime>();
+
+		LocalDateTime time = begin;
+
+		while (possibleStartTimes.size() < amount && time.isBefore(end)) {
+			TimeSpan timeSpan = new TimeSpan(time, task.getDuration());
+			if (planner.isPlannableForTimeSpan(task, developers, timeSpan)) {
+				possibleStartTimes.add(timeSpan.getBegin());
+				time = nextHour(time);
+			} else {
+				time = nextCandidate(planner, task, developers, timeSpan);
+			}
+		}
+		return possibleStartTimes;
+	}
+
+	/**
+	 * Returns the next start time to try after the given time span was
+	 * rejected as start time for the task
+	 *
+	 * @param planner
+	 *            : the planner that searches
+	 * @param task
+	 *            : the task to plan
+	 * @param developers
+	 *            : the developers that can be assigned
+	 * @param rejected
+	 *            : the time span of the rejected start time
+	 * @return the next start time to try
+	 */
+	abstract LocalDateTime nextCandidate(Planner planner, Task task,
+			Set<Developer> developers, TimeSpan rejected);
+
+	/**
+	 * Returns the start time one work hour after the given time
+	 */
+	LocalDateTime nextHour(LocalDateTime time) {
+		return WorkTime.getFinishTime(time, Duration.ofHours(1));
+	}
+
+	/**
+	 * The search of one chunk of the parallel search
+	 */
+	private static class ChunkSearch extends RecursiveTask<List<LocalDateTime>> {
+
+		private static final long serialVersionUID = 1L;
+
+		private final Planner planner;
+		private final Task task;
+		private final Set<Developer> developers;
+		private final LocalDateTime begin;
+		private final LocalDateTime end;
+		private final int amount;
+
+		private ChunkSearch(Planner planner, Task task,
+				Set<Developer> developers, LocalDateTime begin,
+				LocalDateTime end, int amount) {
+			this.planner = planner;
+			this.task = task;
+			this.developers = developers;
+			this.begin = begin;
+			this.end = end;
+			this.amount = amount;
+		}
+
+		@Override
+		protected List<LocalDateTime> compute() {
+			return new ArrayList<LocalDateTime>(EVENT_DRIVEN.search(planner,
+					task, developers, begin, end, amount));
+		}
+	}
+}
@@ -4,6 +4,7 @@ import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
@@ -37,7 +38,7 @@ import utility.WorkTime;
  * 
  * @author Groep 8
  */
-public class Task implements Visitable {
+public class Task implements Visitable, Journaled {
 
 	private static AtomicInteger idCounter = new AtomicInteger(1);
 	private int id;
@@ -48,6 +49,7 @@ public class Task implements Visitable {
 	private TaskStatus status = TaskStatus.UNAVAILABLE;
 
 	private Set<Task> dependencies = new LinkedHashSet<>();
+	private Set<Task> dependents = new LinkedHashSet<>();
 	private Map<ResourceType, Integer> requiredResourceTypes = new LinkedHashMap<ResourceType, Integer>();
 	private Task originalTask;
 	private int amountOfRequiredDevelopers;
@@ -57,7 +59,12 @@ public class Task implements Visitable {
 
 	private final ImmutableClock clock;
 
-	private Memento memento;
+	private LocalDateTime estimatedFinishTime;
+	private LocalDateTime estimatedFinishTimeAt;
+
+	private DependencyIndex dependencyIndex;
+
+	private SnapshotJournal journal;
 
 	/**
 	 * The constructor of task has a task builder as argument. The task builder
@@ -96,6 +103,47 @@ public class Task implements Visitable {
 		this.id = idCounter.getAndIncrement();
 	}
 
+	/**
+	 * Constructor of a task that is restored from a snapshot. The values are
+	 * not validated, they were valid when the snapshot was written. The links
+	 * to other tasks and resource types are restored afterwards.
+	 */
+	Task(String description, Duration estimatedDuration,
+			double acceptableDeviation, int amountOfRequiredDevelopers,
+			TaskStatus status, LocalDateTime startTime, LocalDateTime endTime,
+			ImmutableClock clock) {
+		this.clock = clock;
+		this.description = description;
+		this.estimatedDuration = estimatedDuration;
+		this.acceptableDeviation = acceptableDeviation;
+		this.amountOfRequiredDevelopers = amountOfRequiredDevelopers;
+		this.status = status;
+		this.startTime = startTime;
+		this.endTime = endTime;
+		this.id = idCounter.getAndIncrement();
+	}
+
+	/**
+	 * Restores the links of a task that is restored from a snapshot, without
+	 * checking them
+	 * 
+	 * @param originalTask
+	 *            : the task this task is an alternative for, or null
+	 * @param dependencies
+	 *            : the dependencies of the task
+	 * @param requiredResourceTypes
+	 *            : the required resource types with their quantity
+	 */
+	void restoreLinks(Task originalTask, List<Task> dependencies,
+			Map<ResourceType, Integer> requiredResourceTypes) {
+		this.originalTask = originalTask;
+		for (Task dependency : dependencies) {
+			this.dependencies.add(dependency);
+			dependency.dependents.add(this);
+		}
+		this.requiredResourceTypes.putAll(requiredResourceTypes);
+	}
+
 	/**
 	 * Static method that creates a new taskbuilder. This method returns the
 	 * builder after all given required parameters are set.
@@ -126,11 +174,30 @@ public class Task implements Visitable {
 	 * @return true if the task has the given task as dependency
 	 */
 	boolean hasDependency(Task task) {
-		if (getDependencies().contains(task))
-			return true;
-		for (Task dependency : getDependencies())
-			if (dependency.hasDependency(task))
+		return hasDependency(task, new HashSet<Task>());
+	}
+
+	/**
+	 * Checks whether a task has a dependency task. The dependency index of the
+	 * project is used when it knows all dependencies of the task, otherwise the
+	 * dependencies are searched, visiting every task only once.
+	 * 
+	 * @param task
+	 *            : dependent task
+	 * @param visited
+	 *            : the tasks that were already searched
+	 * @return true if the task has the given task as dependency
+	 */
+	private boolean hasDependency(Task task, Set<Task> visited) {
+		if (dependencyIndex != null && dependencyIndex.isClosed(this))
+			return dependencyIndex.reaches(this, task);
+		for (Task dependency : getDependencies()) {
+			if (dependency.equals(task))
+				return true;
+			if (visited.add(dependency)
+					&& dependency.hasDependency(task, visited))
 				return true;
+		}
 		return false;
 	}
 
@@ -171,7 +238,14 @@ public class Task implements Visitable {
 			throw new IllegalArgumentException(
 					"The given dependency task is already dependent on this task");
 		} else {
+			touch();
+			dependency.touch();
 			dependencies.add(dependency);
+			dependency.dependents.add(this);
+			invalidateEstimatedFinishTime();
+			if (dependencyIndex != null) {
+				dependencyIndex.addDependency(this, dependency);
+			}
 		}
 	}
 
@@ -210,6 +284,7 @@ public class Task implements Visitable {
 			throw new IllegalArgumentException(
 					"The amount of resources of the given resource type does not exist");
 		} else {
+			touch();
 			requiredResourceTypes.put(requiredResourceType, quantity);
 		}
 	}
@@ -316,7 +391,9 @@ public class Task implements Visitable {
 	 *            : the end time of task
 	 */
 	private void setEndTime(LocalDateTime endTime) {
+		touch();
 		this.endTime = endTime;
+		invalidateEstimatedFinishTime();
 	}
 
 	/**
@@ -326,6 +403,7 @@ public class Task implements Visitable {
 	 *            : the given start time of a task
 	 */
 	private void setStartTime(LocalDateTime startTime) {
+		touch();
 		this.startTime = startTime;
 	}
 
@@ -362,7 +440,9 @@ public class Task implements Visitable {
 	 *            : given task status
 	 */
 	void setStatus(TaskStatus status) {
+		touch();
 		this.status = status;
+		invalidateEstimatedFinishTime();
 	}
 
 	/**
@@ -402,27 +482,47 @@ public class Task implements Visitable {
 	}
 
 	/**
-	 * Gets the estimated finish time of an unfinished task.
+	 * Gets the estimated finish time of an unfinished task. The estimated
+	 * finish time is remembered until the time of the clock changes or the
+	 * task or one of its dependencies changes, so every task of a dependency
+	 * graph is only estimated once.
 	 * 
 	 * @return the estimated finish time
 	 */
 	public LocalDateTime getEstimatedFinishTime() {
-
 		if (this.getEndTime() != null) {
 			return this.getEndTime();
-		} else {
-
-			if (this.getDependencies().isEmpty()) {
-				return add(this.clock.getCurrentTime(), this.estimatedDuration);
-			} else {
-				// Find last estimated time of the dependencies
-				LocalDateTime estimatedTime = this.clock.getCurrentTime();
-				for (Task t : this.getDependencies()) {
-					if (t.getEstimatedFinishTime().isAfter(estimatedTime)) {
-						estimatedTime = t.getEstimatedFinishTime();
-					}
+		}
+		LocalDateTime now = this.clock.getCurrentTime();
+		if (this.estimatedFinishTime == null
+				|| !now.equals(this.estimatedFinishTimeAt)) {
+			// Find last estimated time of the dependencies
+			LocalDateTime estimatedTime = now;
+			for (Task t : this.getDependencies()) {
+				LocalDateTime dependencyFinishTime = t.getEstimatedFinishTime();
+				if (dependencyFinishTime.isAfter(estimatedTime)) {
+					estimatedTime = dependencyFinishTime;
 				}
-				return add(estimatedTime, this.estimatedDuration);
+			}
+			this.estimatedFinishTime = add(estimatedTime,
+					this.estimatedDuration);
+			this.estimatedFinishTimeAt = now;
+		}
+		return this.estimatedFinishTime;
+	}
+
+	/**
+	 * Forgets the remembered estimated finish time of this task and of all
+	 * the tasks depending on it. A dependent that has an end time or that
+	 * remembers nothing does not pass the change on, because no task
+	 * remembers an estimate based on it.
+	 */
+	private void invalidateEstimatedFinishTime() {
+		this.estimatedFinishTime = null;
+		for (Task dependent : this.dependents) {
+			if (dependent.endTime == null
+					&& dependent.estimatedFinishTime != null) {
+				dependent.invalidateEstimatedFinishTime();
 			}
 		}
 	}
@@ -493,6 +593,26 @@ public class Task implements Visitable {
 		return Collections.unmodifiableSet(dependencies);
 	}
 
+	/**
+	 * Returns the tasks that have this task as a direct dependency. The status
+	 * of these tasks can only change when the status of this task changes.
+	 * 
+	 * @return dependents: set with the tasks depending on this task
+	 */
+	Set<Task> getDependents() {
+		return Collections.unmodifiableSet(dependents);
+	}
+
+	/**
+	 * Sets the dependency index of the project the task belongs to
+	 * 
+	 * @param dependencyIndex
+	 *            : the dependency index of the project
+	 */
+	void setDependencyIndex(DependencyIndex dependencyIndex) {
+		this.dependencyIndex = dependencyIndex;
+	}
+
 	/**
 	 * Returns the map with required resource type and their quantity of the
 	 * task
@@ -506,6 +626,7 @@ public class Task implements Visitable {
 	
 	void updateRequiredResourceType(ResourceType oldType, ResourceType newType) {
 		if(this.requiredResourceTypes.containsKey(oldType)) {
+			touch();
 			this.requiredResourceTypes.put(newType, this.requiredResourceTypes.remove(oldType));
 		}
 	}
@@ -522,7 +643,16 @@ public class Task implements Visitable {
 	 * Remove task from the dependency list
 	 */
 	void removeDependency(Task task) {
-		dependencies.remove(task);
+		if (dependencies.contains(task)) {
+			touch();
+			task.touch();
+			dependencies.remove(task);
+			task.dependents.remove(this);
+			invalidateEstimatedFinishTime();
+			if (dependencyIndex != null) {
+				dependencyIndex.invalidate();
+			}
+		}
 	}
 
 	/**
@@ -578,23 +708,38 @@ public class Task implements Visitable {
 	}
 
 	/**
-	 * Saves the current state of the task to a new memento
+	 * Sets the journal that keeps the saved state of the task
+	 * 
+	 * @param journal
+	 *            : the journal of the project expert of the task
 	 */
-	void save() {
-		this.memento = new Memento();
+	void setJournal(SnapshotJournal journal) {
+		this.journal = journal;
 	}
 
 	/**
-	 * loads the last saved state of task from the momento
+	 * Lets the journal save the state of the task before it changes
 	 */
-	void load() {
-		if (this.memento == null) {
-			throw new IllegalStateException(
-					"You need to save before you can load");
-		} else {
-			this.memento.load();
+	private void touch() {
+		if (this.journal != null) {
+			this.journal.touch(this);
 		}
+	}
+
+	/**
+	 * Returns a memento of the current state of the task
+	 */
+	@Override
+	public Object saveState() {
+		return new Memento();
+	}
 
+	/**
+	 * Sets the task to the state of the given memento
+	 */
+	@Override
+	public void loadState(Object memento) {
+		((Memento) memento).load();
 	}
 
 	public int getAmountOfRequiredDevelopers() {
@@ -603,6 +748,7 @@ public class Task implements Visitable {
 
 	public void setAmountOfRequiredDevelopers(int amountOfRequiredDevelopers) {
 		if (amountOfRequiredDevelopers > 0) {
+			touch();
 			this.amountOfRequiredDevelopers = amountOfRequiredDevelopers;
 		} else {
 			throw new IllegalArgumentException(
@@ -623,6 +769,7 @@ public class Task implements Visitable {
 		private double acceptableDeviation;
 
 		private Set<Task> dependencies;
+		private Set<Task> dependents;
 		private Map<ResourceType, Integer> requiredResourceTypes;
 		private Task originalTask;
 
@@ -630,6 +777,7 @@ public class Task implements Visitable {
 		private LocalDateTime startTime;
 
 		private int id;
+		private int amountOfRequiredDevelopers;
 
 		private TaskStatus status;
 
@@ -645,6 +793,7 @@ public class Task implements Visitable {
 			this.acceptableDeviation = new Double(Task.this.acceptableDeviation);
 
 			this.dependencies = new LinkedHashSet<Task>(Task.this.dependencies);
+			this.dependents = new LinkedHashSet<Task>(Task.this.dependents);
 			this.requiredResourceTypes = new LinkedHashMap<ResourceType, Integer>(
 					Task.this.requiredResourceTypes);
 			this.originalTask = Task.this.originalTask;
@@ -653,31 +802,38 @@ public class Task implements Visitable {
 			this.startTime = Task.this.startTime;
 
 			this.id = Task.this.id;
+			this.amountOfRequiredDevelopers = Task.this.amountOfRequiredDevelopers;
 
 			this.status = Task.this.status;
 		}
 
 		/**
-		 * Sets the parameters of the task to the saved parameters
-		 * 
-		 * @param task
-		 *            : given task
+		 * Sets the parameters of the task to the saved parameters. The
+		 * collections are copied so the memento can be loaded again.
 		 */
 		public void load() {
 			Task.this.description = this.description;
 			Task.this.estimatedDuration = this.estimatedDuration;
 			Task.this.acceptableDeviation = this.acceptableDeviation;
 
-			Task.this.dependencies = this.dependencies;
-			Task.this.requiredResourceTypes = this.requiredResourceTypes;
+			Task.this.dependencies = new LinkedHashSet<Task>(this.dependencies);
+			Task.this.dependents = new LinkedHashSet<Task>(this.dependents);
+			Task.this.requiredResourceTypes = new LinkedHashMap<ResourceType, Integer>(
+					this.requiredResourceTypes);
 			Task.this.originalTask = this.originalTask;
 
 			Task.this.endTime = this.endTime;
 			Task.this.startTime = this.startTime;
 
 			Task.this.id = this.id;
+			Task.this.amountOfRequiredDevelopers = this.amountOfRequiredDevelopers;
 
 			Task.this.status = this.status;
+
+			invalidateEstimatedFinishTime();
+			if (dependencyIndex != null) {
+				dependencyIndex.invalidate();
+			}
 		}
 	}
 
@@ -777,6 +933,16 @@ public class Task implements Visitable {
 		}
 
 		private void checkRequiredResources() {
+			ResourceConstraints constraints = getConstraints();
+			if (constraints != null) {
+				ResourceType type = constraints
+						.findMissingRequired(requiredResourceTypes.keySet());
+				if (type != null) {
+					throw new IllegalResourceException(type,
+							type.getRequiredResourceTypes(), this, false);
+				}
+				return;
+			}
 			for (ResourceType type : requiredResourceTypes.keySet()) {
 				if (!type.getRequiredResourceTypes().isEmpty()) {
 					for (ResourceType requiredResourceType : type
@@ -793,6 +959,16 @@ public class Task implements Visitable {
 		}
 
 		private void checkConflictingResources() {
+			ResourceConstraints constraints = getConstraints();
+			if (constraints != null) {
+				ResourceType type = constraints
+						.findConflicting(requiredResourceTypes.keySet());
+				if (type != null) {
+					throw new IllegalResourceException(type,
+							type.getConflictedResourceTypes(), this, true);
+				}
+				return;
+			}
 			for (ResourceType type : requiredResourceTypes.keySet()) {
 				if (!type.getConflictedResourceTypes().isEmpty()) {
 					for (ResourceType conflictingType : type
@@ -809,6 +985,29 @@ public class Task implements Visitable {
 
 		}
 
+		/**
+		 * Returns the constraint table that knows all relations of the
+		 * required resource types, or null if the types belong to different
+		 * branch offices and their relations have to be scanned
+		 */
+		private ResourceConstraints getConstraints() {
+			ResourceExpert expert = null;
+			for (ResourceType type : requiredResourceTypes.keySet()) {
+				if (type.getResourceExpert() == null
+						|| (expert != null && expert != type
+								.getResourceExpert())) {
+					return null;
+				}
+				expert = type.getResourceExpert();
+			}
+			if (expert == null
+					|| !expert.getConstraints().isClosed(
+							requiredResourceTypes.keySet())) {
+				return null;
+			}
+			return expert.getConstraints();
+		}
+
 		/**
 		 * Build a Task after all the optional values have been set. An project
 		 * is required to add the created task to.
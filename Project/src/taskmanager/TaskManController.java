@@ -5,6 +5,7 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Set;
 
 import taskmanager.Planning.PlanningBuilder;
@@ -15,6 +16,7 @@ public class TaskManController {
 	private BranchOffice activeOffice;
 	private Developer activeDeveloper;
 	private TaskManClock taskManClock;
+	private SimulationManager simulationManager;
 
 	/**
 	 * Constructor of TaskManController
@@ -24,6 +26,7 @@ public class TaskManController {
 	public TaskManController(LocalDateTime now) {
 		taskManClock = new TaskManClock(now);
 		company = new Company(taskManClock);
+		simulationManager = new SimulationManager(company);
 	}
 
 	/**
@@ -35,6 +38,16 @@ public class TaskManController {
 		return company;
 	}
 
+	/**
+	 * Returns the simulation manager that keeps the named simulation branches
+	 * of the company
+	 * 
+	 * @return simulationManager : simulation manager
+	 */
+	public SimulationManager getSimulationManager() {
+		return simulationManager;
+	}
+
 	/**
 	 * Log into a Branch office
 	 * 
@@ -71,60 +84,111 @@ public class TaskManController {
 	 *            : the branch office to where the task must be delegated
 	 */
 	public void delegate(Task task, BranchOffice branchOffice) {
-		if (taskIsDelegatedToActiveOffice(task)) {
+		delegate(getActiveOffice(), task, branchOffice);
+	}
+
+	/**
+	 * delegates a task from the given branch office to an other.
+	 * 
+	 * @param office
+	 *            : the branch office delegating the task
+	 * @param task
+	 *            : the task that must be delegated
+	 * @param branchOffice
+	 *            : the branch office to where the task must be delegated
+	 */
+	public void delegate(BranchOffice office, Task task,
+			BranchOffice branchOffice) {
+		if (taskIsDelegatedTo(office, task)) {
 			branchOffice.getDelegatedTaskExpert().addDelegatedTask(
 					task,
-					getActiveOffice().getDelegatedTaskExpert().getOriginalOffice(
-							task));
-			getActiveOffice().getDelegatedTaskExpert().removeDelegatedTask(task);
+					office.getDelegatedTaskExpert().getOriginalOffice(task));
+			office.getDelegatedTaskExpert().removeDelegatedTask(task);
 
 		} else {
 			branchOffice.getDelegatedTaskExpert().addDelegatedTask(task,
-					getActiveOffice());
+					office);
 		}
 		branchOffice.updateTaskResourceTypes(task);
 	}
 
 	/**
-	 * }
-	 * 
-	 * /** Tell the system execution of Task was started. And updates the status
-	 * of all Tasks.
+	 * Tell the system execution of Task was started. And updates the status of
+	 * the Tasks affected by the change.
 	 * 
 	 * @param task
 	 * @param startTime
 	 */
 	public void setExecuting(Task task, LocalDateTime startTime) {
+		setExecuting(getActiveOffice(), task, startTime);
+	}
+
+	/**
+	 * Tell the system execution of a Task of the given office was started.
+	 * Only the given office is used, so the offices can be changed by
+	 * different threads.
+	 * 
+	 * @param office
+	 * @param task
+	 * @param startTime
+	 */
+	public void setExecuting(BranchOffice office, Task task,
+			LocalDateTime startTime) {
 		task.setExecuting(startTime);
-		getActiveOffice().getPlanner().getPlanning(task)
+		office.getPlanner().getPlanning(task)
 				.setTimeSpan(new TimeSpan(startTime, task.getDuration()));
-		updateStatusAll();
+		updateStatusAffectedBy(office, task);
 	}
 
 	/**
 	 * Tell the system execution of Task was finished. And updates the status of
-	 * all Tasks.
+	 * the Tasks affected by the change.
 	 * 
 	 * @param task
 	 * @param endTime
 	 */
 	public void setFinished(Task task, LocalDateTime endTime) {
+		setFinished(getActiveOffice(), task, endTime);
+	}
+
+	/**
+	 * Tell the system execution of a Task of the given office was finished.
+	 * Only the given office is used.
+	 * 
+	 * @param office
+	 * @param task
+	 * @param endTime
+	 */
+	public void setFinished(BranchOffice office, Task task,
+			LocalDateTime endTime) {
 		task.setFinished(endTime);
-		getActiveOffice().getPlanner().getPlanning(task).setEndTime(endTime);
-		updateStatusAll();
+		office.getPlanner().getPlanning(task).setEndTime(endTime);
+		updateStatusAffectedBy(office, task);
 	}
 
 	/**
-	 * Tell the system execution of Task failed. And updates the status of all
-	 * Tasks.
+	 * Tell the system execution of Task failed. And updates the status of the
+	 * Tasks affected by the change.
 	 * 
 	 * @param task
 	 * @param endTime
 	 */
 	public void setFailed(Task task, LocalDateTime endTime) {
+		setFailed(getActiveOffice(), task, endTime);
+	}
+
+	/**
+	 * Tell the system execution of a Task of the given office failed. Only the
+	 * given office is used.
+	 * 
+	 * @param office
+	 * @param task
+	 * @param endTime
+	 */
+	public void setFailed(BranchOffice office, Task task, LocalDateTime endTime) {
 		task.setFailed(endTime);
-		getActiveOffice().getPlanner().getPlanning(task).setEndTime(endTime);
-		updateStatusAll();
+		office.getPlanner().getPlanning(task).setEndTime(endTime);
+		updateStatusAffectedBy(office, task);
 	}
 
 	/**
@@ -159,11 +223,10 @@ public class TaskManController {
 	 *         branch office
 	 */
 	public Set<Task> getAllDelegatablePlannableTasks() {
-		Set<Task> unplannedTasks = new HashSet<Task>(getUnplannedTasks());
-		Set<Task> delegatableTasks = new HashSet<Task>(getUnplannedTasks());
-		for (Task unplannedTask : unplannedTasks) {
-			if (!taskIsDelegatable(unplannedTask)) {
-				delegatableTasks.remove(unplannedTask);
+		Set<Task> delegatableTasks = new HashSet<Task>();
+		for (Task unplannedTask : getUnplannedTasks()) {
+			if (taskIsDelegatable(unplannedTask)) {
+				delegatableTasks.add(unplannedTask);
 			}
 		}
 
@@ -179,18 +242,16 @@ public class TaskManController {
 	}
 
 	private boolean taskIsDelegatedToActiveOffice(Task unplannedTask) {
-		return getActiveOffice().getDelegatedTaskExpert().getAllDelegatedTasks()
+		return taskIsDelegatedTo(getActiveOffice(), unplannedTask);
+	}
+
+	private boolean taskIsDelegatedTo(BranchOffice office, Task unplannedTask) {
+		return office.getDelegatedTaskExpert().getAllDelegatedTasks()
 				.contains(unplannedTask);
 	}
 
 	private boolean taskHasBeenDelegated(Task unplannedTask) {
-		for (BranchOffice office : company.getAllBranchOffices()) {
-			if (office.getDelegatedTaskExpert().getAllDelegatedTasks()
-					.contains(unplannedTask)) {
-				return true;
-			}
-		}
-		return false;
+		return company.getOwnershipRegistry().isDelegated(unplannedTask);
 	}
 
 	/**
@@ -200,11 +261,22 @@ public class TaskManController {
 	 * @return A set of localdateTimes
 	 */
 	public Set<LocalDateTime> getPossibleStartTimes(Task task) {
-		getActiveOffice().checkExecutionCapability(this, task);
+		return getPossibleStartTimes(getActiveOffice(), task);
+	}
 
-		return getActiveOffice().getPlanner().getPossibleStartTimes(task,
-				getTime(),
-				getActiveOffice().getDeveloperExpert().getAllDevelopers());
+	/**
+	 * returns 3 times at which a task could be planned by the given office
+	 * 
+	 * @param office
+	 * @param task
+	 * @return A set of localdateTimes
+	 */
+	public Set<LocalDateTime> getPossibleStartTimes(BranchOffice office,
+			Task task) {
+		office.checkExecutionCapability(task);
+
+		return office.getPlanner().getPossibleStartTimes(task, getTime(),
+				office.getDeveloperExpert().getAllDevelopers());
 	}
 
 	/**
@@ -250,6 +322,17 @@ public class TaskManController {
 		return Collections.unmodifiableSet(projects);
 	}
 
+	/**
+	 * Returns the critical path analysis of the given project at the current
+	 * time
+	 * 
+	 * @param project
+	 * @return the critical path analysis of the project
+	 */
+	public CriticalPathAnalysis getCriticalPathAnalysis(Project project) {
+		return project.getCriticalPathAnalysis();
+	}
+
 	/**
 	 * Returns the set of all resource types
 	 * 
@@ -295,12 +378,11 @@ public class TaskManController {
 	 * @return The BranchOffice responsible for this project
 	 */
 	public BranchOffice getResponsibleBranch(Project project) {
-		for (BranchOffice office : company.getAllBranchOffices()) {
-			if (office.getProjectExpert().getAllProjects().contains(project)) {
-				return office;
-			}
+		BranchOffice office = company.getOwnershipRegistry().getOwner(project);
+		if (office == null) {
+			throw new IllegalArgumentException("Project is not in the system");
 		}
-		throw new IllegalArgumentException("Project is not in the system");
+		return office;
 	}
 
 	/**
@@ -311,20 +393,11 @@ public class TaskManController {
 	 * @return The BranchOffice responsible for this task
 	 */
 	public BranchOffice getResponsibleBranch(Task task) {
-		for (BranchOffice office : company.getAllBranchOffices()) {
-			if (office.getDelegatedTaskExpert().getAllDelegatedTasks()
-					.contains(task)) {
-				return office;
-			}
-		}
-		for (BranchOffice office : company.getAllBranchOffices()) {
-			for (Project project : office.getProjectExpert().getAllProjects()) {
-				if (project.getAllTasks().contains(task)) {
-					return office;
-				}
-			}
+		BranchOffice office = company.getOwnershipRegistry().getExecutor(task);
+		if (office == null) {
+			throw new IllegalArgumentException("Project is not in the system");
 		}
-		throw new IllegalArgumentException("Project is not in the system");
+		return office;
 	}
 
 	/**
@@ -334,7 +407,9 @@ public class TaskManController {
 	 * @return the new BranchOffice
 	 */
 	public BranchOffice createBranchOffice(String location) {
-		return company.createBranchOffice(location);
+		BranchOffice office = company.createBranchOffice(location);
+		simulationManager.addBranchOffice(office);
+		return office;
 	}
 
 	/**
@@ -352,7 +427,28 @@ public class TaskManController {
 	 */
 	public Project createProject(String name, String description,
 			LocalDateTime creationTime, LocalDateTime dueTime) {
-		return getActiveOffice().getProjectExpert().createProject(name, description,
+		return createProject(getActiveOffice(), name, description,
+				creationTime, dueTime);
+	}
+
+	/**
+	 * Creates a new project with the given arguments in the given office
+	 * 
+	 * @param office
+	 *            : office of the project
+	 * @param name
+	 *            : name of the project
+	 * @param description
+	 *            : description of the project
+	 * @param creationTime
+	 *            : creation time of the project
+	 * @param dueTime
+	 *            : due time of the project
+	 */
+	public Project createProject(BranchOffice office, String name,
+			String description, LocalDateTime creationTime,
+			LocalDateTime dueTime) {
+		return office.getProjectExpert().createProject(name, description,
 				creationTime, dueTime);
 	}
 
@@ -381,7 +477,19 @@ public class TaskManController {
 	 *            : given name
 	 */
 	public Developer createDeveloper(String name) {
-		return getActiveOffice().getDeveloperExpert().createDeveloper(name);
+		return createDeveloper(getActiveOffice(), name);
+	}
+
+	/**
+	 * Creates a new developer with the given name in the given office
+	 * 
+	 * @param office
+	 *            : office of the developer
+	 * @param name
+	 *            : given name
+	 */
+	public Developer createDeveloper(BranchOffice office, String name) {
+		return office.getDeveloperExpert().createDeveloper(name);
 	}
 
 	/**
@@ -394,7 +502,71 @@ public class TaskManController {
 	 */
 	public PlanningBuilder createPlanning(LocalDateTime startTime, Task task,
 			Developer developer) {
-		return Planning.builder(startTime, task, developer, getPlanner());
+		return createPlanning(getActiveOffice(), startTime, task, developer);
+	}
+
+	/**
+	 * Start the creation of a planning in the given office
+	 * 
+	 * @param office
+	 * @param startTime
+	 * @param task
+	 * @param developer
+	 * @return the builder capable of creating the planning
+	 */
+	public PlanningBuilder createPlanning(BranchOffice office,
+			LocalDateTime startTime, Task task, Developer developer) {
+		return Planning.builder(startTime, task, developer,
+				office.getPlanner());
+	}
+
+	/**
+	 * Start a batch of plannings that are checked and added at once
+	 * 
+	 * @return an empty batch of plannings of the active office
+	 */
+	public PlanningBatch createPlanningBatch() {
+		return createPlanningBatch(getActiveOffice());
+	}
+
+	/**
+	 * Start a batch of plannings of the given office
+	 * 
+	 * @param office
+	 * @return an empty batch of plannings of the given office
+	 */
+	public PlanningBatch createPlanningBatch(BranchOffice office) {
+		return new PlanningBatch(office.getPlanner());
+	}
+
+	/**
+	 * Plans all unplanned tasks the active office executes at once
+	 *
+	 * @return the plannings of the tasks that could be planned
+	 */
+	public List<Planning> scheduleUnplannedTasks() {
+		return scheduleUnplannedTasks(getActiveOffice());
+	}
+
+	/**
+	 * Plans all unplanned tasks the given office executes at once. The tasks
+	 * are planned as early as their dependencies and the developers and
+	 * resources of the office allow, in the order of the due times of their
+	 * projects. Tasks the office does not have enough developers or resources
+	 * for stay unplanned.
+	 *
+	 * @param office
+	 * @return the plannings of the tasks that could be planned
+	 */
+	public List<Planning> scheduleUnplannedTasks(BranchOffice office) {
+		Set<Task> tasks = new LinkedHashSet<Task>();
+		for (Project project : office.getProjectExpert().getAllProjects()) {
+			tasks.addAll(project.getAllTasks());
+		}
+		tasks.addAll(office.getDelegatedTaskExpert().getAllDelegatedTasks());
+		return new BatchScheduler(office, company.getOwnershipRegistry(),
+				getTime()).schedule(office.getPlanner().getUnplannedTasks(
+				tasks));
 	}
 
 	/**
@@ -460,13 +632,70 @@ public class TaskManController {
 	}
 
 	/**
-	 * Update the status of all tasks
+	 * Update the status of the tasks that can be affected by a status change of
+	 * the given task: the task itself, the tasks depending on it and the tasks
+	 * whose plannings share developers or resources with its planning. Every
+	 * task is updated by the planner of the office owning its project.
+	 * 
+	 * @param office
+	 *            : the office that planned the task
+	 * @param task
+	 *            : the task of which the status changed
+	 */
+	private void updateStatusAffectedBy(BranchOffice office, Task task) {
+		for (Task affectedTask : getTasksAffectedBy(office, task)) {
+			BranchOffice owner = company.getOwnershipRegistry().getOwner(
+					affectedTask);
+			if (owner != null) {
+				owner.getPlanner().updateStatus(affectedTask);
+			}
+		}
+	}
+
+	/**
+	 * Returns the tasks whose status can change when the status of the given
+	 * task changes
+	 * 
+	 * @param office
+	 *            : the office that planned the task
+	 * @param task
+	 *            : the task of which the status changes
+	 * @return the task, its dependents and the tasks sharing its bookings
 	 */
-	private void updateStatusAll() {
-		for (BranchOffice office : company.getAllBranchOffices()) {
-			for (Task task : office.getProjectExpert().getAllTasks())
-				office.getPlanner().updateStatus(task);
+	Set<Task> getTasksAffectedBy(BranchOffice office, Task task) {
+		Set<Task> affected = new LinkedHashSet<Task>();
+		affected.add(task);
+		affected.addAll(task.getDependents());
+		affected.addAll(office.getPlanner().getTasksSharingBookings(task));
+		return affected;
+	}
+
+	/**
+	 * Opens a session in the given office. Sessions of different offices can
+	 * be used by different threads at the same time.
+	 * 
+	 * @param office
+	 *            : the office of the session
+	 * @return a new session without a developer
+	 */
+	public TaskManSession openSession(BranchOffice office) {
+		return openSession(office, null);
+	}
+
+	/**
+	 * Opens a session of the given developer in the given office
+	 * 
+	 * @param office
+	 *            : the office of the session
+	 * @param developer
+	 *            : the developer of the session
+	 * @return a new session
+	 */
+	public TaskManSession openSession(BranchOffice office, Developer developer) {
+		if (office == null) {
+			throw new IllegalArgumentException("A session needs an office");
 		}
+		return new TaskManSession(this, office, developer);
 	}
 
 	/**
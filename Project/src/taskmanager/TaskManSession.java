@@ -0,0 +1,329 @@
+package taskmanager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import taskmanager.Planning.PlanningBuilder;
+import taskmanager.Task.TaskBuilder;
+
+/**
+ * A session of a user logged in to one branch office. Unlike the active office
+ * of the controller, every session keeps its own office and developer, so
+ * users of different offices can work at the same time, each on their own
+ * thread.
+ *
+ * Every branch office has a lock that guards its state. An action of a session
+ * locks its own office and every other office whose state it changes, like
+ * the office owning the task or the office a task is delegated to. The locks
+ * are always taken in the order of the lock numbers of the offices, so
+ * sessions can not wait on each other forever. Actions that only touch one
+ * office only wait for the other sessions of that office.
+ *
+ * The offices of the company, the time of the system and the simulation
+ * branches are not changed by sessions. They are changed through the
+ * controller while no sessions are working.
+ *
+ * @author Groep 8
+ */
+public class TaskManSession {
+
+	private static final Comparator<BranchOffice> LOCK_ORDER = Comparator
+			.comparingInt(BranchOffice::getLockNumber);
+
+	private final TaskManController controller;
+	private final BranchOffice office;
+	private final Developer developer;
+
+	/**
+	 * Creates a session in the given office
+	 *
+	 * @param controller
+	 *            : the controller of the company
+	 * @param office
+	 *            : the office of the session
+	 * @param developer
+	 *            : the developer of the session, or null
+	 */
+	TaskManSession(TaskManController controller, BranchOffice office,
+			Developer developer) {
+		this.controller = controller;
+		this.office = office;
+		this.developer = developer;
+	}
+
+	/**
+	 * @return The branch office of the session
+	 */
+	public BranchOffice getOffice() {
+		return office;
+	}
+
+	/**
+	 * @return The developer of the session
+	 */
+	public Developer getDeveloper() {
+		return developer;
+	}
+
+	/**
+	 * Creates a new project in the office of the session. The creationTime is
+	 * set to the current time
+	 *
+	 * @param name
+	 *            : name of the project
+	 * @param description
+	 *            : description of the project
+	 * @param dueTime
+	 *            : due time of the project
+	 * @return the new project
+	 */
+	public Project createProject(String name, String description,
+			LocalDateTime dueTime) {
+		return withLocks(
+				offices -> Collections.singleton(office),
+				() -> controller.createProject(office, name, description,
+						controller.getTime(), dueTime));
+	}
+
+	/**
+	 * Builds a task in the given project
+	 *
+	 * @param builder
+	 *            : the builder of the task
+	 * @param project
+	 *            : the project of the task
+	 * @return the new task
+	 */
+	public Task createTask(TaskBuilder builder, Project project) {
+		return withLocks(offices -> {
+			Set<BranchOffice> required = new HashSet<BranchOffice>();
+			required.add(office);
+			required.add(controller.getResponsibleBranch(project));
+			return required;
+		}, () -> builder.build(project));
+	}
+
+	/**
+	 * Returns the tasks of the office that are planned for the developer of
+	 * the session
+	 *
+	 * @return All the tasks to which the developer is assigned
+	 */
+	public Set<Task> getAssignedTasks() {
+		return withLocks(offices -> Collections.singleton(office), () -> {
+			Set<Task> tasks = new LinkedHashSet<Task>(office
+					.getProjectExpert().getAllTasks());
+			tasks.addAll(office.getDelegatedTaskExpert()
+					.getAllDelegatedTasks());
+			Planner planner = office.getPlanner();
+			Iterator<Task> iterator = tasks.iterator();
+			while (iterator.hasNext()) {
+				Task task = iterator.next();
+				if (!planner.taskHasPlanning(task)
+						|| !planner.getPlanning(task).getDevelopers()
+								.contains(developer)) {
+					iterator.remove();
+				}
+			}
+			return Collections.unmodifiableSet(tasks);
+		});
+	}
+
+	/**
+	 * returns 3 times at which the office of the session could plan the given
+	 * task
+	 *
+	 * @param task
+	 * @return A set of localdateTimes
+	 */
+	public Set<LocalDateTime> getPossibleStartTimes(Task task) {
+		return withLocks(offices -> officesOf(task),
+				() -> controller.getPossibleStartTimes(office, task));
+	}
+
+	/**
+	 * Plans the given task in the office of the session
+	 *
+	 * @param startTime
+	 *            : planned start time
+	 * @param task
+	 *            : task that is being planned
+	 * @param developers
+	 *            : the assigned developers
+	 * @param resources
+	 *            : the reserved resources
+	 * @return the new planning
+	 * @throws IllegalArgumentException
+	 *             : thrown when no developers are given
+	 * @throws ConlictingPlanningException
+	 *             : thrown when a developer or resource is not available
+	 */
+	public Planning plan(LocalDateTime startTime, Task task,
+			Set<Developer> developers, Set<Resource> resources) {
+		if (developers.isEmpty()) {
+			throw new IllegalArgumentException(
+					"A planning needs at least one developer");
+		}
+		return withLocks(offices -> officesOf(task), () -> {
+			Iterator<Developer> iterator = developers.iterator();
+			PlanningBuilder builder = controller.createPlanning(office,
+					startTime, task, iterator.next());
+			while (iterator.hasNext()) {
+				builder.addDeveloper(iterator.next());
+			}
+			return builder.addAllResources(resources).build();
+		});
+	}
+
+	/**
+	 * Delegates a task of the office of the session to an other office
+	 *
+	 * @param task
+	 *            : the task that must be delegated
+	 * @param branchOffice
+	 *            : the branch office to where the task must be delegated
+	 */
+	public void delegate(Task task, BranchOffice branchOffice) {
+		withLocks(offices -> {
+			Set<BranchOffice> required = officesOf(task);
+			required.add(branchOffice);
+			return required;
+		}, () -> {
+			controller.delegate(office, task, branchOffice);
+			return null;
+		});
+	}
+
+	/**
+	 * Tell the system execution of the given task was started
+	 *
+	 * @param task
+	 * @param startTime
+	 */
+	public void setExecuting(Task task, LocalDateTime startTime) {
+		withLocks(offices -> officesAffectedBy(task, offices), () -> {
+			controller.setExecuting(office, task, startTime);
+			return null;
+		});
+	}
+
+	/**
+	 * Tell the system execution of the given task was finished
+	 *
+	 * @param task
+	 * @param endTime
+	 */
+	public void setFinished(Task task, LocalDateTime endTime) {
+		withLocks(offices -> officesAffectedBy(task, offices), () -> {
+			controller.setFinished(office, task, endTime);
+			return null;
+		});
+	}
+
+	/**
+	 * Tell the system execution of the given task failed
+	 *
+	 * @param task
+	 * @param endTime
+	 */
+	public void setFailed(Task task, LocalDateTime endTime) {
+		withLocks(offices -> officesAffectedBy(task, offices), () -> {
+			controller.setFailed(office, task, endTime);
+			return null;
+		});
+	}
+
+	/**
+	 * Returns the office of the session and the office owning the given task
+	 */
+	private Set<BranchOffice> officesOf(Task task) {
+		Set<BranchOffice> offices = new HashSet<BranchOffice>();
+		offices.add(office);
+		BranchOffice owner = controller.getCompany().getOwnershipRegistry()
+				.getOwner(task);
+		if (owner != null) {
+			offices.add(owner);
+		}
+		return offices;
+	}
+
+	/**
+	 * Returns the offices owning the tasks whose status can change with the
+	 * status of the given task. The affected tasks can only be read while the
+	 * office of the session and the office owning the task are locked, until
+	 * then only those offices are returned.
+	 */
+	private Set<BranchOffice> officesAffectedBy(Task task,
+			Set<BranchOffice> locked) {
+		Set<BranchOffice> offices = officesOf(task);
+		if (!locked.containsAll(offices)) {
+			return offices;
+		}
+		OwnershipRegistry registry = controller.getCompany()
+				.getOwnershipRegistry();
+		for (Task affected : controller.getTasksAffectedBy(office, task)) {
+			BranchOffice owner = registry.getOwner(affected);
+			if (owner != null) {
+				offices.add(owner);
+			}
+		}
+		return offices;
+	}
+
+	/**
+	 * Runs the given action while the offices it needs are locked. The needed
+	 * offices are asked while the offices found so far are locked. When more
+	 * offices are needed, all locks are released and taken again in order
+	 * with the new offices, until every needed office is locked.
+	 *
+	 * @param needed
+	 *            : the offices needed by the action, given the locked
+	 *            offices
+	 * @param action
+	 *            : the action to run
+	 * @return the result of the action
+	 */
+	private <T> T withLocks(
+			Function<Set<BranchOffice>, Set<BranchOffice>> needed,
+			Supplier<T> action) {
+		Set<BranchOffice> offices = new HashSet<BranchOffice>();
+		offices.add(office);
+		while (true) {
+			List<BranchOffice> locked = lock(offices);
+			try {
+				Set<BranchOffice> required = needed.apply(offices);
+				if (offices.containsAll(required)) {
+					return action.get();
+				}
+				offices.addAll(required);
+			} finally {
+				unlock(locked);
+			}
+		}
+	}
+
+	private static List<BranchOffice> lock(Collection<BranchOffice> offices) {
+		List<BranchOffice> ordered = new ArrayList<BranchOffice>(offices);
+		ordered.sort(LOCK_ORDER);
+		for (BranchOffice office : ordered) {
+			office.getLock().lock();
+		}
+		return ordered;
+	}
+
+	private static void unlock(List<BranchOffice> locked) {
+		for (int i = locked.size() - 1; i >= 0; i--) {
+			locked.get(i).getLock().unlock();
+		}
+	}
+}
@@ -0,0 +1,29 @@
+package taskmanager.exception;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+
+import taskmanager.Task;
+
+/**
+ * Thrown when a batch of plannings is built in which some plannings book a
+ * developer or resource that is already booked. Every conflict of the batch
+ * is reported: for every task of the batch with a conflict, the tasks it
+ * conflicts with.
+ */
+public class ConflictingPlanningsException extends RuntimeException {
+
+	private static final long serialVersionUID = 6317204880915042741L;
+
+	private Map<Task, Set<Task>> conflicts;
+
+	public ConflictingPlanningsException(Map<Task, Set<Task>> conflicts) {
+		super(conflicts.size() + " plannings of the batch have conflicts");
+		this.conflicts = conflicts;
+	}
+
+	public Map<Task, Set<Task>> getConflicts() {
+		return Collections.unmodifiableMap(conflicts);
+	}
+}
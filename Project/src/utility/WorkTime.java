@@ -24,8 +24,22 @@ public class WorkTime {
 	 */
 	public static LocalDateTime getFinishTime(LocalDateTime current,
 			Duration duration) {
-		WorkTimeSimulation wts = new WorkTimeSimulation(current, duration);
-		return wts.workUntilFinished();
+		if (!isWholeMinutes(duration) || !WorkWeek.isSupported(current)) {
+			WorkTimeSimulation wts = new WorkTimeSimulation(current, duration);
+			return wts.workUntilFinished();
+		}
+		if (duration.isZero() || duration.isNegative()) {
+			return current;
+		}
+		return WorkWeek.timeAtWorkMinutes(WorkWeek.workMinutesUntil(current)
+				+ duration.toMinutes());
+	}
+
+	/**
+	 * checks whether the given duration consists of whole minutes
+	 */
+	private static boolean isWholeMinutes(Duration duration) {
+		return duration.getSeconds() % 60 == 0 && duration.getNano() == 0;
 	}
 
 	/**
@@ -43,6 +57,18 @@ public class WorkTime {
 			throw new IllegalArgumentException("first day is after the second");
 		}
 
+		if (WorkWeek.isSupported(first) && WorkWeek.isSupported(second)) {
+			long minutes = WorkWeek.workMinutesUntil(second)
+					- WorkWeek.workMinutesUntil(first);
+			// the hour after the last whole hour only reaches the second time
+			// when that time directly follows work time
+			if (WorkWeek.followsWorkTime(second)) {
+				return Duration.ofHours((minutes + 59) / 60);
+			} else {
+				return Duration.ofHours(minutes / 60 + 1);
+			}
+		}
+
 		Duration hoursWorked = Duration.ofHours(0);
 		LocalDateTime working = WorkTime.getFinishTime(first, hoursWorked);
 		
@@ -0,0 +1,177 @@
+package utility;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Static class that does work time arithmetic in closed form. The schedules of
+ * the days of the week defined by WorkDay are compiled once into minute
+ * offsets. A time is then mapped to its position: the number of work minutes
+ * between a fixed monday and that time. Whole work weeks are skipped by a
+ * division and the position within a day is found by walking the few work
+ * intervals of that day.
+ *
+ * Only times with whole minutes that lie inside the schedule of their day are
+ * supported, other times must be handled by the WorkTimeSimulation.
+ *
+ * @author groep 8
+ *
+ */
+public class WorkWeek {
+
+	private static final int MINUTES_PER_DAY = 24 * 60;
+	private static final int DAYS_PER_WEEK = 7;
+
+	/** epoch day of monday 5 january 1970, the origin of all positions */
+	private static final long FIRST_MONDAY = 4;
+
+	private static final int[][] WORK_BEGIN = new int[DAYS_PER_WEEK][];
+	private static final int[][] WORK_END = new int[DAYS_PER_WEEK][];
+	private static final int[] SCHEDULE_BEGIN = new int[DAYS_PER_WEEK];
+	private static final int[] SCHEDULE_END = new int[DAYS_PER_WEEK];
+	private static final int[] WORK_OF_DAY = new int[DAYS_PER_WEEK];
+	private static final int[] WORK_BEFORE_DAY = new int[DAYS_PER_WEEK];
+	private static final int WORK_OF_WEEK;
+
+	static {
+		int workOfWeek = 0;
+		for (int day = 0; day < DAYS_PER_WEEK; day++) {
+			LocalDate date = LocalDate.ofEpochDay(FIRST_MONDAY + day);
+			List<WorkTimeInterval> schedule = WorkDay.getScheduleOfDate(date);
+			List<WorkTimeInterval> work = new ArrayList<WorkTimeInterval>();
+			for (WorkTimeInterval interval : schedule) {
+				if (interval.getType() == WorkTimeIntervalType.WORK) {
+					work.add(interval);
+				}
+			}
+			WORK_BEGIN[day] = new int[work.size()];
+			WORK_END[day] = new int[work.size()];
+			for (int i = 0; i < work.size(); i++) {
+				WORK_BEGIN[day][i] = minuteOfDay(work.get(i).getBegin()
+						.getHour(), work.get(i).getBegin().getMinute());
+				WORK_END[day][i] = minuteOfDay(work.get(i).getEnd().getHour(),
+						work.get(i).getEnd().getMinute());
+				WORK_OF_DAY[day] += WORK_END[day][i] - WORK_BEGIN[day][i];
+			}
+			SCHEDULE_BEGIN[day] = minuteOfDay(schedule.get(0).getBegin()
+					.getHour(), schedule.get(0).getBegin().getMinute());
+			WorkTimeInterval last = schedule.get(schedule.size() - 1);
+			SCHEDULE_END[day] = minuteOfDay(last.getEnd().getHour(), last
+					.getEnd().getMinute());
+			WORK_BEFORE_DAY[day] = workOfWeek;
+			workOfWeek += WORK_OF_DAY[day];
+		}
+		WORK_OF_WEEK = workOfWeek;
+	}
+
+	private static int minuteOfDay(int hour, int minute) {
+		return hour * 60 + minute;
+	}
+
+	private static int dayOfWeek(long epochDay) {
+		// the remainder of a long division is always below the amount of days
+		long day = Math.floorMod(epochDay - FIRST_MONDAY, (long) DAYS_PER_WEEK);
+		return (int) day;
+	}
+
+	private static long week(long epochDay) {
+		return Math.floorDiv(epochDay - FIRST_MONDAY, DAYS_PER_WEEK);
+	}
+
+	/**
+	 * Checks whether the work time arithmetic of this class can be used for
+	 * the given time. This is the case when the time has no seconds and lies
+	 * inside the schedule of its day.
+	 *
+	 * @param time
+	 *            : the time to check
+	 * @return true if the time is supported
+	 */
+	public static boolean isSupported(LocalDateTime time) {
+		if (WORK_OF_WEEK == 0 || time.getSecond() != 0 || time.getNano() != 0) {
+			return false;
+		}
+		int day = time.getDayOfWeek().getValue() - DayOfWeek.MONDAY.getValue();
+		int minute = minuteOfDay(time.getHour(), time.getMinute());
+		return minute == 0
+				|| (minute >= SCHEDULE_BEGIN[day] && minute < SCHEDULE_END[day]);
+	}
+
+	/**
+	 * Returns the position of the given time: the number of work minutes
+	 * between monday 5 january 1970 and the given time. Times before that
+	 * monday have a negative position.
+	 *
+	 * @param time
+	 *            : a supported time
+	 * @return the position of the time in work minutes
+	 */
+	public static long workMinutesUntil(LocalDateTime time) {
+		long epochDay = time.toLocalDate().toEpochDay();
+		int day = dayOfWeek(epochDay);
+		int minute = minuteOfDay(time.getHour(), time.getMinute());
+		long position = week(epochDay) * WORK_OF_WEEK + WORK_BEFORE_DAY[day];
+		for (int i = 0; i < WORK_BEGIN[day].length; i++) {
+			if (minute >= WORK_END[day][i]) {
+				position += WORK_END[day][i] - WORK_BEGIN[day][i];
+			} else if (minute > WORK_BEGIN[day][i]) {
+				position += minute - WORK_BEGIN[day][i];
+			}
+		}
+		return position;
+	}
+
+	/**
+	 * Returns the earliest time that has the given position. This is the time
+	 * at which the work minute ending at that position is finished.
+	 *
+	 * @param position
+	 *            : position in work minutes
+	 * @return the earliest time with the given position
+	 */
+	public static LocalDateTime timeAtWorkMinutes(long position) {
+		long week = Math.floorDiv(position - 1, WORK_OF_WEEK);
+		long rest = position - week * WORK_OF_WEEK;
+		int day = 0;
+		while (WORK_BEFORE_DAY[day] + WORK_OF_DAY[day] < rest) {
+			day++;
+		}
+		rest -= WORK_BEFORE_DAY[day];
+		int minute = 0;
+		for (int i = 0; i < WORK_BEGIN[day].length; i++) {
+			int length = WORK_END[day][i] - WORK_BEGIN[day][i];
+			if (rest <= length) {
+				minute = WORK_BEGIN[day][i] + (int) rest;
+				break;
+			}
+			rest -= length;
+		}
+		long epochDay = FIRST_MONDAY + week * DAYS_PER_WEEK + day;
+		if (minute == MINUTES_PER_DAY) {
+			return LocalDate.ofEpochDay(epochDay + 1).atStartOfDay();
+		}
+		return LocalDate.ofEpochDay(epochDay).atTime(minute / 60, minute % 60);
+	}
+
+	/**
+	 * Checks whether the minute just before the given time is a work minute.
+	 * For such a time, it is the earliest time with its position.
+	 *
+	 * @param time
+	 *            : a supported time
+	 * @return true if the given time directly follows a work minute
+	 */
+	public static boolean followsWorkTime(LocalDateTime time) {
+		int day = dayOfWeek(time.toLocalDate().toEpochDay());
+		int minute = minuteOfDay(time.getHour(), time.getMinute());
+		for (int i = 0; i < WORK_BEGIN[day].length; i++) {
+			if (minute > WORK_BEGIN[day][i] && minute <= WORK_END[day][i]) {
+				return true;
+			}
+		}
+		return false;
+	}
+}
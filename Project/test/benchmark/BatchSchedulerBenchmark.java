@@ -0,0 +1,58 @@
+package benchmark;
+
+import java.util.List;
+
+import taskmanager.BranchOffice;
+import taskmanager.Planning;
+import taskmanager.TaskManController;
+import workload.DagShape;
+import workload.Workload;
+import workload.WorkloadSpec;
+
+/**
+ * Plans the whole unplanned backlog of a generated office at once with the
+ * batch scheduler, for every dependency shape and an increasing amount of
+ * tasks. Only a tenth of the tasks is planned beforehand, so most of the
+ * backlog is scheduled.
+ *
+ * Usage: BatchSchedulerBenchmark [tasks...]
+ */
+public class BatchSchedulerBenchmark {
+
+	private static final int PROJECTS = 20;
+	private static final int DEVELOPERS = 20;
+	private static final int RESOURCES = 6;
+
+	public static void main(String[] args) {
+		int[] sizes = { 1000, 10000 };
+		if (args.length > 0) {
+			sizes = new int[args.length];
+			for (int i = 0; i < args.length; i++) {
+				sizes[i] = Integer.parseInt(args[i]);
+			}
+		}
+		// warm up
+		schedule(DagShape.LAYERED, sizes[0]);
+
+		for (int tasks : sizes) {
+			for (DagShape shape : DagShape.values()) {
+				schedule(shape, tasks);
+			}
+		}
+	}
+
+	private static void schedule(DagShape shape, int tasks) {
+		TaskManController tmc = Workload.generate(
+				WorkloadSpec.builder().branches(1).developers(DEVELOPERS)
+						.resourcesPerType(RESOURCES).projects(PROJECTS)
+						.tasks(tasks).shape(shape, 3).planned(0.1, 0.4)
+						.delegations(0).build()).build();
+		BranchOffice office = tmc.getAllOffices().iterator().next();
+		long begin = System.nanoTime();
+		List<Planning> plannings = tmc.scheduleUnplannedTasks(office);
+		long elapsed = System.nanoTime() - begin;
+		System.out.printf("%-11s %6d tasks %6d planned %10.1f ms %8.2f us/task%n",
+				shape, tasks, plannings.size(), elapsed / 1e6, elapsed / 1e3
+						/ Math.max(1, plannings.size()));
+	}
+}
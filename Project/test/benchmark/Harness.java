@@ -0,0 +1,118 @@
+package benchmark;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.Callable;
+
+/**
+ * Measures the throughput and the allocations of an operation. The operation
+ * is first run for some warm up iterations, then for some measured
+ * iterations of a fixed time. For every benchmark the mean throughput over the
+ * measured iterations is printed with its standard deviation, together with
+ * the time and the bytes allocated per operation.
+ *
+ * The results of the operations are kept in a sink, so the operations can not
+ * be left out by the compiler.
+ */
+class Harness {
+
+	private final int warmUps;
+	private final int iterations;
+	private final long iterationNanos;
+	private final com.sun.management.ThreadMXBean threads;
+	private int sink;
+
+	/**
+	 * @param warmUps
+	 *            : the amount of warm up iterations
+	 * @param iterations
+	 *            : the amount of measured iterations
+	 * @param iterationMillis
+	 *            : the time of every iteration
+	 */
+	Harness(int warmUps, int iterations, long iterationMillis) {
+		this.warmUps = warmUps;
+		this.iterations = iterations;
+		this.iterationNanos = iterationMillis * 1000000;
+		this.threads = (com.sun.management.ThreadMXBean) ManagementFactory
+				.getThreadMXBean();
+		this.threads.setThreadAllocatedMemoryEnabled(true);
+	}
+
+	/**
+	 * Prints the header of the results
+	 */
+	void printHeader() {
+		System.out.printf("%-40s %14s %10s %12s %12s%n", "benchmark",
+				"ops/s", "error", "ns/op", "B/op");
+	}
+
+	/**
+	 * Runs and measures the given operation
+	 *
+	 * @param name
+	 *            : the name of the benchmark
+	 * @param operation
+	 *            : the operation to measure
+	 */
+	void run(String name, Callable<?> operation) throws Exception {
+		for (int i = 0; i < warmUps; i++) {
+			iteration(operation);
+		}
+		double[] throughputs = new double[iterations];
+		long operations = 0;
+		long nanos = 0;
+		long bytes = 0;
+		for (int i = 0; i < iterations; i++) {
+			long[] result = iteration(operation);
+			operations += result[0];
+			nanos += result[1];
+			bytes += result[2];
+			throughputs[i] = result[0] * 1e9 / result[1];
+		}
+		double mean = 0;
+		for (double throughput : throughputs) {
+			mean += throughput;
+		}
+		mean /= iterations;
+		double variance = 0;
+		for (double throughput : throughputs) {
+			variance += (throughput - mean) * (throughput - mean);
+		}
+		double error = iterations > 1 ? Math.sqrt(variance / (iterations - 1))
+				: 0;
+		System.out.printf("%-40s %14.1f %10.1f %12.1f %12.1f%n", name, mean,
+				error, (double) nanos / operations, (double) bytes
+						/ operations);
+	}
+
+	/**
+	 * Runs the operation for one iteration
+	 *
+	 * @return the amount of operations, the elapsed nanoseconds and the
+	 *         allocated bytes
+	 */
+	private long[] iteration(Callable<?> operation) throws Exception {
+		long thread = Thread.currentThread().getId();
+		long allocatedBefore = threads.getThreadAllocatedBytes(thread);
+		long begin = System.nanoTime();
+		long end = begin + iterationNanos;
+		long operations = 0;
+		long now;
+		do {
+			Object result = operation.call();
+			sink += result == null ? 0 : result.hashCode();
+			operations++;
+			now = System.nanoTime();
+		} while (now < end);
+		long allocated = threads.getThreadAllocatedBytes(thread)
+				- allocatedBefore;
+		return new long[] { operations, now - begin, allocated };
+	}
+
+	/**
+	 * @return the combined results of all operations
+	 */
+	int getSink() {
+		return sink;
+	}
+}
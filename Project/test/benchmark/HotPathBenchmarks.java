@@ -0,0 +1,187 @@
+package benchmark;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import parser.Parser;
+import taskmanager.BenchmarkAccess;
+import taskmanager.BranchOffice;
+import taskmanager.Developer;
+import taskmanager.Project;
+import taskmanager.Task;
+import taskmanager.TaskManController;
+import taskmanager.TaskStatus;
+import utility.TimeSpan;
+import utility.WorkTime;
+import workload.Workload;
+import workload.WorkloadSpec;
+
+/**
+ * Measures the throughput and allocations of the hot paths of TaskMan on a
+ * generated workload: the work time calculations, the start time search and
+ * the availability check of the planner, the estimated finish time of tasks,
+ * saving and loading the system and importing a TaskMan file. Saving and
+ * loading is measured on its own and around a typical change of the system,
+ * which the load undoes again. Run it before and after a change of the
+ * planner to compare the numbers.
+ *
+ * Usage: HotPathBenchmarks [offices] [developers] [resources] [tasks]
+ * [iterations] [iteration ms]
+ */
+public class HotPathBenchmarks {
+
+	private static final int INPUTS = 64;
+
+	private static int next = 0;
+
+	public static void main(String[] args) throws Exception {
+		int offices = args.length > 0 ? Integer.parseInt(args[0]) : 3;
+		int developers = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+		int resources = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+		int tasks = args.length > 3 ? Integer.parseInt(args[3]) : 2000;
+		int iterations = args.length > 4 ? Integer.parseInt(args[4]) : 5;
+		long millis = args.length > 5 ? Long.parseLong(args[5]) : 1000;
+
+		System.out.printf(
+				"%d offices, %d developers, %d resources and %d tasks per office%n",
+				offices, developers, resources, tasks);
+		Workload workload = Workload.generate(WorkloadSpec.builder()
+				.branches(offices).developers(developers)
+				.resourcesPerType(resources).tasks(tasks).build());
+		TaskManController tmc = workload.build();
+		BranchOffice office = tmc.getAllOffices().iterator().next();
+		tmc.logIn(office);
+		List<Task> unplanned = new ArrayList<Task>();
+		List<Project> projects = new ArrayList<Project>(
+				tmc.getAllProjectsActiveOffice());
+		List<Task> available = new ArrayList<Task>();
+		List<Task> lastTasks = new ArrayList<Task>();
+		// the unplanned tasks that are not delegated, the planned tasks that
+		// can be started and the last task of every project of the first
+		// office
+		for (Project project : projects) {
+			Task last = null;
+			for (Task task : project.getAllTasks()) {
+				if (!tmc.getPlanner().taskHasPlanning(task)
+						&& tmc.getResponsibleBranch(task).equals(office)) {
+					unplanned.add(task);
+				} else if (tmc.getPlanner().taskHasPlanning(task)
+						&& task.getStatus() == TaskStatus.AVAILABLE) {
+					available.add(task);
+				}
+				last = task;
+			}
+			lastTasks.add(last);
+		}
+		Set<Developer> developer = Collections.singleton(tmc
+				.getAllDevelopers().iterator().next());
+
+		LocalDateTime[] starts = new LocalDateTime[INPUTS];
+		Duration[] durations = new Duration[INPUTS];
+		for (int i = 0; i < INPUTS; i++) {
+			starts[i] = workload.getSystemTime().plusMinutes(i * 97);
+			durations[i] = Duration.ofMinutes(30 + i * 41);
+		}
+
+		Harness harness = new Harness(3, iterations, millis);
+		harness.printHeader();
+		harness.run("WorkTime.getFinishTime", () -> {
+			int i = next();
+			return WorkTime.getFinishTime(starts[i], durations[i]);
+		});
+		harness.run("WorkTime.durationBetween", () -> {
+			int i = next();
+			return WorkTime.durationBetween(starts[i],
+					starts[i].plus(durations[i]));
+		});
+		harness.run("Planner.getPossibleStartTimes", () -> {
+			BenchmarkAccess.clearStartTimeCache(office);
+			return tmc.getPossibleStartTimes(office,
+					unplanned.get(next() % unplanned.size()));
+		});
+		harness.run("Planner.getPossibleStartTimes (cached)", () -> tmc
+				.getPossibleStartTimes(office,
+						unplanned.get(next() % unplanned.size())));
+		harness.run("Planner.isPlannableForTimeSpan", () -> {
+			int i = next();
+			return BenchmarkAccess.isPlannableForTimeSpan(office,
+					unplanned.get(i % unplanned.size()), developer,
+					new TimeSpan(starts[i], Duration.ofHours(1)));
+		});
+		harness.run("Task.getEstimatedFinishTime", () -> lastTasks.get(
+				next() % lastTasks.size()).getEstimatedFinishTime());
+		harness.run("TaskManController.saveSystem (unchanged)", () -> {
+			tmc.saveSystem();
+			return null;
+		});
+		harness.run("TaskManController.loadSystem (unchanged)", () -> {
+			tmc.loadSystem();
+			return null;
+		});
+		// every change is undone by the load, so each iteration starts from
+		// the same state
+		harness.run("save, plan a task, load", () -> {
+			int i = next();
+			tmc.saveSystem();
+			tmc.createPlanning(starts[i].plusYears(1),
+					unplanned.get(i % unplanned.size()),
+					developer.iterator().next()).build();
+			tmc.loadSystem();
+			return null;
+		});
+		harness.run("save, move a planning, load", () -> {
+			int i = next();
+			Task task = available.get(i % available.size());
+			tmc.saveSystem();
+			tmc.getPlanner().getPlanning(task).setTimeSpan(
+					new TimeSpan(starts[i].plusYears(1), task.getDuration()));
+			tmc.loadSystem();
+			return null;
+		});
+		harness.run("save, create a task, load", () -> {
+			int i = next();
+			tmc.saveSystem();
+			Task.builder("benchmark", Duration.ofHours(1 + i % 8), 0.1).build(
+					projects.get(i % projects.size()));
+			tmc.loadSystem();
+			return null;
+		});
+		harness.run("save, start a task, load", () -> {
+			int i = next();
+			Task task = available.get(i % available.size());
+			tmc.saveSystem();
+			tmc.setExecuting(task, tmc.getPlanner().getPlanning(task)
+					.getTimeSpan().getBegin());
+			tmc.loadSystem();
+			return null;
+		});
+
+		Path file = workload.writeTemporary();
+		try {
+			harness.run("Parser.parse", () -> new Parser().parse(file
+					.toString()));
+		} finally {
+			Files.delete(file);
+		}
+
+		// moving the clock makes every task estimate its finish time again,
+		// so this is measured last
+		harness.run("Task.getEstimatedFinishTime (moved)", () -> {
+			tmc.advanceTime(tmc.getTime().plusSeconds(1));
+			return lastTasks.get(next() % lastTasks.size())
+					.getEstimatedFinishTime();
+		});
+		System.out.println("sink " + harness.getSink());
+	}
+
+	private static int next() {
+		next = (next + 1) % INPUTS;
+		return next;
+	}
+}
@@ -0,0 +1,69 @@
+package benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import parser.Parser;
+import workload.Workload;
+import workload.WorkloadSpec;
+
+/**
+ * Imports generated TaskMan files with an increasing amount of tasks. The
+ * tasks of the generated workload depend on a few tasks of their project and
+ * half of them is planned, so the import time per task should stay the same
+ * when the amount of tasks grows.
+ *
+ * Usage: ParserBenchmark [tasks...]
+ */
+public class ParserBenchmark {
+
+	private static final int PROJECTS = 10;
+	private static final int DEVELOPERS = 20;
+
+	public static void main(String[] args) throws IOException {
+		int[] sizes = { 1000, 10000, 100000 };
+		if (args.length > 0) {
+			sizes = new int[args.length];
+			for (int i = 0; i < args.length; i++) {
+				sizes[i] = Integer.parseInt(args[i]);
+			}
+		}
+		// warm up
+		Path warmUp = generate(sizes[0]);
+		importFile(warmUp, false);
+		Files.delete(warmUp);
+
+		for (int tasks : sizes) {
+			Path file = generate(tasks);
+			try {
+				for (boolean streaming : new boolean[] { false, true }) {
+					long begin = System.nanoTime();
+					importFile(file, streaming);
+					long elapsed = System.nanoTime() - begin;
+					System.out.printf("%-9s %7d tasks %10.1f ms %8.2f us/task%n",
+							streaming ? "streaming" : "parse", tasks,
+							elapsed / 1e6, elapsed / 1e3 / tasks);
+				}
+			} finally {
+				Files.delete(file);
+			}
+		}
+	}
+
+	private static void importFile(Path file, boolean streaming)
+			throws IOException {
+		if (streaming) {
+			new Parser().parseStreaming(file.toString());
+		} else {
+			new Parser().parse(file.toString());
+		}
+	}
+
+	private static Path generate(int tasks) throws IOException {
+		return Workload.generate(
+				WorkloadSpec.builder().branches(1).developers(DEVELOPERS)
+						.projects(PROJECTS).tasks(tasks).delegations(0)
+						.build()).writeTemporary();
+	}
+}
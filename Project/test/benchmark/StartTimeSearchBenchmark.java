@@ -0,0 +1,97 @@
+package benchmark;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import taskmanager.BenchmarkAccess;
+import taskmanager.BranchOffice;
+import taskmanager.Developer;
+import taskmanager.Planning.PlanningBuilder;
+import taskmanager.Project;
+import taskmanager.Resource;
+import taskmanager.ResourceType;
+import taskmanager.StartTimeSearch;
+import taskmanager.Task;
+import taskmanager.TaskManController;
+
+/**
+ * Compares the start time searches on a branch office in which every
+ * developer and resource is booked for most of the coming months. Every
+ * search is measured without and with the start times the planner
+ * remembers.
+ *
+ * Usage: StartTimeSearchBenchmark [developers] [weeks booked] [repetitions]
+ */
+public class StartTimeSearchBenchmark {
+
+	public static void main(String[] args) {
+		int developers = args.length > 0 ? Integer.parseInt(args[0]) : 10;
+		int weeks = args.length > 1 ? Integer.parseInt(args[1]) : 26;
+		int repetitions = args.length > 2 ? Integer.parseInt(args[2]) : 20;
+
+		LocalDateTime now = LocalDateTime.of(2015, 3, 2, 8, 0);
+		TaskManController tmc = new TaskManController(now);
+		BranchOffice office = tmc.createBranchOffice("benchmark");
+		tmc.logIn(office);
+		ResourceType type = ResourceType.builder("room").build(office);
+		List<Resource> rooms = new ArrayList<Resource>();
+		for (int i = 0; i < developers; i++) {
+			rooms.add(type.createResource("room " + i));
+		}
+		Project project = tmc.createProject("booked", "benchmark",
+				now.plusYears(2));
+
+		// every developer works on tasks of one day with a room, leaving one
+		// free hour every four weeks
+		List<Developer> staff = new ArrayList<Developer>();
+		for (int i = 0; i < developers; i++) {
+			staff.add(tmc.createDeveloper("dev " + i));
+		}
+		for (int day = 0; day < weeks * 7; day++) {
+			LocalDateTime start = now.plusDays(day);
+			if (start.getDayOfWeek().getValue() > 5) {
+				continue;
+			}
+			boolean freeHour = start.getDayOfWeek().getValue() == 5
+					&& day / 7 % 4 == 3;
+			Duration length = Duration.ofHours(freeHour ? 8 : 9);
+			for (int i = 0; i < developers; i++) {
+				Task booked = Task.builder("booked", length, 0)
+						.addRequiredResourceType(type, 1).build(project);
+				PlanningBuilder builder = tmc.createPlanning(start, booked,
+						staff.get(i));
+				builder.addResources(rooms.get(i)).build();
+			}
+		}
+
+		Task task = Task.builder("to plan", Duration.ofHours(1), 0)
+				.amountOfRequiredDevelopers(developers / 2)
+				.addRequiredResourceType(type, 1).build(project);
+
+		for (StartTimeSearch search : StartTimeSearch.values()) {
+			tmc.getPlanner().setStartTimeSearch(search);
+			// warm up
+			Set<LocalDateTime> startTimes = tmc.getPossibleStartTimes(task);
+			// the remembered start times are forgotten before every search,
+			// so the search itself is measured
+			long begin = System.nanoTime();
+			for (int i = 0; i < repetitions; i++) {
+				BenchmarkAccess.clearStartTimeCache(office);
+				tmc.getPossibleStartTimes(task);
+			}
+			long uncached = System.nanoTime() - begin;
+			begin = System.nanoTime();
+			for (int i = 0; i < repetitions; i++) {
+				tmc.getPossibleStartTimes(task);
+			}
+			long cached = System.nanoTime() - begin;
+			System.out.printf(
+					"%-13s %10.3f ms/search %10.3f ms/cached search  %s%n",
+					search, uncached / 1e6 / repetitions, cached / 1e6
+							/ repetitions, startTimes);
+		}
+	}
+}
@@ -0,0 +1,101 @@
+package parser;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.channels.Channels;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.Test;
+
+import taskmanager.BranchOffice;
+import taskmanager.CompanySnapshot;
+import taskmanager.Project;
+import taskmanager.TaskManController;
+import workload.DagShape;
+import workload.Workload;
+import workload.WorkloadSpec;
+
+/**
+ * Imports generated workloads of every dependency shape and checks that every
+ * way of importing builds the same company as the workload builds in memory.
+ */
+public class ParserStressTester {
+
+	private static final int TASKS = 300;
+
+	@Test
+	public void testImportsBuildGeneratedCompany() throws IOException {
+		for (DagShape shape : DagShape.values()) {
+			Workload workload = Workload.generate(WorkloadSpec.builder()
+					.seed(shape.ordinal()).branches(3).shape(shape, 3)
+					.tasks(TASKS).build());
+			TaskManController built = workload.build();
+			assertCounts(workload, built);
+
+			byte[] expected = snapshot(built);
+			Path file = workload.writeTemporary();
+			try {
+				String name = file.toString();
+				assertArrayEquals(shape.name(), expected,
+						snapshot(new Parser().parse(name)));
+				assertArrayEquals(shape.name(), expected,
+						snapshot(new Parser().parseStreaming(name)));
+				assertArrayEquals(shape.name(), expected,
+						snapshot(new Parser().parseParallel(name)));
+			} finally {
+				Files.delete(file);
+			}
+		}
+	}
+
+	@Test
+	public void testGenerationIsDeterministic() {
+		WorkloadSpec spec = WorkloadSpec.builder().shape(DagShape.RANDOM, 4)
+				.build();
+		assertEquals(text(Workload.generate(spec)),
+				text(Workload.generate(spec)));
+		assertFalse(text(Workload.generate(spec)).equals(
+				text(Workload.generate(WorkloadSpec.builder().seed(2)
+						.shape(DagShape.RANDOM, 4).build()))));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testDelegationsNeedTwoBranches() {
+		WorkloadSpec.builder().branches(1).delegations(1).build();
+	}
+
+	private void assertCounts(Workload workload, TaskManController tmc) {
+		int tasks = 0;
+		int plannings = 0;
+		int delegated = 0;
+		for (BranchOffice office : tmc.getAllOffices()) {
+			tmc.logIn(office);
+			for (Project project : tmc.getAllProjectsActiveOffice()) {
+				tasks += project.getAllTasks().size();
+			}
+			plannings += tmc.getPlanner().getAllPlannings().size();
+			delegated += tmc.getAllDelegatedTasks().size();
+		}
+		assertEquals(workload.getTaskCount(), tasks);
+		assertEquals(workload.getPlanningCount(), plannings);
+		assertEquals(workload.getDelegationCount(), delegated);
+	}
+
+	private static String text(Workload workload) {
+		StringWriter writer = new StringWriter();
+		workload.write(writer);
+		return writer.toString();
+	}
+
+	private static byte[] snapshot(TaskManController tmc) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		CompanySnapshot.write(tmc, Channels.newChannel(bytes));
+		return bytes.toByteArray();
+	}
+}
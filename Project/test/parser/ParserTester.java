@@ -1,11 +1,15 @@
 package parser;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
+import java.io.ByteArrayOutputStream;
 import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.channels.Channels;
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
@@ -17,6 +21,7 @@ import java.util.stream.Collectors;
 import org.junit.BeforeClass;
 import org.junit.Test;
 
+import taskmanager.CompanySnapshot;
 import taskmanager.Developer;
 import taskmanager.Planning;
 import taskmanager.Project;
@@ -546,4 +551,42 @@ public class ParserTester {
 				new ArrayList<>(new ArrayList<>(tmc.getAllProjectsActiveOffice()).get(0)
 						.getAllTasks()).get(0)));
 	}
+
+	private static byte[] snapshot(TaskManController controller)
+			throws IOException {
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+		CompanySnapshot.write(controller, Channels.newChannel(output));
+		return output.toByteArray();
+	}
+
+	@Test
+	public void testStreamingBuildsSameState() throws IOException {
+		for (String file : new String[] { "./InputParserTester.tman",
+				"./input_scenario1.tman", "./iteration3_input3.tman" }) {
+			assertArrayEquals(file, snapshot(new Parser().parse(file)),
+					snapshot(new Parser().parseStreaming(file)));
+		}
+	}
+
+	@Test
+	public void testParallelBuildsSameState() throws IOException {
+		for (String file : new String[] { "./InputParserTester.tman",
+				"./input_scenario1.tman", "./iteration3_input3.tman" }) {
+			TaskManController parsed = new Parser().parse(file);
+			TaskManController parallel = new Parser().parseParallel(file);
+			assertArrayEquals(file, snapshot(parsed), snapshot(parallel));
+			assertEquals(parsed.getActiveOffice().getLocation(), parallel
+					.getActiveOffice().getLocation());
+		}
+	}
+
+	@Test(expected = RuntimeException.class)
+	public void testParallelInvalidFile() throws FileNotFoundException {
+		new Parser().parseParallel("./inputTestCases.tman");
+	}
+
+	@Test(expected = RuntimeException.class)
+	public void testStreamingInvalidFile() throws FileNotFoundException {
+		new Parser().parseStreaming("./inputTestCases.tman");
+	}
 }
@@ -0,0 +1,138 @@
+package taskmanager;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import workload.DagShape;
+import workload.Workload;
+import workload.WorkloadSpec;
+
+public class BatchSchedulerTester extends TaskManTester {
+
+	private Project project;
+	private Planner planner;
+
+	@Before
+	public void setUp() {
+		super.setUp();
+		project = createStandardProject(time.plusDays(20));
+		planner = tmc.getPlanner();
+	}
+
+	@Test
+	public void testDependentsStartWhenDependenciesEnd() {
+		Task first = createTask(project, Duration.ofHours(2));
+		Task second = createTask(project, Duration.ofHours(3), first);
+		List<Planning> plannings = tmc.scheduleUnplannedTasks();
+
+		assertEquals(2, plannings.size());
+		assertEquals(time, planner.getPlanning(first).getTimeSpan()
+				.getBegin());
+		assertEquals(time.plusHours(2), planner.getPlanning(second)
+				.getTimeSpan().getBegin());
+		assertEquals(TaskStatus.AVAILABLE, first.getStatus());
+		assertEquals(TaskStatus.UNAVAILABLE, second.getStatus());
+	}
+
+	@Test
+	public void testProjectDueFirstIsPlannedFirst() {
+		Task late = createTask(project, Duration.ofHours(2));
+		Project urgent = tmc.createProject("urgent", "desc",
+				time.plusDays(2));
+		Task early = createTask(urgent, Duration.ofHours(2));
+		tmc.scheduleUnplannedTasks();
+
+		assertEquals(time, planner.getPlanning(early).getTimeSpan()
+				.getBegin());
+		assertEquals(time.plusHours(2), planner.getPlanning(late)
+				.getTimeSpan().getBegin());
+	}
+
+	@Test
+	public void testBusyDevelopersAndResourcesAreSkipped() {
+		ResourceType type = ResourceType.builder("type").build(here);
+		Resource resource = type.createResource("resource");
+		Developer other = tmc.createDeveloper("other");
+		// the developer is busy in the morning, the resource until 14:00
+		createPlannedTask(project, Duration.ofHours(4), dev);
+		createPlannedRessourceTask(project, Duration.ofHours(6), type,
+				resource, time);
+		Task task = createRessourceTask(project, Duration.ofHours(1), type);
+		Task team = Task.builder("team", Duration.ofHours(1), 0.5)
+				.amountOfRequiredDevelopers(2).build(project);
+		tmc.scheduleUnplannedTasks();
+
+		assertEquals(time.plusHours(6), planner.getPlanning(task)
+				.getTimeSpan().getBegin());
+		assertEquals(resource, planner.getPlanning(task).getResources()
+				.iterator().next());
+		// both developers are only free after the morning
+		Planning teamPlanning = planner.getPlanning(team);
+		assertEquals(2, teamPlanning.getDevelopers().size());
+		assertFalse(teamPlanning.getTimeSpan().getBegin()
+				.isBefore(time.plusHours(4)));
+	}
+
+	@Test
+	public void testTasksThatCanNotBeExecutedStayUnplanned() {
+		Task team = Task.builder("team", Duration.ofHours(1), 0.5)
+				.amountOfRequiredDevelopers(2).build(project);
+		Task task = createTask(project, Duration.ofHours(1));
+
+		assertEquals(1, tmc.scheduleUnplannedTasks().size());
+		assertNull(planner.getPlanning(team));
+		assertTrue(planner.taskHasPlanning(task));
+	}
+
+	@Test
+	public void testStartsAreWorkTime() {
+		tmc.advanceTime(LocalDateTime.of(2015, 3, 6, 16, 0));
+		Task first = createTask(project, Duration.ofHours(1));
+		Task second = createTask(project, Duration.ofHours(1), first);
+		tmc.scheduleUnplannedTasks();
+
+		assertEquals(LocalDateTime.of(2015, 3, 6, 16, 0), planner
+				.getPlanning(first).getTimeSpan().getBegin());
+		// the first task ends at the end of friday
+		assertEquals(LocalDateTime.of(2015, 3, 9, 8, 0), planner
+				.getPlanning(second).getTimeSpan().getBegin());
+	}
+
+	@Test
+	public void testGeneratedBacklogIsPlanned() {
+		for (DagShape shape : DagShape.values()) {
+			Workload workload = Workload.generate(WorkloadSpec.builder()
+					.seed(shape.ordinal()).shape(shape, 3).tasks(1000)
+					.delegations(20).build());
+			TaskManController tmc = workload.build();
+			for (BranchOffice office : tmc.getAllOffices()) {
+				tmc.logIn(office);
+				List<Planning> plannings = tmc.scheduleUnplannedTasks();
+				// only tasks delegated to another office stay unplanned
+				assertTrue(shape.name(), tmc.getAllDelegatablePlannableTasks()
+						.isEmpty());
+				Planner planner = tmc.getPlanner();
+				for (Planning planning : plannings) {
+					for (Task dependency : planner.getTask(planning)
+							.getDependencies()) {
+						if (planner.taskHasPlanning(dependency)) {
+							assertFalse(shape.name(), planning.getTimeSpan()
+									.getBegin().isBefore(planner
+											.getPlanning(dependency)
+											.getTimeSpan().getEnd()));
+						}
+					}
+				}
+			}
+		}
+	}
+}
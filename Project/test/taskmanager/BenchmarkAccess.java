@@ -0,0 +1,32 @@
+package taskmanager;
+
+import java.util.Set;
+
+import utility.TimeSpan;
+
+/**
+ * Gives the benchmarks access to the parts of the planner that are not public.
+ */
+public class BenchmarkAccess {
+
+	private BenchmarkAccess() {
+	}
+
+	/**
+	 * Checks whether the planner of the given office can plan the task with
+	 * the given developers during the time span
+	 */
+	public static boolean isPlannableForTimeSpan(BranchOffice office,
+			Task task, Set<Developer> developers, TimeSpan timeSpan) {
+		return office.getPlanner().isPlannableForTimeSpan(task, developers,
+				timeSpan);
+	}
+
+	/**
+	 * Forgets the possible start times remembered by the planner of the given
+	 * office, so the next query searches them again
+	 */
+	public static void clearStartTimeCache(BranchOffice office) {
+		office.getPlanner().getStartTimeCache().clear();
+	}
+}
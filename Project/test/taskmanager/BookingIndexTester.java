@@ -0,0 +1,91 @@
+package taskmanager;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import utility.TimeSpan;
+
+public class BookingIndexTester extends TaskManTester {
+
+	private Project project;
+	private Task shortTask;
+	private Task longTask;
+	private Planning shortPlanning;
+	private Planning longPlanning;
+	private BookingIndex<Developer> index;
+
+	@Before
+	public void setUp() {
+		super.setUp();
+		project = createStandardProject(time.plusDays(20));
+		shortTask = createPlannedTask(project, Duration.ofHours(1), dev);
+		longTask = createTask(project, Duration.ofHours(30));
+		Developer other = tmc.createDeveloper("other");
+		longPlanning = Planning.builder(time.plusDays(3), longTask, other,
+				tmc.getPlanner()).build();
+		shortPlanning = tmc.getPlanner().getPlanning(shortTask);
+
+		index = new BookingIndex<Developer>();
+		index.add(dev, shortPlanning);
+		index.add(dev, longPlanning);
+	}
+
+	@Test
+	public void testIsBooked() {
+		assertTrue(index.isBooked(dev, new TimeSpan(time, time.plusHours(1)),
+				null));
+		assertFalse(index.isBooked(dev,
+				new TimeSpan(time.plusHours(1), time.plusHours(2)), null));
+		assertFalse(index.isBooked(tmc.createDeveloper("nobody"),
+				new TimeSpan(time, time.plusHours(1)), null));
+	}
+
+	@Test
+	public void testIsBookedByLongPlanningBeginningEarlier() {
+		LocalDateTime insideLongPlanning = time.plusDays(4);
+		assertTrue(index.isBooked(dev, new TimeSpan(insideLongPlanning,
+				insideLongPlanning.plusHours(1)), null));
+		assertFalse(index.isBooked(dev, new TimeSpan(insideLongPlanning,
+				insideLongPlanning.plusHours(1)), longPlanning));
+	}
+
+	@Test
+	public void testRemove() {
+		index.remove(dev, shortPlanning);
+		assertFalse(index.isBooked(dev, new TimeSpan(time, time.plusHours(1)),
+				null));
+		assertEquals(1, index.getBookings(dev).size());
+		assertTrue(index.getBookings(dev).contains(longPlanning));
+	}
+
+	@Test
+	public void testPlannerKeepsIndexAfterTimeSpanChange() {
+		Planner planner = tmc.getPlanner();
+		TimeSpan original = new TimeSpan(time, time.plusHours(1));
+		assertFalse(planner.isAvailableFor(dev, longTask, original));
+
+		shortPlanning.setTimeSpan(new TimeSpan(time.plusHours(2), time
+				.plusHours(3)));
+		assertTrue(planner.isAvailableFor(dev, longTask, original));
+		assertFalse(planner.isAvailableFor(dev, longTask, new TimeSpan(time
+				.plusHours(2), time.plusHours(3))));
+	}
+
+	@Test
+	public void testPlannerKeepsIndexAfterLoad() {
+		Planner planner = tmc.getPlanner();
+		TimeSpan original = new TimeSpan(time, time.plusHours(1));
+		tmc.saveSystem();
+		planner.removePlanning(shortTask);
+		assertTrue(planner.isAvailableFor(dev, longTask, original));
+		tmc.loadSystem();
+		assertFalse(planner.isAvailableFor(dev, longTask, original));
+	}
+}
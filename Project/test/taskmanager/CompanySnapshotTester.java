@@ -0,0 +1,139 @@
+package taskmanager;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import parser.Parser;
+
+public class CompanySnapshotTester {
+
+	private TaskManController tmc;
+
+	@Before
+	public void setUp() throws IOException {
+		tmc = new Parser().parse("./input_scenario1.tman");
+	}
+
+	private static byte[] write(TaskManController controller)
+			throws IOException {
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+		CompanySnapshot.write(controller, Channels.newChannel(output));
+		return output.toByteArray();
+	}
+
+	private static TaskManController read(byte[] snapshot) throws IOException {
+		return CompanySnapshot.read(Channels
+				.newChannel(new ByteArrayInputStream(snapshot)));
+	}
+
+	@Test
+	public void testRoundTrip() throws IOException {
+		byte[] snapshot = write(tmc);
+		TaskManController loaded = read(snapshot);
+		assertArrayEquals(snapshot, write(loaded));
+
+		assertEquals(tmc.getTime(), loaded.getTime());
+		List<BranchOffice> offices = new ArrayList<BranchOffice>(
+				tmc.getAllOffices());
+		List<BranchOffice> loadedOffices = new ArrayList<BranchOffice>(
+				loaded.getAllOffices());
+		assertEquals(offices.size(), loadedOffices.size());
+		for (int i = 0; i < offices.size(); i++) {
+			BranchOffice office = offices.get(i);
+			BranchOffice loadedOffice = loadedOffices.get(i);
+			assertEquals(office.getLocation(), loadedOffice.getLocation());
+			assertEquals(office.getPlanner().getAllPlannings().size(),
+					loadedOffice.getPlanner().getAllPlannings().size());
+			assertEquals(office.getDelegatedTaskExpert()
+					.getAllDelegatedTasks().size(), loadedOffice
+					.getDelegatedTaskExpert().getAllDelegatedTasks().size());
+			List<Task> tasks = new ArrayList<Task>(office.getProjectExpert()
+					.getAllTasks());
+			List<Task> loadedTasks = new ArrayList<Task>(loadedOffice
+					.getProjectExpert().getAllTasks());
+			assertEquals(tasks.size(), loadedTasks.size());
+			for (int j = 0; j < tasks.size(); j++) {
+				assertEquals(tasks.get(j).getStatus(), loadedTasks.get(j)
+						.getStatus());
+				assertEquals(tasks.get(j).getDependencies().size(),
+						loadedTasks.get(j).getDependencies().size());
+				assertEquals(tasks.get(j).getEstimatedFinishTime(),
+						loadedTasks.get(j).getEstimatedFinishTime());
+			}
+		}
+	}
+
+	@Test
+	public void testRoundTripWithPlannings() throws IOException {
+		TaskManController planned = new Parser()
+				.parse("./iteration3_input3.tman");
+		byte[] snapshot = write(planned);
+		TaskManController loaded = read(snapshot);
+		assertArrayEquals(snapshot, write(loaded));
+		int plannings = 0;
+		for (BranchOffice office : loaded.getAllOffices()) {
+			plannings += office.getPlanner().getAllPlannings().size();
+			// the bookings of the restored plannings are indexed
+			Planner planner = office.getPlanner();
+			for (Planning planning : planner.getAllPlannings()) {
+				for (Developer developer : planning.getDevelopers()) {
+					assertFalse(planner.isAvailableFor(developer, null,
+							planning.getTimeSpan()));
+				}
+			}
+		}
+		assertEquals(4, plannings);
+	}
+
+	@Test
+	public void testLoadedStateCanChange() throws IOException {
+		TaskManController loaded = read(write(tmc));
+		BranchOffice office = loaded.getAllOffices().iterator().next();
+		loaded.logIn(office);
+		Project project = office.getProjectExpert().getAllProjects()
+				.iterator().next();
+		Task first = project.getAllTasks().iterator().next();
+		Task added = Task.builder("added", first.getEstimatedDuration(), 0.1)
+				.addDependencies(first).build(project);
+		assertTrue(added.hasDependency(first));
+		assertTrue(first.getDependents().contains(added));
+	}
+
+	@Test
+	public void testMappedFile() throws IOException {
+		Path file = Files.createTempFile("company", ".snapshot");
+		try {
+			CompanySnapshot.write(tmc, file);
+			assertArrayEquals(write(tmc), write(CompanySnapshot.read(file)));
+		} finally {
+			Files.delete(file);
+		}
+	}
+
+	@Test(expected = IOException.class)
+	public void testNoSnapshot() throws IOException {
+		read(new byte[] { 1, 2, 3, 4, 5, 6, 7, 8 });
+	}
+
+	@Test(expected = IOException.class)
+	public void testIncompleteSnapshot() throws IOException {
+		byte[] snapshot = write(tmc);
+		byte[] incomplete = new byte[snapshot.length / 2];
+		System.arraycopy(snapshot, 0, incomplete, 0, incomplete.length);
+		read(incomplete);
+	}
+}
@@ -0,0 +1,100 @@
+package taskmanager;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class CriticalPathAnalysisTester extends TaskManTester {
+
+	private Project project;
+	private Task base;
+	private Task shortBranch;
+	private Task longBranch;
+	private Task last;
+	private Task loose;
+
+	@Before
+	public void setUp() {
+		super.setUp();
+		project = createStandardProject(time.plusDays(20));
+		// base -> (short branch | long branch) -> last, and a loose task
+		base = createTask(project, Duration.ofHours(8));
+		shortBranch = createTask(project, Duration.ofHours(2), base);
+		longBranch = createTask(project, Duration.ofHours(4), base);
+		last = Task.builder("last", Duration.ofHours(1), 0.5)
+				.addDependencies(shortBranch).addDependencies(longBranch)
+				.build(project);
+		loose = createTask(project, Duration.ofHours(1));
+	}
+
+	@Test
+	public void testTopologicalOrder() {
+		List<Task> order = project.getCriticalPathAnalysis()
+				.getTopologicalOrder();
+		assertEquals(5, order.size());
+		for (Task task : order) {
+			for (Task dependency : task.getDependencies()) {
+				assertTrue(order.indexOf(dependency) < order.indexOf(task));
+			}
+		}
+	}
+
+	@Test
+	public void testEarliestTimesMatchEstimates() {
+		CriticalPathAnalysis analysis = tmc.getCriticalPathAnalysis(project);
+		assertEquals(time, analysis.getEarliestStart(base));
+		for (Task task : project.getAllTasks()) {
+			assertEquals(task.getEstimatedFinishTime(),
+					analysis.getEarliestFinish(task));
+		}
+		assertEquals(project.getEstimatedFinishTime(), analysis.getFinishTime());
+	}
+
+	@Test
+	public void testSlackAndCriticalPath() {
+		CriticalPathAnalysis analysis = project.getCriticalPathAnalysis();
+		assertEquals(Arrays.asList(base, longBranch, last),
+				analysis.getCriticalPath());
+		assertEquals(Duration.ZERO, analysis.getSlack(base));
+		assertEquals(Duration.ofHours(2), analysis.getSlack(shortBranch));
+		assertEquals(Duration.ofHours(12), analysis.getSlack(loose));
+		// the base task finishes on friday evening, the long branch starts on
+		// monday morning
+		assertEquals(base.getEstimatedFinishTime(),
+				analysis.getLatestFinish(base));
+		assertEquals(time.plusDays(3), analysis.getLatestStart(longBranch));
+		assertFalse(analysis.isCritical(shortBranch));
+	}
+
+	@Test
+	public void testFinishedTasksAreNotCritical() {
+		Planning.builder(time, base, dev, tmc.getPlanner()).build();
+		tmc.setExecuting(base, time);
+		tmc.advanceTime(time.plusHours(2));
+		tmc.setFinished(base, time.plusHours(2));
+		CriticalPathAnalysis analysis = project.getCriticalPathAnalysis();
+		assertFalse(analysis.isCritical(base));
+		assertEquals(Arrays.asList(longBranch, last),
+				analysis.getCriticalPath());
+		assertEquals(time.plusHours(2), analysis.getEarliestStart(longBranch));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testTaskOfOtherProject() {
+		Project other = createStandardProject(time.plusDays(20));
+		project.getCriticalPathAnalysis().getSlack(
+				createTask(other, Duration.ofHours(1)));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testProjectWithoutTasks() {
+		createStandardProject(time.plusDays(20)).getCriticalPathAnalysis();
+	}
+}
@@ -8,6 +8,7 @@ import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -90,4 +91,43 @@ public class DelegatedTaskExpertTester extends TaskManTester {
 		assertEquals(0, here.getDelegatedTaskExpert().getAllDelegatedTasks()
 				.size());
 	}
+
+	@Test
+	public void liveViewTest() {
+		Task myTask = this.createTask(project, Duration.ofHours(5));
+		Set<Task> delegated = here.getDelegatedTaskExpert()
+				.getAllDelegatedTasks();
+		this.tmc.delegate(myTask, here);
+		assertTrue(delegated.contains(myTask));
+		this.tmc.logIn(here);
+		this.tmc.delegate(myTask, bruggeOffice);
+		assertTrue(delegated.isEmpty());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void mementoForgetsOriginalOfficeTest() {
+		Task myTask = this.createTask(project, Duration.ofHours(5));
+		here.saveSystem(bruggeOffice);
+		this.tmc.delegate(myTask, here);
+		here.loadSystem(bruggeOffice);
+		here.getDelegatedTaskExpert().getOriginalOffice(myTask);
+	}
+
+	@Test
+	public void loadUndoesDelegationToThirdOfficeTest() {
+		Task myTask = this.createTask(project, Duration.ofHours(5));
+		BranchOffice third = this.tmc.createBranchOffice("Gent");
+		this.tmc.delegate(myTask, here);
+		this.tmc.logIn(here);
+		this.tmc.saveSystem();
+		this.tmc.delegate(myTask, third);
+		this.tmc.loadSystem();
+		assertTrue(here.getDelegatedTaskExpert().getAllDelegatedTasks()
+				.contains(myTask));
+		assertFalse(third.getDelegatedTaskExpert().getAllDelegatedTasks()
+				.contains(myTask));
+		assertEquals(bruggeOffice, here.getDelegatedTaskExpert()
+				.getOriginalOffice(myTask));
+		assertEquals(here, this.tmc.getResponsibleBranch(myTask));
+	}
 }
@@ -0,0 +1,95 @@
+package taskmanager;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.time.Duration;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class DependencyIndexTester extends TaskManTester {
+
+	private Project project;
+	private Task base;
+	private Task left;
+	private Task right;
+	private Task top;
+
+	@Before
+	public void setUp() {
+		super.setUp();
+		project = createStandardProject(time.plusDays(20));
+		// a diamond: top depends on left and right, both depend on base
+		base = createTask(project, Duration.ofHours(1));
+		left = createTask(project, Duration.ofHours(1), base);
+		right = createTask(project, Duration.ofHours(1), base);
+		top = Task.builder("top", Duration.ofHours(1), 0.5)
+				.addDependencies(left).addDependencies(right).build(project);
+	}
+
+	@Test
+	public void testDiamond() {
+		assertTrue(top.hasDependency(base));
+		assertTrue(top.hasDependency(left));
+		assertTrue(left.hasDependency(base));
+		assertFalse(left.hasDependency(right));
+		assertFalse(base.hasDependency(top));
+	}
+
+	@Test
+	public void testWideSharedGraph() {
+		// every layer depends on both tasks of the previous layer, searching
+		// without a visited set would take 2^60 steps
+		Task first = base;
+		Task second = createTask(project, Duration.ofHours(1));
+		for (int layer = 0; layer < 60; layer++) {
+			Task nextFirst = Task.builder("first", Duration.ofHours(1), 0.5)
+					.addDependencies(first).addDependencies(second)
+					.build(project);
+			Task nextSecond = Task.builder("second", Duration.ofHours(1), 0.5)
+					.addDependencies(first).addDependencies(second)
+					.build(project);
+			first = nextFirst;
+			second = nextSecond;
+		}
+		assertTrue(first.hasDependency(base));
+		assertFalse(first.hasDependency(top));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testLoopIsRefused() {
+		base.addDependency(top);
+	}
+
+	@Test
+	public void testAddAndRemoveDependency() {
+		Task loose = createTask(project, Duration.ofHours(1));
+		base.addDependency(loose);
+		assertTrue(top.hasDependency(loose));
+		base.removeDependency(loose);
+		assertFalse(top.hasDependency(loose));
+	}
+
+	@Test
+	public void testDependencyOnOtherProject() {
+		Project other = createStandardProject(time.plusDays(20));
+		Task foreign = createTask(other, Duration.ofHours(1));
+		Task between = createTask(other, Duration.ofHours(1), base);
+		Task dependent = createTask(project, Duration.ofHours(1), between);
+		assertTrue(dependent.hasDependency(base));
+		assertTrue(dependent.hasDependency(between));
+		assertFalse(dependent.hasDependency(foreign));
+	}
+
+	@Test
+	public void testLoad() {
+		tmc.saveSystem();
+		Task loose = createTask(project, Duration.ofHours(1));
+		base.addDependency(loose);
+		assertTrue(top.hasDependency(loose));
+		tmc.loadSystem();
+		assertFalse(top.hasDependency(loose));
+		assertTrue(top.hasDependency(base));
+	}
+}
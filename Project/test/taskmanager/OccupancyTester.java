@@ -0,0 +1,87 @@
+package taskmanager;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import utility.TimeSpan;
+import utility.WorkTime;
+
+public class OccupancyTester extends TaskManTester {
+
+	private Project project;
+	private Planning morning;
+	private Planning overLunch;
+	private BookingIndex<Developer> bookings;
+	private Occupancy<Developer> occupancy;
+
+	@Before
+	public void setUp() {
+		super.setUp();
+		project = createStandardProject(time.plusDays(20));
+		// friday 8:00 until 10:00 and monday 11:00 until 13:00
+		morning = tmc.getPlanner().getPlanning(
+				createPlannedTask(project, Duration.ofHours(2), dev));
+		Task lunchTask = createTask(project, Duration.ofHours(2));
+		overLunch = Planning.builder(time.plusDays(3).plusHours(3), lunchTask,
+				dev, tmc.getPlanner()).build();
+
+		bookings = new BookingIndex<Developer>();
+		occupancy = new Occupancy<Developer>(time, bookings);
+		for (Planning planning : new Planning[] { morning, overLunch }) {
+			bookings.add(dev, planning);
+			occupancy.add(dev, planning);
+		}
+	}
+
+	@Test
+	public void testFreeHours() {
+		assertTrue(occupancy.isFree(dev, new TimeSpan(time.plusHours(2),
+				Duration.ofHours(3))));
+		assertTrue(occupancy.isFree(dev, new TimeSpan(time.plusDays(3)
+				.plusHours(6), Duration.ofHours(2))));
+		assertTrue(occupancy.isFree(tmc.createDeveloper("nobody"),
+				new TimeSpan(time, Duration.ofHours(2))));
+	}
+
+	@Test
+	public void testBookedHours() {
+		assertFalse(occupancy.isFree(dev,
+				new TimeSpan(time.plusHours(1), Duration.ofHours(1))));
+		// the planning over lunch ends at 13:00, but overlaps with a time span
+		// starting at 12:00
+		assertFalse(occupancy.isFree(dev, new TimeSpan(time.plusDays(3)
+				.plusHours(4), Duration.ofHours(1))));
+	}
+
+	@Test
+	public void testFreeImpliesNotBooked() {
+		LocalDateTime start = time.minusDays(1);
+		for (int minutes = 0; minutes < 6 * 24 * 60; minutes += 30) {
+			LocalDateTime begin = start.plusMinutes(minutes);
+			for (int hours = 1; hours < 12; hours += 2) {
+				TimeSpan timeSpan = new TimeSpan(begin, WorkTime.getFinishTime(
+						begin, Duration.ofHours(hours)));
+				if (occupancy.isFree(dev, timeSpan)) {
+					assertFalse(timeSpan.toString(),
+							bookings.isBooked(dev, timeSpan, null));
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testRemoveKeepsOtherPlannings() {
+		bookings.remove(dev, morning);
+		occupancy.remove(dev, morning);
+		assertTrue(occupancy.isFree(dev,
+				new TimeSpan(time, Duration.ofHours(2))));
+		assertFalse(occupancy.isFree(dev, new TimeSpan(time.plusDays(3)
+				.plusHours(3), Duration.ofHours(1))));
+	}
+}
@@ -7,6 +7,7 @@ import static org.junit.Assert.assertTrue;
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.Map;
@@ -531,4 +532,59 @@ public class PlannerTester extends TaskManTester {
 		assertTrue(this.planner.taskHasPlanning(task1));
 	}
 
-}
\ No newline at end of file
+	@Test
+	public void testEventDrivenSearchMatchesHourlySearch() {
+		// book both developers and the resources for most of two weeks, with
+		// a few gaps of different lengths
+		LocalDateTime start = time1;
+		for (int i = 0; i < 12; i++) {
+			Task booked = Task.builder("booked", Duration.ofHours(5 + i % 2),
+					1).addRequiredResourceType(resourceType, 1).build(project);
+			Planning.builder(start, booked, developer1, planner)
+					.addDeveloper(developer2).addResources(resource1).build();
+			start = start.plusHours(6 + i % 4 * 7);
+		}
+		Task task3 = Task.builder("task3", Duration.ofHours(3), 1)
+				.addRequiredResourceType(resourceType, 2).build(project);
+
+		for (Task task : new Task[] { task1, task2, task3 }) {
+			planner.setStartTimeSearch(StartTimeSearch.HOURLY);
+			Set<LocalDateTime> hourly = planner.getPossibleStartTimes(task,
+					time1, tmc.getAllDevelopers());
+			assertEquals(3, hourly.size());
+			for (StartTimeSearch search : StartTimeSearch.values()) {
+				planner.setStartTimeSearch(search);
+				// the remembered hourly start times are only kept for the
+				// hourly search itself
+				assertEquals(search.name(), search == StartTimeSearch.HOURLY
+						? 1 : 0, planner.getStartTimeCache().size());
+				Set<LocalDateTime> found = planner.getPossibleStartTimes(task,
+						time1, tmc.getAllDevelopers());
+				assertEquals(search.name(), new ArrayList<LocalDateTime>(
+						hourly), new ArrayList<LocalDateTime>(found));
+			}
+		}
+	}
+
+	@Test
+	public void testParallelSearchFindsStartTimesAfterManyChunks() {
+		// both developers are booked for the coming ten weeks
+		Task booked = Task.builder("booked", Duration.ofDays(70), 1).build(
+				project);
+		Planning.builder(time1, booked, developer1, planner)
+				.addDeveloper(developer2).build();
+
+		planner.setStartTimeSearch(StartTimeSearch.HOURLY);
+		Set<LocalDateTime> hourly = planner.getPossibleStartTimes(task1,
+				time1, tmc.getAllDevelopers());
+		planner.setStartTimeSearch(StartTimeSearch.PARALLEL);
+		assertEquals(0, planner.getStartTimeCache().size());
+		Set<LocalDateTime> parallel = planner.getPossibleStartTimes(task1,
+				time1, tmc.getAllDevelopers());
+		assertEquals(3, parallel.size());
+		assertEquals(time1.plusDays(70), parallel.iterator().next());
+		assertEquals(new ArrayList<LocalDateTime>(hourly),
+				new ArrayList<LocalDateTime>(parallel));
+	}
+
+}
@@ -0,0 +1,108 @@
+package taskmanager;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import taskmanager.exception.ConflictingPlanningsException;
+
+public class PlanningBatchTester extends TaskManTester {
+
+	private Project project;
+	private Planner planner;
+	private Developer other;
+
+	@Before
+	public void setUp() {
+		super.setUp();
+		project = createStandardProject(time.plusDays(20));
+		planner = tmc.getPlanner();
+		other = tmc.createDeveloper("other");
+	}
+
+	@Test
+	public void testBuildAll() {
+		Task first = createTask(project, Duration.ofHours(2));
+		Task second = createTask(project, Duration.ofHours(2));
+		Task third = createTask(project, Duration.ofHours(2));
+		PlanningBatch batch = tmc.createPlanningBatch();
+		batch.add(time, first, dev);
+		batch.add(time.plusHours(2), second, dev);
+		batch.add(time, third, other);
+		List<Planning> plannings = batch.build();
+
+		assertEquals(3, plannings.size());
+		assertEquals(0, batch.size());
+		assertEquals(plannings.get(1), planner.getPlanning(second));
+		assertEquals(3, planner.getAllPlannings().size());
+		assertEquals(TaskStatus.AVAILABLE, first.getStatus());
+		// the plannings are indexed
+		assertTrue(!planner.isAvailableFor(dev, null, plannings.get(0)
+				.getTimeSpan()));
+	}
+
+	@Test
+	public void testAllConflictsAreReported() {
+		Task planned = createTask(project, Duration.ofHours(2));
+		Planning.builder(time, planned, dev, planner).build();
+		Task first = createTask(project, Duration.ofHours(2));
+		Task second = createTask(project, Duration.ofHours(2));
+		Task third = createTask(project, Duration.ofHours(2));
+		Task free = createTask(project, Duration.ofHours(2));
+
+		PlanningBatch batch = tmc.createPlanningBatch();
+		batch.add(time.plusHours(1), first, dev);
+		batch.add(time.plusDays(1), second, other);
+		batch.add(time.plusDays(1).plusHours(1), third, other);
+		batch.add(time, free, other);
+		try {
+			batch.build();
+			fail();
+		} catch (ConflictingPlanningsException e) {
+			assertEquals(3, e.getConflicts().size());
+			assertEquals(new HashSet<Task>(Arrays.asList(planned)), e
+					.getConflicts().get(first));
+			assertEquals(new HashSet<Task>(Arrays.asList(third)), e
+					.getConflicts().get(second));
+			assertEquals(new HashSet<Task>(Arrays.asList(second)), e
+					.getConflicts().get(third));
+		}
+		// nothing was added
+		assertEquals(1, planner.getAllPlannings().size());
+		assertEquals(4, batch.size());
+	}
+
+	@Test
+	public void testReplacesPlanningOfTask() {
+		Task task = createTask(project, Duration.ofHours(2));
+		Planning.builder(time, task, dev, planner).build();
+		PlanningBatch batch = tmc.createPlanningBatch();
+		batch.add(time.plusHours(1), task, dev);
+		Planning planning = batch.build().get(0);
+		assertEquals(planning, planner.getPlanning(task));
+		assertEquals(1, planner.getAllPlannings().size());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testTaskPlannedTwice() {
+		Task task = createTask(project, Duration.ofHours(2));
+		PlanningBatch batch = tmc.createPlanningBatch();
+		batch.add(time, task, dev);
+		batch.add(time.plusDays(1), task, other);
+		batch.build();
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testBuilderOfBatch() {
+		Task task = createTask(project, Duration.ofHours(2));
+		tmc.createPlanningBatch().add(time, task, dev).build();
+	}
+}
@@ -0,0 +1,115 @@
+package taskmanager;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.time.Duration;
+import java.util.Arrays;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import taskmanager.exception.IllegalResourceException;
+
+public class ResourceConstraintsTester extends TaskManTester {
+
+	private ResourceType power;
+	private ResourceType server;
+	private ResourceType rack;
+	private ResourceType desk;
+	private ResourceConstraints constraints;
+
+	@Before
+	public void setUp() {
+		super.setUp();
+		// rack requires server requires power, desk conflicts with rack
+		power = ResourceType.builder("power").build(here);
+		server = ResourceType.builder("server")
+				.addRequiredResourceTypes(power).build(here);
+		rack = ResourceType.builder("rack").addRequiredResourceTypes(server)
+				.build(here);
+		desk = ResourceType.builder("desk").addConflictedResourceTypes(rack)
+				.build(here);
+		for (ResourceType type : new ResourceType[] { power, server, rack,
+				desk }) {
+			type.createResource(type.getName());
+		}
+		constraints = here.getResourceExpert().getConstraints();
+	}
+
+	@Test
+	public void testClosures() {
+		assertTrue(constraints.isClosed(rack));
+		assertTrue(constraints.requires(rack, power));
+		assertFalse(constraints.requires(power, rack));
+		assertTrue(constraints.conflicts(desk, rack));
+		assertFalse(constraints.conflicts(rack, desk));
+	}
+
+	@Test
+	public void testFindViolations() {
+		assertEquals(server,
+				constraints.findMissingRequired(Arrays.asList(rack, server)));
+		assertNull(constraints.findMissingRequired(Arrays.asList(rack,
+				server, power)));
+		assertEquals(desk,
+				constraints.findConflicting(Arrays.asList(rack, desk)));
+		assertNull(constraints.findConflicting(Arrays.asList(desk, power)));
+	}
+
+	@Test
+	public void testBuilderReportsMissingRequiredType() {
+		try {
+			Task.builder("task", Duration.ofHours(1), 0)
+					.addRequiredResourceType(server, 1)
+					.build(createStandardProject(time.plusDays(1)));
+			fail("Expected an illegal resource exception");
+		} catch (IllegalResourceException e) {
+			assertEquals(server, e.getErrorType());
+			assertFalse(e.isConflicting());
+			assertEquals(server.getRequiredResourceTypes(),
+					e.getproblematicResourceTypes());
+		}
+	}
+
+	@Test
+	public void testBuilderReportsConflictingType() {
+		try {
+			Task.builder("task", Duration.ofHours(1), 0)
+					.addRequiredResourceType(power, 1)
+					.addRequiredResourceType(server, 1)
+					.addRequiredResourceType(rack, 1)
+					.addRequiredResourceType(desk, 1)
+					.build(createStandardProject(time.plusDays(1)));
+			fail("Expected an illegal resource exception");
+		} catch (IllegalResourceException e) {
+			assertEquals(desk, e.getErrorType());
+			assertTrue(e.isConflicting());
+		}
+	}
+
+	@Test
+	public void testNewRelationIsCompiled() {
+		ResourceType cable = ResourceType.builder("cable").build(here);
+		power.addRequiredResourceType(cable);
+		assertTrue(constraints.requires(rack, cable));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testLoopIsRefused() {
+		power.addRequiredResourceType(rack);
+	}
+
+	@Test
+	public void testTypeOfOtherOfficeIsOpen() {
+		BranchOffice there = tmc.createBranchOffice("there");
+		ResourceType remote = ResourceType.builder("remote")
+				.addRequiredResourceTypes(rack).build(there);
+		assertFalse(there.getResourceExpert().getConstraints()
+				.isClosed(remote));
+		assertTrue(remote.hasRequiredResourceType(power));
+	}
+}
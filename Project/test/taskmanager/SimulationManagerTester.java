@@ -0,0 +1,108 @@
+package taskmanager;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.time.Duration;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class SimulationManagerTester extends TaskManTester {
+
+	private SimulationManager simulations;
+	private Project project;
+	private Task first;
+	private Task second;
+	private Planner planner;
+
+	@Before
+	public void setUp() {
+		super.setUp();
+		simulations = tmc.getSimulationManager();
+		project = createStandardProject(time.plusDays(20));
+		first = createTask(project, Duration.ofHours(2));
+		second = createTask(project, Duration.ofHours(2));
+		planner = tmc.getPlanner();
+	}
+
+	@Test
+	public void testBranchesKeepTheirOwnPlannings() {
+		simulations.fork("early");
+		Planning.builder(time, first, dev, planner).build();
+		simulations.fork("late");
+		planner.removePlanning(first);
+		Planning.builder(time.plusDays(1), first, dev, planner).build();
+		Planning.builder(time, second, dev, planner).build();
+
+		simulations.switchTo(SimulationManager.MAIN);
+		assertTrue(planner.getAllPlannings().isEmpty());
+
+		simulations.switchTo("early");
+		assertEquals(1, planner.getAllPlannings().size());
+		assertEquals(time, planner.getPlanning(first).getTimeSpan().getBegin());
+		assertTrue(planner.getTasksSharingBookings(first).isEmpty());
+
+		simulations.switchTo("late");
+		assertEquals(2, planner.getAllPlannings().size());
+		assertEquals(time.plusDays(1), planner.getPlanning(first)
+				.getTimeSpan().getBegin());
+		assertTrue(planner.getTasksSharingBookings(second).contains(first));
+	}
+
+	@Test
+	public void testBranchesKeepTheirOwnTasks() {
+		simulations.fork("other");
+		second.addDependency(first);
+		Task added = createTask(project, Duration.ofHours(1));
+
+		simulations.switchTo(SimulationManager.MAIN);
+		assertFalse(second.hasDependency(first));
+		assertTrue(first.getDependents().isEmpty());
+		assertFalse(project.getAllTasks().contains(added));
+
+		simulations.switchTo("other");
+		assertTrue(second.hasDependency(first));
+		assertTrue(project.getAllTasks().contains(added));
+	}
+
+	@Test
+	public void testBranchesKeepTheirOwnDelegations() {
+		BranchOffice there = tmc.createBranchOffice("there");
+		simulations.fork("delegated");
+		tmc.delegate(first, there);
+
+		simulations.switchTo(SimulationManager.MAIN);
+		assertEquals(here, tmc.getResponsibleBranch(first));
+
+		simulations.switchTo("delegated");
+		assertEquals(there, tmc.getResponsibleBranch(first));
+	}
+
+	@Test
+	public void testDiscard() {
+		simulations.fork("other");
+		Planning.builder(time, first, dev, planner).build();
+		simulations.switchTo(SimulationManager.MAIN);
+		simulations.discard("other");
+		assertEquals(1, simulations.getBranchNames().size());
+		assertTrue(planner.getAllPlannings().isEmpty());
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testDiscardActiveBranch() {
+		simulations.fork("other");
+		simulations.discard("other");
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testForkExistingName() {
+		simulations.fork(SimulationManager.MAIN);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testSwitchToUnknownBranch() {
+		simulations.switchTo("unknown");
+	}
+}
@@ -0,0 +1,99 @@
+package taskmanager;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.time.Duration;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import utility.TimeSpan;
+
+public class SnapshotJournalTester extends TaskManTester {
+
+	private Project project;
+	private Task first;
+	private Task second;
+	private Planner planner;
+
+	@Before
+	public void setUp() {
+		super.setUp();
+		project = createStandardProject(time.plusDays(20));
+		first = createPlannedTask(project, Duration.ofHours(2), dev);
+		second = createTask(project, Duration.ofHours(2));
+		planner = tmc.getPlanner();
+	}
+
+	@Test
+	public void testLoadRestoresChanges() {
+		tmc.saveSystem();
+		second.addDependency(first);
+		Task added = createTask(project, Duration.ofHours(1));
+		tmc.loadSystem();
+		assertFalse(second.hasDependency(first));
+		assertTrue(first.getDependents().isEmpty());
+		assertFalse(project.getAllTasks().contains(added));
+	}
+
+	@Test
+	public void testLoadSameSaveTwice() {
+		tmc.saveSystem();
+		second.addDependency(first);
+		tmc.loadSystem();
+		second.addDependency(first);
+		assertTrue(second.hasDependency(first));
+		tmc.loadSystem();
+		assertFalse(second.hasDependency(first));
+	}
+
+	@Test
+	public void testOnlyChangedObjectsAreSaved() {
+		planner.save();
+		assertTrue(planner.getJournal().getTouched().isEmpty());
+		Planning.builder(time, second, tmc.createDeveloper("other"), planner)
+				.build();
+		// only the planning of the planned task is kept, not all plannings
+		assertEquals(1, planner.getJournal().getTouched().size());
+		assertFalse(planner.getJournal().getTouched().contains(planner));
+	}
+
+	@Test
+	public void testLoadUndoesAddedAndRemovedPlannings() {
+		Planning removed = planner.getPlanning(first);
+		TimeSpan planned = removed.getTimeSpan();
+		planner.save();
+		planner.removePlanning(first);
+		Planning added = Planning.builder(time, second, dev, planner).build();
+		planner.load();
+
+		assertEquals(removed, planner.getPlanning(first));
+		assertFalse(planner.taskHasPlanning(second));
+		assertFalse(planner.getAllPlannings().contains(added));
+		assertFalse(planner.isAvailableFor(dev, second, planned));
+		// the booking of the added planning is gone
+		assertTrue(planner.isAvailableFor(dev, first, planned));
+	}
+
+	@Test
+	public void testLoadRestoresBookings() {
+		Planning planning = planner.getPlanning(first);
+		TimeSpan planned = planning.getTimeSpan();
+		TimeSpan moved = new TimeSpan(time.plusDays(1), Duration.ofHours(2));
+		planner.save();
+		planning.setTimeSpan(moved);
+		assertTrue(planner.isAvailableFor(dev, second, planned));
+		planner.load();
+		assertEquals(planned.getBegin(), planning.getTimeSpan().getBegin());
+		assertEquals(planned.getEnd(), planning.getTimeSpan().getEnd());
+		assertFalse(planner.isAvailableFor(dev, second, planned));
+		assertTrue(planner.isAvailableFor(dev, second, moved));
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testLoadWithoutSave() {
+		new SnapshotJournal().load();
+	}
+}
@@ -0,0 +1,155 @@
+package taskmanager;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.Set;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class StartTimeCacheTester extends TaskManTester {
+
+	private Project project;
+	private Planner planner;
+	private StartTimeCache cache;
+	private Developer other;
+	private ResourceType type;
+	private Resource resource;
+	private Task task;
+	private Set<Developer> developers;
+
+	@Before
+	public void setUp() {
+		super.setUp();
+		project = createStandardProject(time.plusDays(20));
+		planner = tmc.getPlanner();
+		cache = planner.getStartTimeCache();
+		other = tmc.createDeveloper("other");
+		type = ResourceType.builder("type").build(here);
+		resource = type.createResource("resource");
+		task = createRessourceTask(project, Duration.ofHours(2), type);
+		developers = Collections.singleton(dev);
+	}
+
+	@Test
+	public void testRepeatedQueryIsRemembered() {
+		Set<LocalDateTime> first = planner.getPossibleStartTimes(task, time,
+				developers);
+		assertEquals(1, cache.size());
+		assertEquals(first, planner.getPossibleStartTimes(task, time,
+				developers));
+		assertEquals(1, cache.size());
+		// the returned start times can be changed by the caller
+		first.clear();
+		assertEquals(3, planner.getPossibleStartTimes(task, time, developers)
+				.size());
+	}
+
+	@Test
+	public void testPlanningOfOtherDeveloperIsIgnored() {
+		planner.getPossibleStartTimes(task, time, developers);
+		createPlannedTask(project, Duration.ofHours(4), other);
+		assertEquals(1, cache.size());
+	}
+
+	@Test
+	public void testPlanningOfDeveloperIsNotIgnored() {
+		planner.getPossibleStartTimes(task, time, developers);
+		createPlannedTask(project, Duration.ofHours(4), dev);
+		assertEquals(0, cache.size());
+		assertEquals(time.plusHours(4), planner
+				.getPossibleStartTimes(task, time, developers).iterator()
+				.next());
+	}
+
+	@Test
+	public void testPlanningOfResourceIsNotIgnored() {
+		planner.getPossibleStartTimes(task, time, developers);
+		Task booked = createRessourceTask(project, Duration.ofHours(3), type);
+		Planning.builder(time, booked, other, planner).addResources(resource)
+				.build();
+		assertEquals(0, cache.size());
+		assertEquals(time.plusHours(3), planner
+				.getPossibleStartTimes(task, time, developers).iterator()
+				.next());
+	}
+
+	@Test
+	public void testEndedPlanningIsNotIgnored() {
+		Task booked = createPlannedTask(project, Duration.ofHours(4), dev);
+		assertEquals(time.plusHours(4), planner
+				.getPossibleStartTimes(task, time, developers).iterator()
+				.next());
+		tmc.setExecuting(booked, time);
+		tmc.setFinished(booked, time.plusHours(1));
+		assertEquals(time.plusHours(1), planner
+				.getPossibleStartTimes(task, time, developers).iterator()
+				.next());
+	}
+
+	@Test
+	public void testRemovedPlanningIsNotIgnored() {
+		Task booked = createPlannedTask(project, Duration.ofHours(4), dev);
+		planner.getPossibleStartTimes(task, time, developers);
+		planner.removePlanning(booked);
+		assertEquals(0, cache.size());
+		assertEquals(time, planner.getPossibleStartTimes(task, time,
+				developers).iterator().next());
+	}
+
+	@Test
+	public void testLoadedPlanningsAreNotIgnored() {
+		tmc.saveSystem();
+		createPlannedTask(project, Duration.ofHours(4), dev);
+		planner.getPossibleStartTimes(task, time, developers);
+		tmc.loadSystem();
+		assertEquals(time, planner.getPossibleStartTimes(task, time,
+				developers).iterator().next());
+	}
+
+	@Test
+	public void testNewResourceIsUsed() {
+		Task booked = createRessourceTask(project, Duration.ofHours(3), type);
+		Planning.builder(time, booked, other, planner).addResources(resource)
+				.build();
+		assertEquals(time.plusHours(3), planner
+				.getPossibleStartTimes(task, time, developers).iterator()
+				.next());
+		type.createResource("second");
+		assertEquals(time, planner.getPossibleStartTimes(task, time,
+				developers).iterator().next());
+	}
+
+	@Test
+	public void testOtherSearchIsNotAnsweredFromCache() {
+		planner.setStartTimeSearch(StartTimeSearch.HOURLY);
+		Set<LocalDateTime> hourly = planner.getPossibleStartTimes(task, time,
+				developers);
+		assertEquals(1, cache.size());
+		// the same search keeps the remembered start times
+		planner.setStartTimeSearch(StartTimeSearch.HOURLY);
+		assertEquals(1, cache.size());
+		planner.setStartTimeSearch(StartTimeSearch.PARALLEL);
+		assertEquals(0, cache.size());
+		assertEquals(hourly, planner.getPossibleStartTimes(task, time,
+				developers));
+		// the parallel search ran and its start times are remembered
+		assertEquals(1, cache.size());
+	}
+
+	@Test
+	public void testOtherStartTimeEmptiesCache() {
+		planner.getPossibleStartTimes(task, time, developers);
+		planner.getPossibleStartTimes(createTask(project,
+				Duration.ofHours(1)), time, developers);
+		assertEquals(2, cache.size());
+		LocalDateTime later = time.plusHours(1);
+		assertFalse(planner.getPossibleStartTimes(task, later, developers)
+				.contains(time));
+		assertEquals(1, cache.size());
+	}
+}
@@ -110,6 +110,17 @@ public class TaskManControllerTester extends TaskManTester {
 		assertEquals(TaskStatus.AVAILABLE, task3.getStatus());
 	}
 
+	@Test
+	public void setFinishedUpdatesDependentTask() {
+		Task base = createPlannedTask(project, Duration.ofHours(1));
+		Task dependent = createPlannedTask(project, Duration.ofHours(1), base);
+		assertEquals(TaskStatus.UNAVAILABLE, dependent.getStatus());
+		tmc.setExecuting(base, time);
+		tmc.advanceTime(time.plusHours(1));
+		tmc.setFinished(base, time.plusHours(1));
+		assertEquals(TaskStatus.AVAILABLE, dependent.getStatus());
+	}
+
 	@Test
 	public void getAllDelegatablePlannableTasksTest() {
 
@@ -351,4 +362,23 @@ public class TaskManControllerTester extends TaskManTester {
 		tmc.loadSystem();
 		tmc.getResponsibleBranch(task);
 	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void getResponsibleBranchForTaskOfSavedProjectNotInSystem() {
+		tmc.saveSystem();
+		Task task = createTask(project, Duration.ofHours(8));
+		tmc.loadSystem();
+		tmc.getResponsibleBranch(task);
+	}
+
+	@Test
+	public void getResponsibleBranchForDelegationUndoneByLoad() {
+		Task task = this.createTask(project, Duration.ofHours(5));
+		BranchOffice there = tmc.createBranchOffice("Celestijnenlaan 200a");
+		tmc.saveSystem();
+		tmc.delegate(task, there);
+		assertEquals(there, tmc.getResponsibleBranch(task));
+		tmc.loadSystem();
+		assertEquals(this.here, tmc.getResponsibleBranch(task));
+	}
 }
@@ -0,0 +1,138 @@
+package taskmanager;
+
+import static org.junit.Assert.assertEquals;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TaskManSessionTester extends TaskManTester {
+
+	private static final int TASKS = 50;
+
+	private BranchOffice there;
+	private Developer otherDev;
+	private TaskManSession hereSession;
+	private TaskManSession thereSession;
+	private ExecutorService executor;
+
+	@Before
+	public void setUp() {
+		super.setUp();
+		there = tmc.createBranchOffice("there");
+		otherDev = tmc.createDeveloper(there, "Jan");
+		hereSession = tmc.openSession(here, dev);
+		thereSession = tmc.openSession(there, otherDev);
+		executor = Executors.newFixedThreadPool(2);
+	}
+
+	@After
+	public void tearDown() {
+		executor.shutdownNow();
+	}
+
+	@Test
+	public void testOfficesPlanAtTheSameTime() throws Exception {
+		List<Task> hereTasks = createTasks(hereSession);
+		List<Task> thereTasks = createTasks(thereSession);
+
+		Future<?> first = executor.submit(() -> planAll(hereSession,
+				hereTasks));
+		Future<?> second = executor.submit(() -> planAll(thereSession,
+				thereTasks));
+		first.get(10, TimeUnit.SECONDS);
+		second.get(10, TimeUnit.SECONDS);
+
+		assertEquals(TASKS, here.getPlanner().getAllPlannings().size());
+		assertEquals(TASKS, there.getPlanner().getAllPlannings().size());
+		assertEquals(new HashSet<Task>(hereTasks),
+				hereSession.getAssignedTasks());
+		assertEquals(new HashSet<Task>(thereTasks),
+				thereSession.getAssignedTasks());
+	}
+
+	@Test
+	public void testDelegationsBetweenOfficesDoNotBlock() throws Exception {
+		List<Task> hereTasks = createTasks(hereSession);
+		List<Task> thereTasks = createTasks(thereSession);
+
+		Future<?> first = executor.submit(() -> {
+			for (Task task : hereTasks) {
+				hereSession.delegate(task, there);
+			}
+		});
+		Future<?> second = executor.submit(() -> {
+			for (Task task : thereTasks) {
+				thereSession.delegate(task, here);
+			}
+		});
+		first.get(10, TimeUnit.SECONDS);
+		second.get(10, TimeUnit.SECONDS);
+
+		for (Task task : hereTasks) {
+			assertEquals(there, tmc.getResponsibleBranch(task));
+		}
+		for (Task task : thereTasks) {
+			assertEquals(here, tmc.getResponsibleBranch(task));
+		}
+	}
+
+	@Test
+	public void testFinishDelegatedTaskUpdatesOwner() {
+		Project project = hereSession.createProject("project", "desc",
+				time.plusDays(20));
+		Task task = hereSession.createTask(
+				Task.builder("desc", Duration.ofHours(1), 0.5), project);
+		Task dependent = hereSession.createTask(
+				Task.builder("desc", Duration.ofHours(1), 0.5)
+						.addDependencies(task), project);
+		hereSession.plan(time.plusHours(1), dependent,
+				Collections.singleton(dev), Collections.emptySet());
+		assertEquals(TaskStatus.UNAVAILABLE, dependent.getStatus());
+
+		hereSession.delegate(task, there);
+		thereSession.plan(time, task, Collections.singleton(otherDev),
+				Collections.emptySet());
+		thereSession.setExecuting(task, time);
+		thereSession.setFinished(task, time.plusHours(1));
+
+		assertEquals(TaskStatus.FINISHED, task.getStatus());
+		assertEquals(TaskStatus.AVAILABLE, dependent.getStatus());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testPlanWithoutDevelopers() {
+		Task task = createTasks(hereSession).get(0);
+		hereSession.plan(time, task, Collections.emptySet(),
+				Collections.emptySet());
+	}
+
+	private List<Task> createTasks(TaskManSession session) {
+		Project project = session.createProject("project", "desc",
+				time.plusDays(20));
+		List<Task> tasks = new ArrayList<Task>();
+		for (int i = 0; i < TASKS; i++) {
+			tasks.add(session.createTask(
+					Task.builder("desc", Duration.ofHours(1), 0.5), project));
+		}
+		return tasks;
+	}
+
+	private void planAll(TaskManSession session, List<Task> tasks) {
+		for (Task task : tasks) {
+			session.plan(session.getPossibleStartTimes(task).iterator().next(),
+					task, Collections.singleton(session.getDeveloper()),
+					Collections.emptySet());
+		}
+	}
+}
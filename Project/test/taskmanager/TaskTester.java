@@ -1,6 +1,7 @@
 package taskmanager;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
 import java.time.Duration;
@@ -87,6 +88,19 @@ public class TaskTester extends TaskManTester {
 				task.getEstimatedFinishTime());
 	}
 
+	@Test
+	public void estimatedFinishTimeFollowsChanges() {
+		LocalDateTime before = level2DependentTask.getEstimatedFinishTime();
+		tmc.advanceTime(tmc.getTime().plusHours(1));
+		assertTrue(level2DependentTask.getEstimatedFinishTime().isAfter(before));
+
+		LocalDateTime unfinished = level2DependentTask.getEstimatedFinishTime();
+		baseTask.setExecuting(tmc.getTime());
+		baseTask.setFinished(tmc.getTime());
+		assertTrue(level2DependentTask.getEstimatedFinishTime().isBefore(
+				unfinished));
+	}
+
 	@Test
 	public void getId() {
 		Task task1 = Task.builder("new task 1", Duration.ofHours(8), 0.2)
@@ -124,6 +138,15 @@ public class TaskTester extends TaskManTester {
 		assertTrue(level2DependentTask.hasDependency(baseTask));
 	}
 
+	@Test
+	public void dependentsFollowDependencies() {
+		assertTrue(baseTask.getDependents().contains(dependentTask));
+		assertTrue(dependentTask.getDependents().contains(level2DependentTask));
+		assertFalse(baseTask.getDependents().contains(level2DependentTask));
+		dependentTask.removeDependency(baseTask);
+		assertTrue(baseTask.getDependents().isEmpty());
+	}
+
 	@Test
 	public void finishedEarly() {
 		baseTask.setStatus(TaskStatus.AVAILABLE);
@@ -45,4 +45,60 @@ public class WorkTimeTester {
 				WorkTime.durationBetween(first, second));
 	}
 
+	@Test
+	public void testFinishTimeMatchesSimulation() {
+		LocalDateTime start = LocalDateTime.of(2015, 04, 17, 0, 0);
+		for (int minutes = 0; minutes < 4 * 24 * 60; minutes += 20) {
+			LocalDateTime current = start.plusMinutes(minutes);
+			for (int workMinutes = 0; workMinutes < 3000; workMinutes += 35) {
+				Duration duration = Duration.ofMinutes(workMinutes);
+				assertEquals(current + " + " + duration,
+						new WorkTimeSimulation(current, duration)
+								.workUntilFinished(),
+						WorkTime.getFinishTime(current, duration));
+			}
+		}
+	}
+
+	@Test
+	public void testFinishTimeWithSecondsMatchesSimulation() {
+		LocalDateTime current = LocalDateTime.of(2015, 04, 22, 11, 30, 30);
+		Duration duration = Duration.ofMinutes(90).plusSeconds(10);
+		assertEquals(
+				new WorkTimeSimulation(current, duration).workUntilFinished(),
+				WorkTime.getFinishTime(current, duration));
+	}
+
+	@Test
+	public void testDurationBetweenMatchesHourlyStepping() {
+		LocalDateTime start = LocalDateTime.of(2015, 04, 17, 0, 0);
+		for (int minutes = 0; minutes < 4 * 24 * 60; minutes += 50) {
+			LocalDateTime first = start.plusMinutes(minutes);
+			for (int later = 10; later < 6 * 24 * 60; later += 85) {
+				LocalDateTime second = first.plusMinutes(later);
+				assertEquals(first + " - " + second,
+						hourlyDurationBetween(first, second),
+						WorkTime.durationBetween(first, second));
+			}
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testDurationBetweenSameTime() {
+		LocalDateTime time = LocalDateTime.of(2015, 04, 22, 9, 0);
+		WorkTime.durationBetween(time, time);
+	}
+
+	private Duration hourlyDurationBetween(LocalDateTime first,
+			LocalDateTime second) {
+		Duration hoursWorked = Duration.ZERO;
+		LocalDateTime working = first;
+		while (working.isBefore(second)) {
+			hoursWorked = hoursWorked.plusHours(1);
+			working = new WorkTimeSimulation(working, Duration.ofHours(1))
+					.workUntilFinished();
+		}
+		return hoursWorked;
+	}
+
 }
@@ -0,0 +1,29 @@
+package workload;
+
+/**
+ * The shape of the dependency graph of the tasks of every project of a
+ * generated workload. Tasks only depend on earlier tasks of their own project.
+ */
+public enum DagShape {
+
+	/**
+	 * No task has prerequisites
+	 */
+	INDEPENDENT,
+
+	/**
+	 * Every task depends on the previous task of its project
+	 */
+	CHAIN,
+
+	/**
+	 * The tasks of a project are split in layers, every task depends on some
+	 * tasks of the previous layer
+	 */
+	LAYERED,
+
+	/**
+	 * Every task depends on some random earlier tasks of its project
+	 */
+	RANDOM
+}
@@ -0,0 +1,611 @@
+package workload;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import taskmanager.BranchOffice;
+import taskmanager.Developer;
+import taskmanager.Planning.PlanningBuilder;
+import taskmanager.PlanningBatch;
+import taskmanager.Project;
+import taskmanager.Resource;
+import taskmanager.ResourceType;
+import taskmanager.ResourceType.ResourceTypeBuilder;
+import taskmanager.Task;
+import taskmanager.Task.TaskBuilder;
+import taskmanager.TaskManController;
+import utility.TimeSpan;
+
+/**
+ * A generated company. The same specification always generates the same
+ * workload, which can be written as a TaskMan file or built in memory. Both
+ * give the same company: building the workload does what the parser does with
+ * the written file, in the same order.
+ *
+ * The tasks of a branch are spread over its projects in turn and only depend
+ * on earlier tasks of their project. A task that requires a resource type
+ * also requires all the types it requires. The planned tasks are executed one
+ * hour each in work hours, as many at the same time as there are lanes: every
+ * lane has its own two developers and its own resource of every type. The
+ * finished tasks come first, the system time is the hour after them and the
+ * other plannings start an hour later, so none of them conflict. Every branch
+ * delegates some of its unplanned tasks to the next branch.
+ */
+public class Workload {
+
+	// a monday
+	public static final LocalDateTime START = LocalDateTime.of(2014, 1, 6, 8,
+			0);
+
+	private static final int LAYER_WIDTH = 4;
+	private static final DateTimeFormatter FORMAT = DateTimeFormatter
+			.ofPattern("yyyy-MM-dd HH:mm");
+
+	private final WorkloadSpec spec;
+	private final List<BranchModel> branches = new ArrayList<BranchModel>();
+	private final List<DelegationModel> delegations = new ArrayList<DelegationModel>();
+	private LocalDateTime systemTime;
+
+	private Workload(WorkloadSpec spec) {
+		this.spec = spec;
+	}
+
+	/**
+	 * Generates the workload of the given specification
+	 *
+	 * @param spec
+	 *            : the sizes of the workload
+	 * @return the workload
+	 */
+	public static Workload generate(WorkloadSpec spec) {
+		Workload workload = new Workload(spec);
+		Random random = new Random(spec.getSeed());
+		for (int b = 0; b < spec.getBranches(); b++) {
+			workload.branches.add(workload.generateBranch(b, random));
+		}
+		workload.schedule();
+		workload.generateDelegations();
+		return workload;
+	}
+
+	/**
+	 * @return the specification of the workload
+	 */
+	public WorkloadSpec getSpec() {
+		return spec;
+	}
+
+	/**
+	 * @return the system time of the company
+	 */
+	public LocalDateTime getSystemTime() {
+		return systemTime;
+	}
+
+	/**
+	 * @return the amount of tasks of all branches
+	 */
+	public int getTaskCount() {
+		return spec.getBranches() * spec.getTasks();
+	}
+
+	/**
+	 * @return the amount of plannings of all branches
+	 */
+	public int getPlanningCount() {
+		int count = 0;
+		for (BranchModel branch : branches) {
+			for (TaskModel task : branch.tasks) {
+				if (task.planned) {
+					count++;
+				}
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * @return the amount of finished tasks of all branches
+	 */
+	public int getFinishedCount() {
+		int count = 0;
+		for (BranchModel branch : branches) {
+			for (TaskModel task : branch.tasks) {
+				if (task.finished) {
+					count++;
+				}
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * @return the amount of delegations
+	 */
+	public int getDelegationCount() {
+		return delegations.size();
+	}
+
+	private BranchModel generateBranch(int number, Random random) {
+		BranchModel branch = new BranchModel("branch " + number);
+		int chain = spec.getTypeChainLength();
+		for (int t = 0; t < spec.getResourceTypes(); t++) {
+			int requires = t % chain != 0 ? t - 1 : -1;
+			int conflicts = t % chain == 0 && t >= chain ? t - chain : -1;
+			branch.types.add(new TypeModel("type " + t, requires, conflicts));
+		}
+
+		List<List<TaskModel>> projectTasks = new ArrayList<List<TaskModel>>();
+		for (int p = 0; p < spec.getProjects(); p++) {
+			projectTasks.add(new ArrayList<TaskModel>());
+		}
+		for (int i = 0; i < spec.getTasks(); i++) {
+			int project = i % spec.getProjects();
+			List<TaskModel> earlier = projectTasks.get(project);
+			TaskModel task = new TaskModel(project, earlier.size());
+			task.prerequisites = prerequisites(earlier.size(), random);
+			task.developers = random.nextDouble() < spec.getTeamFraction() ? 2
+					: 1;
+			if (!branch.types.isEmpty()
+					&& random.nextDouble() < spec.getResourceFraction()) {
+				int type = random.nextInt(branch.types.size());
+				for (int t = type - type % chain; t <= type; t++) {
+					task.types.add(t);
+				}
+			}
+			task.deviation = 10 + random.nextInt(41);
+			task.planned = random.nextDouble() < spec.getPlannedFraction();
+			task.hours = task.planned ? 1 : 1 + random.nextInt(8);
+			if (task.planned && random.nextDouble() < spec.getFinishedFraction()) {
+				task.finished = true;
+				for (int prerequisite : task.prerequisites) {
+					task.finished &= earlier.get(prerequisite).finished;
+				}
+			}
+			earlier.add(task);
+			branch.tasks.add(task);
+		}
+		return branch;
+	}
+
+	/**
+	 * Returns the prerequisites of the given task of a project, as numbers in
+	 * the project
+	 */
+	private List<Integer> prerequisites(int task, Random random) {
+		int from;
+		int to;
+		switch (spec.getShape()) {
+		case CHAIN:
+			return task > 0 ? Collections.singletonList(task - 1) : Collections
+					.<Integer> emptyList();
+		case LAYERED:
+			int layer = task / LAYER_WIDTH;
+			if (layer == 0) {
+				return Collections.emptyList();
+			}
+			from = (layer - 1) * LAYER_WIDTH;
+			to = layer * LAYER_WIDTH;
+			break;
+		case RANDOM:
+			from = 0;
+			to = task;
+			break;
+		default:
+			return Collections.emptyList();
+		}
+		int count = Math.min(to - from, spec.getMaxPrerequisites());
+		if (count > 0 && spec.getShape() == DagShape.RANDOM) {
+			count = random.nextInt(count + 1);
+		} else if (count > 0) {
+			count = 1 + random.nextInt(count);
+		}
+		TreeSet<Integer> chosen = new TreeSet<Integer>();
+		while (chosen.size() < count) {
+			chosen.add(from + random.nextInt(to - from));
+		}
+		return new ArrayList<Integer>(chosen);
+	}
+
+	/**
+	 * Gives every planned task its hour and lane
+	 */
+	private void schedule() {
+		int lanes = spec.getLanes();
+		int finishedHours = 0;
+		for (BranchModel branch : branches) {
+			int finished = 0;
+			for (TaskModel task : branch.tasks) {
+				if (task.finished) {
+					task.start = slot(finished / lanes);
+					task.lane = finished % lanes;
+					finished++;
+				}
+			}
+			finishedHours = Math.max(finishedHours, (finished + lanes - 1)
+					/ lanes);
+		}
+		systemTime = slot(finishedHours);
+		for (BranchModel branch : branches) {
+			int planned = 0;
+			for (TaskModel task : branch.tasks) {
+				if (task.planned && !task.finished) {
+					task.start = slot(finishedHours + 1 + planned / lanes);
+					task.lane = planned % lanes;
+					planned++;
+				}
+			}
+		}
+	}
+
+	private void generateDelegations() {
+		if (branches.size() < 2) {
+			return;
+		}
+		for (int b = 0; b < branches.size(); b++) {
+			int delegated = 0;
+			for (TaskModel task : branches.get(b).tasks) {
+				if (delegated == spec.getDelegations()) {
+					break;
+				}
+				if (!task.planned) {
+					delegations.add(new DelegationModel(b, task.project,
+							task.number, (b + 1) % branches.size()));
+					delegated++;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Returns the begin of the given work hour after the start, leaving out
+	 * the lunch break and the weekends
+	 */
+	static LocalDateTime slot(int hour) {
+		int day = hour / 8;
+		int hourOfDay = hour % 8 < 4 ? hour % 8 : hour % 8 + 1;
+		return START.plusWeeks(day / 5).plusDays(day % 5).plusHours(hourOfDay);
+	}
+
+	/**
+	 * Writes the workload as a TaskMan file
+	 *
+	 * @param path
+	 *            : the file to write
+	 * @throws IOException
+	 *             : thrown when the file can not be written
+	 */
+	public void write(Path path) throws IOException {
+		try (Writer writer = Files.newBufferedWriter(path,
+				StandardCharsets.UTF_8)) {
+			write(writer);
+		}
+	}
+
+	/**
+	 * Writes the workload as a TaskMan file to a temporary file
+	 *
+	 * @return the temporary file
+	 * @throws IOException
+	 *             : thrown when the file can not be written
+	 */
+	public Path writeTemporary() throws IOException {
+		Path file = Files.createTempFile("workload", ".tman");
+		write(file);
+		return file;
+	}
+
+	/**
+	 * Writes the workload as a TaskMan file to the given writer
+	 *
+	 * @param writer
+	 *            : the writer of the file
+	 */
+	public void write(Writer writer) {
+		PrintWriter out = new PrintWriter(new BufferedWriter(writer));
+		out.println("# generated workload: " + spec);
+		out.println("systemTime: \"" + FORMAT.format(systemTime) + "\"");
+		out.println("branch:");
+		for (BranchModel branch : branches) {
+			writeBranch(branch, out);
+		}
+		if (!delegations.isEmpty()) {
+			out.println("delegations:");
+			for (DelegationModel delegation : delegations) {
+				out.println("  - branchFrom: " + delegation.from);
+				out.println("    project: " + delegation.project);
+				out.println("    task: " + delegation.task);
+				out.println("    branchTo: " + delegation.to);
+			}
+		}
+		out.flush();
+	}
+
+	private void writeBranch(BranchModel branch, PrintWriter out) {
+		out.println("  - location: \"" + branch.location + "\"");
+		out.println("    resourceTypes:");
+		for (TypeModel type : branch.types) {
+			out.println("      - name: \"" + type.name + "\"");
+			out.println("        requires: "
+					+ list(type.requires < 0 ? Collections.<Integer> emptyList()
+							: Collections.singletonList(type.requires)));
+			// the parser numbers the conflicting types from one
+			out.println("        conflictsWith: "
+					+ list(type.conflicts < 0 ? Collections
+							.<Integer> emptyList() : Collections
+							.singletonList(type.conflicts + 1)));
+		}
+		out.println("    resources:");
+		for (int t = 0; t < branch.types.size(); t++) {
+			for (int r = 0; r < spec.getResourcesPerType(); r++) {
+				out.println("      - name: \"" + resourceName(t, r) + "\"");
+				out.println("        type: " + t);
+			}
+		}
+		out.println("    developers:");
+		for (int d = 0; d < spec.getDevelopers(); d++) {
+			out.println("      - name: \"" + developerName(d) + "\"");
+		}
+		out.println("    projects:");
+		for (int p = 0; p < spec.getProjects(); p++) {
+			out.println("      - name: \"project " + p + "\"");
+			out.println("        description: \"generated\"");
+			out.println("        creationTime: \""
+					+ FORMAT.format(creationTime()) + "\"");
+			out.println("        dueTime: \"" + FORMAT.format(dueTime())
+					+ "\"");
+		}
+		out.println("    tasks:");
+		for (TaskModel task : branch.tasks) {
+			out.println("      - project: " + task.project);
+			out.println("        description: \"" + task.description() + "\"");
+			out.println("        estimatedDuration: " + task.hours);
+			out.println("        acceptableDeviation: " + task.deviation);
+			out.println("        prerequisiteTasks: "
+					+ list(task.prerequisites));
+			out.println("        requiredDevelopers: " + task.developers);
+			StringBuilder types = new StringBuilder();
+			for (int type : task.types) {
+				types.append(types.length() == 0 ? "" : ", ")
+						.append("{type: ").append(type)
+						.append(", quantity: 1}");
+			}
+			out.println("        requiredTypes: [" + types + "]");
+			if (task.finished) {
+				out.println("        status: finished");
+				out.println("        startTime: \"" + FORMAT.format(task.start)
+						+ "\"");
+				out.println("        endTime: \"" + FORMAT.format(task.end())
+						+ "\"");
+			}
+		}
+		out.println("    plannings:");
+		for (int i = 0; i < branch.tasks.size(); i++) {
+			TaskModel task = branch.tasks.get(i);
+			if (!task.planned) {
+				continue;
+			}
+			out.println("      - plannedStartTime: \""
+					+ FORMAT.format(task.start) + "\"");
+			out.println("        developers: " + list(task.team()));
+			out.println("        task: " + i);
+			StringBuilder resources = new StringBuilder();
+			for (int type : task.types) {
+				resources.append(resources.length() == 0 ? "" : ", ")
+						.append("{type: ").append(type).append(", resource: [")
+						.append(type * spec.getResourcesPerType() + task.lane)
+						.append("]}");
+			}
+			out.println("        resources: [" + resources + "]");
+		}
+	}
+
+	/**
+	 * Builds the workload in memory, like the parser builds the written file
+	 *
+	 * @return a controller of the company of the workload
+	 */
+	public TaskManController build() {
+		TaskManController tmc = new TaskManController(systemTime);
+		List<List<List<Task>>> allTasks = new ArrayList<List<List<Task>>>();
+		List<BranchOffice> offices = new ArrayList<BranchOffice>();
+		for (BranchModel branch : branches) {
+			BranchOffice office = tmc.createBranchOffice(branch.location);
+			tmc.logIn(office);
+			offices.add(office);
+			allTasks.add(buildBranch(branch, office, tmc));
+		}
+		for (DelegationModel delegation : delegations) {
+			tmc.logIn(offices.get(delegation.from));
+			tmc.delegate(
+					allTasks.get(delegation.from).get(delegation.project)
+							.get(delegation.task), offices.get(delegation.to));
+		}
+		return tmc;
+	}
+
+	private List<List<Task>> buildBranch(BranchModel branch,
+			BranchOffice office, TaskManController tmc) {
+		List<ResourceType> types = new ArrayList<ResourceType>();
+		for (TypeModel type : branch.types) {
+			ResourceTypeBuilder builder = ResourceType.builder(type.name);
+			if (type.requires >= 0) {
+				builder.addRequiredResourceTypes(types.get(type.requires));
+			}
+			if (type.conflicts >= 0) {
+				builder.addConflictedResourceTypes(types.get(type.conflicts));
+			}
+			types.add(builder.build(office));
+		}
+		List<List<Resource>> resources = new ArrayList<List<Resource>>();
+		for (int t = 0; t < types.size(); t++) {
+			List<Resource> ofType = new ArrayList<Resource>();
+			for (int r = 0; r < spec.getResourcesPerType(); r++) {
+				ofType.add(types.get(t).createResource(resourceName(t, r)));
+			}
+			resources.add(ofType);
+		}
+		List<Developer> developers = new ArrayList<Developer>();
+		for (int d = 0; d < spec.getDevelopers(); d++) {
+			developers.add(tmc.createDeveloper(office, developerName(d)));
+		}
+		List<Project> projects = new ArrayList<Project>();
+		List<List<Task>> projectTasks = new ArrayList<List<Task>>();
+		for (int p = 0; p < spec.getProjects(); p++) {
+			projects.add(tmc.createProject(office, "project " + p,
+					"generated", creationTime(), dueTime()));
+			projectTasks.add(new ArrayList<Task>());
+		}
+
+		PlanningBatch batch = tmc.createPlanningBatch(office);
+		List<Task> finished = new ArrayList<Task>();
+		List<TaskModel> finishedModels = new ArrayList<TaskModel>();
+		for (TaskModel model : branch.tasks) {
+			List<Task> earlier = projectTasks.get(model.project);
+			TaskBuilder builder = Task.builder(model.description(),
+					Duration.ofHours(model.hours), model.deviation / 100.0);
+			for (int prerequisite : model.prerequisites) {
+				builder.addDependencies(earlier.get(prerequisite));
+			}
+			builder.amountOfRequiredDevelopers(model.developers);
+			for (int type : model.types) {
+				builder.addRequiredResourceType(types.get(type), 1);
+			}
+			Task task = builder.build(projects.get(model.project));
+			earlier.add(task);
+			if (model.planned) {
+				TimeSpan timeSpan = model.finished ? new TimeSpan(model.start,
+						task.getDuration()) : new TimeSpan(model.start,
+						model.start.plus(task.getDuration()));
+				List<Integer> team = model.team();
+				PlanningBuilder planning = batch.add(timeSpan, task,
+						developers.get(team.get(0)));
+				for (int d = 1; d < team.size(); d++) {
+					planning.addDeveloper(developers.get(team.get(d)));
+				}
+				for (int type : model.types) {
+					planning.addResources(resources.get(type).get(model.lane));
+				}
+				if (model.finished) {
+					finished.add(task);
+					finishedModels.add(model);
+				}
+			}
+		}
+		batch.build();
+		for (int i = 0; i < finished.size(); i++) {
+			TaskModel model = finishedModels.get(i);
+			tmc.setExecuting(office, finished.get(i), model.start);
+			tmc.setFinished(office, finished.get(i), model.end());
+		}
+		return projectTasks;
+	}
+
+	private static String list(List<Integer> numbers) {
+		StringBuilder list = new StringBuilder("[");
+		for (int i = 0; i < numbers.size(); i++) {
+			list.append(i == 0 ? "" : ", ").append(numbers.get(i));
+		}
+		return list.append("]").toString();
+	}
+
+	private static String resourceName(int type, int resource) {
+		return "resource " + type + "." + resource;
+	}
+
+	private static String developerName(int developer) {
+		return "developer " + developer;
+	}
+
+	private static LocalDateTime creationTime() {
+		return START.minusMonths(1);
+	}
+
+	private LocalDateTime dueTime() {
+		return systemTime.plusYears(2);
+	}
+
+	private static class BranchModel {
+		private final String location;
+		private final List<TypeModel> types = new ArrayList<TypeModel>();
+		private final List<TaskModel> tasks = new ArrayList<TaskModel>();
+
+		private BranchModel(String location) {
+			this.location = location;
+		}
+	}
+
+	private static class TypeModel {
+		private final String name;
+		private final int requires;
+		private final int conflicts;
+
+		private TypeModel(String name, int requires, int conflicts) {
+			this.name = name;
+			this.requires = requires;
+			this.conflicts = conflicts;
+		}
+	}
+
+	private static class TaskModel {
+		private final int project;
+		private final int number;
+		private List<Integer> prerequisites;
+		private final List<Integer> types = new ArrayList<Integer>();
+		private int developers;
+		private int hours;
+		private int deviation;
+		private boolean planned;
+		private boolean finished;
+		private LocalDateTime start;
+		private int lane;
+
+		private TaskModel(int project, int number) {
+			this.project = project;
+			this.number = number;
+		}
+
+		private String description() {
+			return "task " + number + " of project " + project;
+		}
+
+		private LocalDateTime end() {
+			return start.plusHours(hours);
+		}
+
+		private List<Integer> team() {
+			List<Integer> team = new ArrayList<Integer>();
+			for (int d = 0; d < developers; d++) {
+				team.add(2 * lane + d);
+			}
+			return team;
+		}
+	}
+
+	private static class DelegationModel {
+		private final int from;
+		private final int project;
+		private final int task;
+		private final int to;
+
+		private DelegationModel(int from, int project, int task, int to) {
+			this.from = from;
+			this.project = project;
+			this.task = task;
+			this.to = to;
+		}
+	}
+}
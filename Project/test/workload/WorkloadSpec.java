@@ -0,0 +1,286 @@
+package workload;
+
+/**
+ * The sizes of a generated workload. All counts except the amount of branches
+ * are per branch office. The same specification always generates the same
+ * workload.
+ */
+public class WorkloadSpec {
+
+	private final long seed;
+	private final int branches;
+	private final int resourceTypes;
+	private final int typeChainLength;
+	private final int resourcesPerType;
+	private final int developers;
+	private final int projects;
+	private final int tasks;
+	private final DagShape shape;
+	private final int maxPrerequisites;
+	private final double plannedFraction;
+	private final double finishedFraction;
+	private final double resourceFraction;
+	private final double teamFraction;
+	private final int delegations;
+
+	private WorkloadSpec(Builder builder) {
+		this.seed = builder.seed;
+		this.branches = builder.branches;
+		this.resourceTypes = builder.resourceTypes;
+		this.typeChainLength = builder.typeChainLength;
+		this.resourcesPerType = builder.resourcesPerType;
+		this.developers = builder.developers;
+		this.projects = builder.projects;
+		this.tasks = builder.tasks;
+		this.shape = builder.shape;
+		this.maxPrerequisites = builder.maxPrerequisites;
+		this.plannedFraction = builder.plannedFraction;
+		this.finishedFraction = builder.finishedFraction;
+		this.resourceFraction = builder.resourceFraction;
+		this.teamFraction = builder.teamFraction;
+		this.delegations = builder.delegations;
+	}
+
+	/**
+	 * @return a builder with the default sizes
+	 */
+	public static Builder builder() {
+		return new Builder();
+	}
+
+	public long getSeed() {
+		return seed;
+	}
+
+	public int getBranches() {
+		return branches;
+	}
+
+	public int getResourceTypes() {
+		return resourceTypes;
+	}
+
+	public int getTypeChainLength() {
+		return typeChainLength;
+	}
+
+	public int getResourcesPerType() {
+		return resourcesPerType;
+	}
+
+	public int getDevelopers() {
+		return developers;
+	}
+
+	public int getProjects() {
+		return projects;
+	}
+
+	public int getTasks() {
+		return tasks;
+	}
+
+	public DagShape getShape() {
+		return shape;
+	}
+
+	public int getMaxPrerequisites() {
+		return maxPrerequisites;
+	}
+
+	public double getPlannedFraction() {
+		return plannedFraction;
+	}
+
+	public double getFinishedFraction() {
+		return finishedFraction;
+	}
+
+	public double getResourceFraction() {
+		return resourceFraction;
+	}
+
+	public double getTeamFraction() {
+		return teamFraction;
+	}
+
+	public int getDelegations() {
+		return delegations;
+	}
+
+	/**
+	 * Returns the amount of planned tasks that are executed at the same time:
+	 * every one of them has its own two developers and its own resource of
+	 * every type
+	 */
+	int getLanes() {
+		int lanes = developers / 2;
+		if (resourceTypes > 0) {
+			lanes = Math.min(lanes, resourcesPerType);
+		}
+		return lanes;
+	}
+
+	@Override
+	public String toString() {
+		return branches + " branches of " + tasks + " " + shape
+				+ " tasks, " + developers + " developers, " + resourceTypes
+				+ " x " + resourcesPerType + " resources";
+	}
+
+	/**
+	 * Builds a specification of a workload
+	 */
+	public static class Builder {
+
+		private long seed = 1;
+		private int branches = 2;
+		private int resourceTypes = 6;
+		private int typeChainLength = 3;
+		private int resourcesPerType = 4;
+		private int developers = 10;
+		private int projects = 5;
+		private int tasks = 200;
+		private DagShape shape = DagShape.LAYERED;
+		private int maxPrerequisites = 2;
+		private double plannedFraction = 0.5;
+		private double finishedFraction = 0.4;
+		private double resourceFraction = 0.3;
+		private double teamFraction = 0.2;
+		private int delegations = 5;
+
+		private Builder() {
+		}
+
+		/**
+		 * The seed of the random choices
+		 */
+		public Builder seed(long seed) {
+			this.seed = seed;
+			return this;
+		}
+
+		/**
+		 * The amount of branch offices
+		 */
+		public Builder branches(int branches) {
+			this.branches = branches;
+			return this;
+		}
+
+		/**
+		 * The amount of resource types. The types form chains of the given
+		 * length in which every type requires the previous one. The first
+		 * type of every chain conflicts with the first type of the previous
+		 * chain.
+		 */
+		public Builder resourceTypes(int resourceTypes, int chainLength) {
+			this.resourceTypes = resourceTypes;
+			this.typeChainLength = chainLength;
+			return this;
+		}
+
+		/**
+		 * The amount of resources of every type
+		 */
+		public Builder resourcesPerType(int resourcesPerType) {
+			this.resourcesPerType = resourcesPerType;
+			return this;
+		}
+
+		/**
+		 * The amount of developers
+		 */
+		public Builder developers(int developers) {
+			this.developers = developers;
+			return this;
+		}
+
+		/**
+		 * The amount of projects
+		 */
+		public Builder projects(int projects) {
+			this.projects = projects;
+			return this;
+		}
+
+		/**
+		 * The amount of tasks, spread over the projects
+		 */
+		public Builder tasks(int tasks) {
+			this.tasks = tasks;
+			return this;
+		}
+
+		/**
+		 * The shape of the dependency graphs and the maximal amount of
+		 * prerequisites of a task
+		 */
+		public Builder shape(DagShape shape, int maxPrerequisites) {
+			this.shape = shape;
+			this.maxPrerequisites = maxPrerequisites;
+			return this;
+		}
+
+		/**
+		 * The fraction of the tasks that is planned, and the fraction of the
+		 * planned tasks with finished prerequisites that is finished
+		 */
+		public Builder planned(double plannedFraction, double finishedFraction) {
+			this.plannedFraction = plannedFraction;
+			this.finishedFraction = finishedFraction;
+			return this;
+		}
+
+		/**
+		 * The fraction of the tasks that requires resources
+		 */
+		public Builder resourceFraction(double resourceFraction) {
+			this.resourceFraction = resourceFraction;
+			return this;
+		}
+
+		/**
+		 * The fraction of the tasks that requires two developers
+		 */
+		public Builder teamFraction(double teamFraction) {
+			this.teamFraction = teamFraction;
+			return this;
+		}
+
+		/**
+		 * The amount of unplanned tasks every branch delegates to the next
+		 * branch
+		 */
+		public Builder delegations(int delegations) {
+			this.delegations = delegations;
+			return this;
+		}
+
+		/**
+		 * @return the specification
+		 * @throws IllegalArgumentException
+		 *             : thrown when the sizes can not make a valid workload
+		 */
+		public WorkloadSpec build() {
+			if (branches < 1 || projects < 1 || tasks < 0) {
+				throw new IllegalArgumentException(
+						"A workload needs a branch and a project");
+			}
+			if (developers < 2) {
+				throw new IllegalArgumentException(
+						"A workload needs at least two developers");
+			}
+			if (resourceTypes > 0
+					&& (resourcesPerType < 1 || typeChainLength < 1)) {
+				throw new IllegalArgumentException(
+						"Every resource type needs a resource");
+			}
+			if (delegations > 0 && branches < 2) {
+				throw new IllegalArgumentException(
+						"Delegations need a second branch");
+			}
+			return new WorkloadSpec(this);
+		}
+	}
+}